@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows observed latency, in the spirit of the gradient limiters: the recent latency
+ * is compared with a slowly moving baseline, and the limit shrinks once the ratio exceeds the tolerance and
+ * grows by {@code sqrt(limit)} while it does not. Requests over the limit wait in a short bounded queue and
+ * are rejected when it is full or the wait times out.
+ */
+public class AdaptiveLimiter {
+    private static final double SHORT_RTT_WEIGHT = 0.2;
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double OVERLOADED_LONG_RTT_WEIGHT = 0.001;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final AdmissionProperties.Group settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    // Written under the lock, read without it by the gauges.
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int waiting;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveLimiter(AdmissionProperties.Group settings) {
+        this.settings = settings;
+        this.limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+    }
+
+    public boolean tryAcquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < getLimit()) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= settings.getMaxQueue()) {
+                return false;
+            }
+            waiting++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(settings.getQueueTimeoutMs());
+                while (inFlight >= getLimit()) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            boolean appLimited = inFlight < limit / 2;
+            inFlight--;
+            if (rttNanos > 0) {
+                adjust(rttNanos, appLimited);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long rttNanos, boolean appLimited) {
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_RTT_WEIGHT;
+        // Under overload the baseline barely moves, otherwise sustained slowness would become the new normal.
+        boolean overloaded = shortRtt > settings.getTolerance() * longRtt;
+        longRtt += (rttNanos - longRtt) * (overloaded ? OVERLOADED_LONG_RTT_WEIGHT : LONG_RTT_WEIGHT);
+        if (longRtt > shortRtt * 2) {
+            // Load dropped off: let the baseline catch up instead of granting a huge limit.
+            longRtt = Math.max(shortRtt, longRtt * 0.95);
+        }
+        double gradient = Math.clamp(settings.getTolerance() * longRtt / shortRtt, MIN_GRADIENT, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (appLimited && newLimit > limit) {
+            return;
+        }
+        limit = Math.clamp(limit + (newLimit - limit) * LIMIT_SMOOTHING,
+                settings.getMinLimit(), settings.getMaxLimit());
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+}
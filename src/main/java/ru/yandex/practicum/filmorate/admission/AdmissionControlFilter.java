@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.exception.handler.GlobalExceptionHandler;
+
+/**
+ * Admits each request through the {@link AdaptiveLimiter} of its endpoint group, so a storm of likes cannot
+ * starve {@code GET /films} and neither can starve cheap lookups like {@code /genres}. Rejected requests get
+ * 503 with {@code Retry-After} before touching the database.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<EndpointGroup, AdaptiveLimiter> limiters = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, Counter> accepted = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, Counter> rejected = new EnumMap<>(EndpointGroup.class);
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            AdaptiveLimiter limiter = new AdaptiveLimiter(properties.group(group));
+            limiters.put(group, limiter);
+            Gauge.builder("filmorate.admission.limit", limiter, AdaptiveLimiter::getLimit)
+                    .tag("group", group.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("filmorate.admission.in.flight", limiter, AdaptiveLimiter::getInFlight)
+                    .tag("group", group.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("filmorate.admission.queue.size", limiter, AdaptiveLimiter::getWaiting)
+                    .tag("group", group.getKey())
+                    .register(meterRegistry);
+            accepted.put(group, meterRegistry.counter("filmorate.admission.requests",
+                    "group", group.getKey(), "outcome", "accepted"));
+            rejected.put(group, meterRegistry.counter("filmorate.admission.requests",
+                    "group", group.getKey(), "outcome", "rejected"));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = pathOf(request);
+        return properties.getBypassPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = classify(request.getMethod(), pathOf(request));
+        AdaptiveLimiter limiter = limiters.get(group);
+        boolean admitted;
+        try {
+            admitted = limiter.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.get(group).increment();
+            reject(response);
+            return;
+        }
+        accepted.get(group).increment();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    EndpointGroup classify(String method, String path) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return EndpointGroup.WRITES;
+        }
+        boolean heavy = properties.getHeavyReadPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+        return heavy ? EndpointGroup.HEAVY_READS : EndpointGroup.LIGHT_READS;
+    }
+
+    private String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервер перегружен, повторите запрос позже."));
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import java.util.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private int retryAfterSeconds = 1;
+    /**
+     * GET paths that scan films or users. Every other GET is a light read, every other method is a write.
+     */
+    private List<String> heavyReadPaths = new ArrayList<>(List.of(
+            "/films", "/films/popular", "/films/search", "/films/trending", "/films/*/similar",
+            "/users", "/users/*/recommendations", "/users/*/feed", "/admin/**"));
+    private List<String> bypassPaths = new ArrayList<>(List.of("/actuator/**"));
+    private Map<String, Group> groups = new LinkedHashMap<>(Map.of(
+            EndpointGroup.WRITES.getKey(), new Group(10, 2, 50, 20, 200, 2.0),
+            EndpointGroup.HEAVY_READS.getKey(), new Group(20, 4, 100, 50, 100, 2.0),
+            EndpointGroup.LIGHT_READS.getKey(), new Group(50, 10, 400, 100, 50, 2.0)));
+
+    public Group group(EndpointGroup group) {
+        return groups.getOrDefault(group.getKey(), new Group());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private int maxQueue = 50;
+        private long queueTimeoutMs = 100;
+        /**
+         * How many times the recent latency may exceed the long-term latency before the limit starts to shrink.
+         */
+        private double tolerance = 2.0;
+    }
+}
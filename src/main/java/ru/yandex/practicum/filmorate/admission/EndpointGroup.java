@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.admission;
+
+public enum EndpointGroup {
+    WRITES("writes"),
+    HEAVY_READS("heavy-reads"),
+    LIGHT_READS("light-reads");
+
+    private final String key;
+
+    EndpointGroup(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.backup;
+
+public record BackupReport(String file,
+                           long statements,
+                           long scriptBytes,
+                           long compressedBytes,
+                           long durationMs,
+                           double throughputMbPerSecond) {
+}
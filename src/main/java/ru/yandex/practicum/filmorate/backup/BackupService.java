@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.backup;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
+
+/**
+ * Online backup of the H2 database. {@code SCRIPT DROP} runs in a snapshot transaction on its own connection, so
+ * the dump is consistent across tables while writers keep going (MVStore takes no table locks for reads), and its
+ * rows are streamed through gzip into a file. The file is a plain gzip SQL script:
+ * {@link #restore} or {@code org.h2.tools.RunScript -script <file> -options COMPRESSION GZIP} rebuilds a database
+ * from it in one pass.
+ */
+@Service
+public class BackupService {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final DataSource dataSource;
+    private final Path directory;
+    private final ReentrantLock running = new ReentrantLock();
+    private final Timer duration;
+    private final Counter scriptBytes;
+    private final Counter compressedBytes;
+
+    public BackupService(DataSource dataSource,
+                         MeterRegistry meterRegistry,
+                         @Value("${filmorate.backup.dir:./db/backup}") Path directory) {
+        this.dataSource = dataSource;
+        this.directory = directory;
+        this.duration = meterRegistry.timer("filmorate.backup.duration");
+        this.scriptBytes = meterRegistry.counter("filmorate.backup.bytes", "kind", "script");
+        this.compressedBytes = meterRegistry.counter("filmorate.backup.bytes", "kind", "compressed");
+    }
+
+    public BackupReport backup() {
+        if (!running.tryLock()) {
+            LoggedException.throwNew(ExceptionType.BACKUP_IN_PROGRESS, getClass(), List.of());
+        }
+        Path partial = null;
+        try {
+            Files.createDirectories(directory);
+            Path target = directory.resolve("filmorate-" + FILE_TIME.format(LocalDateTime.now()) + ".sql.gz");
+            partial = target.resolveSibling(target.getFileName() + ".part");
+            long start = System.nanoTime();
+            long[] written = dump(partial);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            long elapsed = System.nanoTime() - start;
+
+            long compressed = Files.size(target);
+            duration.record(elapsed, TimeUnit.NANOSECONDS);
+            scriptBytes.increment(written[1]);
+            compressedBytes.increment(compressed);
+            double seconds = Math.max(elapsed, 1) / 1e9;
+            BackupReport report = new BackupReport(target.toString(), written[0], written[1], compressed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), written[1] / seconds / (1 << 20));
+            log.info("Создана резервная копия: {}", report);
+            return report;
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Не удалось создать резервную копию базы данных", e);
+        } finally {
+            discard(partial);
+            running.unlock();
+        }
+    }
+
+    /**
+     * Runs a backup script against {@code target}. The script drops and recreates every object it contains,
+     * so the target should be a fresh database or one that is not serving traffic.
+     */
+    public void restore(Path backup, DataSource target) {
+        long start = System.nanoTime();
+        String path = backup.toAbsolutePath().toString().replace("'", "''");
+        new JdbcTemplate(target).execute("RUNSCRIPT FROM '" + path + "' COMPRESSION GZIP");
+        log.info("База данных восстановлена из {} за {} мс", backup,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return number of statements and uncompressed script size in bytes
+     */
+    private long[] dump(Path file) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            int isolation = connection.getTransactionIsolation();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+                connection.setAutoCommit(false);
+                try (ResultSet script = statement.executeQuery("SCRIPT DROP");
+                     CountingOutputStream counter = new CountingOutputStream(new GZIPOutputStream(
+                             new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+                     Writer out = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8),
+                             BUFFER_SIZE)) {
+                    long statements = 0;
+                    while (script.next()) {
+                        out.write(script.getString(1));
+                        out.write('\n');
+                        statements++;
+                    }
+                    out.flush();
+                    return new long[]{statements, counter.count};
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+                connection.setTransactionIsolation(isolation);
+            }
+        }
+    }
+
+    /**
+     * Removes an unfinished dump. After a successful backup the file has already been moved, so this does nothing.
+     */
+    private void discard(Path partial) {
+        if (partial == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить незавершённую резервную копию {}", partial, e);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
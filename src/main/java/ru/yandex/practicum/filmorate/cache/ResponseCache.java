@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Keeps ready-to-send JSON (and optionally gzip) bytes for responses that change only when their version does.
+ * A 304 is answered only for keys whose payload is loaded at the current version.
+ */
+@Component
+public class ResponseCache {
+    private final Map<String, CachedPayload> payloads = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final boolean gzipEnabled;
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         @Value("${filmorate.response-cache.gzip:true}") boolean gzipEnabled) {
+        this.objectMapper = objectMapper;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    public ResponseEntity<byte[]> serve(WebRequest request, String etag, String key, long version,
+                                        Supplier<?> loader) {
+        boolean gzip = gzipEnabled && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        CachedPayload payload = payloads.get(key);
+        // Only a successful load proves the id exists: a matching tag alone would confirm /genres/999.
+        if (payload == null || payload.version() != version) {
+            payload = build(version, loader.get());
+            payloads.put(key, payload);
+        }
+        if (request.checkNotModified(gzip ? etag + "-gz" : etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
+
+    private CachedPayload build(long version, Object value) {
+        try {
+            byte[] json = serialize(value);
+            return new CachedPayload(version, json, gzipEnabled ? gzip(json) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] serialize(Object value) throws IOException {
+        if (value instanceof MappingJacksonValue projected) {
+            ObjectWriter writer = projected.getFilters() != null
+                    ? objectMapper.writer(projected.getFilters())
+                    : objectMapper.writer();
+            return writer.writeValueAsBytes(projected.getValue());
+        }
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    private byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(out)) {
+            gzipStream.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * An explicit {@code gzip} entry takes precedence over {@code *}; {@code q=0} marks a coding as not acceptable.
+     */
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipWeight = null;
+        Double anyWeight = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double weight = weight(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipWeight = gzipWeight == null ? weight : Math.max(gzipWeight, weight);
+            } else if (coding.equals("*")) {
+                anyWeight = weight;
+            }
+        }
+        double weight = gzipWeight != null ? gzipWeight : anyWeight != null ? anyWeight : 0;
+        return weight > 0;
+    }
+
+    private static double weight(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private record CachedPayload(long version, byte[] json, byte[] gzip) {
+    }
+}
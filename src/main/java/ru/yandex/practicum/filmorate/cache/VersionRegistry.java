@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.*;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+
+/**
+ * Cheap in-memory version counters used as ETags. A tag combines the start time of this instance with
+ * the counters that cover the response, so tags issued before a restart never match.
+ */
+@Component
+public class VersionRegistry {
+    private static final AtomicLong UNCHANGED = new AtomicLong();
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Integer, AtomicLong> filmVersions = new ConcurrentHashMap<>();
+    private final AtomicLong allFilmsVersion = new AtomicLong();
+    private final AtomicLong popularVersion = new AtomicLong();
+
+    public String filmTag(Integer filmId) {
+        return "f" + filmId + "-" + epoch + "-" + allFilmsVersion.get() + "-"
+                + filmVersions.getOrDefault(filmId, UNCHANGED).get();
+    }
+
+    public String popularTag(int count) {
+        return "p" + count + "-" + epoch + "-" + popularVersion.get();
+    }
+
+    public String popularTag(int count, Integer genreId, Integer year) {
+        return "p" + count + "g" + genreId + "y" + year + "-" + epoch + "-" + popularVersion.get();
+    }
+
+    public String referenceTag(String name) {
+        return name + "-" + epoch;
+    }
+
+    public long getPopularVersion() {
+        return popularVersion.get();
+    }
+
+    /**
+     * Genres and MPA ratings come from data.sql and have no write path, so their cached bytes never go stale
+     * while this instance runs.
+     */
+    public long getReferenceVersion() {
+        return 0;
+    }
+
+    /**
+     * Counters are created only here, on writes, so reads of unknown ids cannot grow the map.
+     */
+    public void bumpFilm(Integer filmId) {
+        filmVersions.computeIfAbsent(filmId, id -> new AtomicLong()).incrementAndGet();
+        popularVersion.incrementAndGet();
+    }
+
+    public void bumpAllFilms() {
+        allFilmsVersion.incrementAndGet();
+        popularVersion.incrementAndGet();
+    }
+
+    @EventListener
+    public void onFilmChanged(FilmChangedEvent event) {
+        bumpFilm(event.filmId());
+    }
+
+    @EventListener
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        filmVersions.remove(event.filmId());
+        popularVersion.incrementAndGet();
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        bumpFilm(event.filmId());
+    }
+
+    @EventListener
+    public void onGenresLinked(GenresLinkedEvent event) {
+        bumpFilm(event.filmId());
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        bumpAllFilms();
+    }
+
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        for (InvalidationKey key : batch.keys()) {
+            switch (key.kind()) {
+                case FILM -> bumpFilm(key.id());
+                case ALL_FILMS -> bumpAllFilms();
+                default -> {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.backup.BackupReport;
+import ru.yandex.practicum.filmorate.backup.BackupService;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    private final TrendingIndex trendingIndex;
+    private final SqlRunner sqlRunner;
+    private final BackupService backupService;
+
+    @PostMapping("/trending/replay")
+    public Map<String, Integer> replayTrending() {
+        return Map.of("replayedLikes", trendingIndex.replay());
+    }
+
+    @PostMapping("/backup")
+    public BackupReport backup() {
+        return backupService.backup();
+    }
+
+    @GetMapping("/sql")
+    public List<Map<String, Object>> sqlStats() {
+        return sqlRunner.stats();
+    }
+
+    @PostMapping("/sql/{id}/explain")
+    public Map<String, Object> explain(@PathVariable String id,
+                                       @RequestBody(required = false) List<Object> args) {
+        SqlStatement statement = SqlStatement.find(id).orElse(null);
+        if (statement == null) {
+            LoggedException.throwNew(ExceptionType.SQL_STATEMENT_NOT_FOUND, getClass(), List.of());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", statement.getId());
+        result.put("sql", statement.renderSample().getSql());
+        result.put("plan", sqlRunner.explain(statement, args));
+        return result;
+    }
+}
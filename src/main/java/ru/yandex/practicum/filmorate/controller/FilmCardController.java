@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.storage.card.FilmCardProjector;
+
+@RestController
+@RequestMapping("/admin/film-cards")
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "db", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FilmCardController {
+    private final FilmCardProjector projector;
+
+    @PostMapping("/rebuild")
+    public Map<String, Integer> rebuild() {
+        return Map.of("rebuilt", projector.rebuild());
+    }
+}
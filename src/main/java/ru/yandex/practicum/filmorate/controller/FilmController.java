@@ -1,32 +1,68 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import java.util.Collection;
 import java.util.List;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.cache.VersionRegistry;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.dto.film.FilmCreateDto;
+import ru.yandex.practicum.filmorate.model.dto.film.FilmFilterDto;
 import ru.yandex.practicum.filmorate.model.dto.film.FilmUpdateDto;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.util.Projection;
 
 @RestController
 @RequestMapping("/films")
 @RequiredArgsConstructor
 public class FilmController {
+    private static final int DEFAULT_POPULAR_COUNT = 10;
 
     private final FilmService filmService;
+    private final VersionRegistry versionRegistry;
+    private final ResponseCache responseCache;
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return filmService.findAll();
+    public MappingJacksonValue findAll(FilmFilterDto filter,
+                                       @RequestParam(required = false) String fields,
+                                       @RequestParam(required = false) String view) {
+        Projection projection = Projection.forFilms(fields, view, getClass());
+        return projection.apply(filmService.findAll(filter, projection));
+    }
+
+    @GetMapping(params = "ids")
+    public MappingJacksonValue findByIds(@RequestParam List<Integer> ids,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestParam(required = false) String view) {
+        Projection projection = Projection.forFilms(fields, view, getClass());
+        return projection.apply(filmService.findByIds(ids, projection));
     }
 
     @GetMapping("/{id}")
-    public Film findById(@PathVariable Integer id) {
-        return filmService.findById(id);
+    public MappingJacksonValue findById(@PathVariable Integer id,
+                                        @RequestParam(required = false) String fields,
+                                        @RequestParam(required = false) String view,
+                                        WebRequest request) {
+        Projection projection = Projection.forFilms(fields, view, getClass());
+        String etag = versionRegistry.filmTag(id) + projection.tagSuffix();
+        if (filmService.exists(id) && request.checkNotModified(etag)) {
+            return null;
+        }
+        return projection.apply(filmService.findById(id, projection, etag));
+    }
+
+    @GetMapping("/{id}/similar")
+    public List<Film> findSimilar(@PathVariable Integer id,
+                                  @RequestParam(required = false, defaultValue = "10") @Positive int count) {
+        return filmService.findSimilar(id, count);
     }
 
     @PutMapping("/{filmId}/like/{userId}")
@@ -40,8 +76,48 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public List<Film> findTopLiked(@RequestParam(required = false, defaultValue = "10") int count) {
-        return filmService.findTopLiked(count);
+    public ResponseEntity<?> findTopLiked(@RequestParam(required = false, defaultValue = "10") int count,
+                                          @RequestParam(required = false) Integer genreId,
+                                          @RequestParam(required = false) Integer year,
+                                          @RequestParam(required = false) String view,
+                                          WebRequest request) {
+        Projection projection = Projection.forFilms(null, view, getClass());
+        if (genreId != null || year != null) {
+            if (request.checkNotModified(versionRegistry.popularTag(count, genreId, year) + projection.tagSuffix())) {
+                return null;
+            }
+            return ResponseEntity.ok(projection.apply(filmService.findTopLiked(count, genreId, year, projection)));
+        }
+        if (count == DEFAULT_POPULAR_COUNT) {
+            String etag = versionRegistry.popularTag(count) + projection.tagSuffix();
+            long version = versionRegistry.getPopularVersion();
+            return responseCache.serve(request, etag, "films/popular" + projection.tagSuffix(), version,
+                    () -> projection.apply(filmService.findTopLiked(count, projection, version)));
+        }
+        String etag = versionRegistry.popularTag(count) + projection.tagSuffix();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok(projection.apply(filmService.findTopLiked(count, projection, etag)));
+    }
+
+    @GetMapping("/{id}/likes")
+    public CursorPage<Integer> findLikes(@PathVariable Integer id,
+                                         @RequestParam(required = false) Integer after,
+                                         @RequestParam(required = false, defaultValue = "100") int limit) {
+        return filmService.findLikes(id, after, limit);
+    }
+
+    @GetMapping("/trending")
+    public List<Film> findTrending(@RequestParam(required = false, defaultValue = "24h") String window,
+                                   @RequestParam(required = false, defaultValue = "10") int count) {
+        return filmService.findTrending(window, count);
+    }
+
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam String q,
+                             @RequestParam(required = false, defaultValue = "20") int limit) {
+        return filmService.search(q, limit);
     }
 
     @PostMapping
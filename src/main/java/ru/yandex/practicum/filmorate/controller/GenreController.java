@@ -1,11 +1,12 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import java.util.Collection;
-
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.model.Genre;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.cache.VersionRegistry;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
 @RestController
@@ -14,14 +15,18 @@ import ru.yandex.practicum.filmorate.service.GenreService;
 public class GenreController {
     @Autowired
     private final GenreService genreService;
+    private final VersionRegistry versionRegistry;
+    private final ResponseCache responseCache;
 
     @GetMapping
-    public Collection<Genre> findAll() {
-        return genreService.findAll();
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        return responseCache.serve(request, versionRegistry.referenceTag("genres"), "genres",
+                versionRegistry.getReferenceVersion(), genreService::findAll);
     }
 
     @GetMapping("/{id}")
-    public Genre findById(@PathVariable Integer id) {
-        return genreService.findById(id);
+    public ResponseEntity<byte[]> findById(@PathVariable Integer id, WebRequest request) {
+        return responseCache.serve(request, versionRegistry.referenceTag("genres" + id), "genres/" + id,
+                versionRegistry.getReferenceVersion(), () -> genreService.findById(id));
     }
 }
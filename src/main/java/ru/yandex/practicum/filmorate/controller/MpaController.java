@@ -1,11 +1,12 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import java.util.Collection;
-
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
+import ru.yandex.practicum.filmorate.cache.VersionRegistry;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
 @RestController
@@ -14,14 +15,18 @@ import ru.yandex.practicum.filmorate.service.MpaService;
 public class MpaController {
     @Autowired
     private final MpaService mpaService;
+    private final VersionRegistry versionRegistry;
+    private final ResponseCache responseCache;
 
     @GetMapping("/{id}")
-    public Mpa findById(@PathVariable Integer id) {
-        return mpaService.findById(id);
+    public ResponseEntity<byte[]> findById(@PathVariable Integer id, WebRequest request) {
+        return responseCache.serve(request, versionRegistry.referenceTag("mpa" + id), "mpa/" + id,
+                versionRegistry.getReferenceVersion(), () -> mpaService.findById(id));
     }
 
     @GetMapping
-    public Collection<Mpa> findAll() {
-        return mpaService.findAll();
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        return responseCache.serve(request, versionRegistry.referenceTag("mpa"), "mpa",
+                versionRegistry.getReferenceVersion(), mpaService::findAll);
     }
 }
@@ -1,15 +1,24 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import java.util.Collection;
+import java.util.List;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.CursorPage;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.dto.user.UserCreateDto;
 import ru.yandex.practicum.filmorate.model.dto.user.UserUpdateDto;
+import ru.yandex.practicum.filmorate.service.FeedService;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.util.Projection;
 
 @RestController
 @RequestMapping("/users")
@@ -17,15 +26,26 @@ import ru.yandex.practicum.filmorate.service.UserService;
 public class UserController {
 
     private final UserService userService;
+    private final RecommendationService recommendationService;
+    private final FeedService feedService;
 
     @GetMapping
-    public Collection<User> findAll() {
-        return userService.findAll();
+    public MappingJacksonValue findAll(@RequestParam(required = false) String fields) {
+        Projection projection = Projection.of(fields, Projection.USER_FIELDS, getClass());
+        return projection.apply(userService.findAll(projection));
+    }
+
+    @GetMapping(params = "ids")
+    public MappingJacksonValue findByIds(@RequestParam List<Integer> ids,
+                                         @RequestParam(required = false) String fields) {
+        Projection projection = Projection.of(fields, Projection.USER_FIELDS, getClass());
+        return projection.apply(userService.findByIds(ids, projection));
     }
 
     @GetMapping("/{id}")
-    public User findById(@PathVariable Integer id) {
-        return userService.findById(id);
+    public MappingJacksonValue findById(@PathVariable Integer id, @RequestParam(required = false) String fields) {
+        Projection projection = Projection.of(fields, Projection.USER_FIELDS, getClass());
+        return projection.apply(userService.findById(id, projection));
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -48,6 +68,19 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable Integer id,
+                                         @RequestParam(required = false, defaultValue = "10") @Positive int count) {
+        return recommendationService.getRecommendations(id, count);
+    }
+
+    @GetMapping("/{id}/feed")
+    public CursorPage<FeedEvent> getFeed(@PathVariable Integer id,
+                                         @RequestParam(required = false) Long before,
+                                         @RequestParam(required = false, defaultValue = "20") int limit) {
+        return feedService.getFeed(id, before, limit);
+    }
+
     @PostMapping
     public User create(@Valid @NotNull @RequestBody UserCreateDto userCreateDto) {
         return userService.create(userCreateDto);
@@ -0,0 +1,194 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+/**
+ * Writes a reproducible synthetic dataset as CSV files with a header row, ready for {@link DatasetLoader}.
+ * Ids are assigned explicitly so relations line up. Film popularity and incoming friend requests follow
+ * a Zipf law, per-user activity a Pareto law; the same spec always produces byte-identical files.
+ */
+public class DatasetGenerator {
+    public static final String USERS_FILE = "users.csv";
+    public static final String FILMS_FILE = "films.csv";
+    public static final String FILM_GENRES_FILE = "film_genres.csv";
+    public static final String LIKES_FILE = "likes.csv";
+    public static final String FRIENDS_FILE = "friends.csv";
+
+    private static final int MAX_GENRES_PER_FILM = 3;
+    private static final int SAMPLE_ATTEMPTS_PER_ITEM = 4;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final DatasetSpec spec;
+    private SplittableRandom random;
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Usage: {@code DatasetGenerator <dir> [users] [films] [likes] [friendships] [seed]}.
+     */
+    public static void main(String[] args) throws IOException {
+        DatasetSpec.DatasetSpecBuilder spec = DatasetSpec.builder();
+        if (args.length > 1) {
+            spec.users(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            spec.films(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            spec.likes(Long.parseLong(args[3]));
+        }
+        if (args.length > 4) {
+            spec.friendships(Long.parseLong(args[4]));
+        }
+        if (args.length > 5) {
+            spec.seed(Long.parseLong(args[5]));
+        }
+        new DatasetGenerator(spec.build()).generate(Path.of(args[0]));
+    }
+
+    public void generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        random = new SplittableRandom(spec.getSeed());
+        writeUsers(directory.resolve(USERS_FILE));
+        writeFilms(directory.resolve(FILMS_FILE), directory.resolve(FILM_GENRES_FILE));
+        writeLikes(directory.resolve(LIKES_FILE));
+        writeFriends(directory.resolve(FRIENDS_FILE));
+    }
+
+    private void writeUsers(Path file) throws IOException {
+        LocalDate firstBirthday = LocalDate.of(1950, 1, 1);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("ID,EMAIL,LOGIN,NAME,BIRTHDAY\n");
+            for (int id = 1; id <= spec.getUsers(); id++) {
+                LocalDate birthday = firstBirthday.plusDays(random.nextInt(365 * 55));
+                out.write(id + ",user" + id + "@example.com,user" + id + ",Пользователь " + id + "," + birthday + "\n");
+            }
+        }
+    }
+
+    private void writeFilms(Path filmsFile, Path genresFile) throws IOException {
+        LocalDate firstRelease = LocalDate.of(1920, 1, 1);
+        try (BufferedWriter films = Files.newBufferedWriter(filmsFile, StandardCharsets.UTF_8);
+             BufferedWriter genres = Files.newBufferedWriter(genresFile, StandardCharsets.UTF_8)) {
+            films.write("ID,NAME,DESCRIPTION,RELEASE_DATE,DURATION,MPA_ID\n");
+            genres.write("FILM_ID,GENRE_ID\n");
+            for (int id = 1; id <= spec.getFilms(); id++) {
+                LocalDate release = firstRelease.plusDays(random.nextInt(365 * 100));
+                films.write(id + ",Фильм " + id + ",Описание фильма " + id + "," + release + ","
+                        + (60 + random.nextInt(120)) + "," + (1 + random.nextInt(spec.getMpaCount())) + "\n");
+                int genreCount = 1 + random.nextInt(Math.min(MAX_GENRES_PER_FILM, spec.getGenreCount()));
+                for (int genreId : distinct(genreCount, () -> 1 + random.nextInt(spec.getGenreCount()))) {
+                    genres.write(id + "," + genreId + "\n");
+                }
+            }
+        }
+    }
+
+    private void writeLikes(Path file) throws IOException {
+        ZipfSampler films = new ZipfSampler(spec.getFilms(), spec.getZipfExponent(), random);
+        double meanPerUser = (double) spec.getLikes() / spec.getUsers();
+        long historySeconds = spec.getLikeHistoryDays() * 86_400L;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("USER_ID,FILM_ID,CREATED_AT\n");
+            for (int userId = 1; userId <= spec.getUsers(); userId++) {
+                int count = activity(meanPerUser, spec.getFilms());
+                for (int filmId : distinct(count, films::next)) {
+                    LocalDateTime createdAt = spec.getLikesUntil().minusSeconds(random.nextLong(historySeconds));
+                    out.write(userId + "," + filmId + "," + TIMESTAMP.format(createdAt) + "\n");
+                }
+            }
+        }
+    }
+
+    private void writeFriends(Path file) throws IOException {
+        ZipfSampler users = new ZipfSampler(spec.getUsers(), spec.getZipfExponent(), random);
+        double meanPerUser = (double) spec.getFriendships() / spec.getUsers();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("REQUEST_FROM_ID,REQUEST_TO_ID\n");
+            for (int userId = 1; userId <= spec.getUsers(); userId++) {
+                int self = userId;
+                int count = activity(meanPerUser, spec.getUsers() - 1);
+                for (int friendId : distinct(count, () -> {
+                    int candidate = users.next();
+                    return candidate == self ? 0 : candidate;
+                })) {
+                    out.write(userId + "," + friendId + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Pareto-distributed count with the given mean, rounded stochastically and capped.
+     */
+    private int activity(double mean, int cap) {
+        double shape = spec.getActivityShape();
+        double scale = mean * (shape - 1) / shape;
+        double value = scale / Math.pow(1 - random.nextDouble(), 1 / shape);
+        long count = (long) value + (random.nextDouble() < value - Math.floor(value) ? 1 : 0);
+        return (int) Math.min(count, cap);
+    }
+
+    /**
+     * Up to {@code count} distinct positive values in draw order; gives up after a bounded number of draws,
+     * so heavily skewed samplers may return fewer.
+     */
+    private Collection<Integer> distinct(int count, IntSupplier sampler) {
+        Set<Integer> values = new LinkedHashSet<>();
+        int attempts = count * SAMPLE_ATTEMPTS_PER_ITEM;
+        while (values.size() < count && attempts-- > 0) {
+            int value = sampler.getAsInt();
+            if (value > 0) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Draws ids {@code 1..n} with probability proportional to {@code 1 / rank^exponent}. Ranks are mapped to ids
+     * through a seeded permutation so the most popular entities are spread over the id range.
+     */
+    private static class ZipfSampler {
+        private final double[] cumulative;
+        private final int[] idsByRank;
+        private final SplittableRandom random;
+
+        ZipfSampler(int n, double exponent, SplittableRandom random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double total = 0;
+            for (int rank = 1; rank <= n; rank++) {
+                total += 1 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = total;
+            }
+            this.idsByRank = new int[n];
+            for (int i = 0; i < n; i++) {
+                idsByRank[i] = i + 1;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = idsByRank[i];
+                idsByRank[i] = idsByRank[j];
+                idsByRank[j] = swap;
+            }
+        }
+
+        int next() {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return idsByRank[index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Replaces the contents of the film, user, genre link, like and friends tables with a dataset written by
+ * {@link DatasetGenerator}. Rows go in with {@code INSERT ... SELECT FROM CSVREAD} inside H2, with referential
+ * checks off and secondary indexes dropped until the load is done. {@code film_card} and the in-memory indexes
+ * are built from the tables on startup, so load before the application context starts or rebuild them after.
+ */
+@RequiredArgsConstructor
+public class DatasetLoader {
+    /**
+     * Non-unique indexes from schema.sql; primary keys and unique constraints stay in place.
+     */
+    private static final Map<String, String> DEFERRED_INDEXES = Map.of(
+            "like_created_at_idx", "CREATE INDEX IF NOT EXISTS like_created_at_idx ON \"like\" (created_at)",
+            "like_film_user_idx", "CREATE INDEX IF NOT EXISTS like_film_user_idx ON \"like\" (film_id, user_id)");
+    private static final List<String> CLEARED_TABLES = List.of(
+            "feed_event", "film_card", "friends", "\"like\"", "film_genre", "film", "\"user\"");
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return inserted rows per table
+     */
+    public Map<String, Integer> load(Path directory) {
+        long start = System.nanoTime();
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            CLEARED_TABLES.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE " + table + " RESTART IDENTITY"));
+            DEFERRED_INDEXES.keySet().forEach(index -> jdbcTemplate.execute("DROP INDEX IF EXISTS " + index));
+
+            rows.put("user", insert(directory.resolve(DatasetGenerator.USERS_FILE), """
+                    INSERT INTO "user" (id, email, login, name, birthday)
+                    SELECT CAST(id AS INTEGER), email, login, name, CAST(birthday AS DATE)
+                    FROM %s
+                    """));
+            rows.put("film", insert(directory.resolve(DatasetGenerator.FILMS_FILE), """
+                    INSERT INTO film (id, name, description, release_date, duration, mpa_id)
+                    SELECT CAST(id AS INTEGER), name, description, CAST(release_date AS DATE),
+                        CAST(duration AS INTEGER), CAST(mpa_id AS INTEGER)
+                    FROM %s
+                    """));
+            rows.put("film_genre", insert(directory.resolve(DatasetGenerator.FILM_GENRES_FILE), """
+                    INSERT INTO film_genre (film_id, genre_id)
+                    SELECT CAST(film_id AS INTEGER), CAST(genre_id AS INTEGER)
+                    FROM %s
+                    """));
+            rows.put("like", insert(directory.resolve(DatasetGenerator.LIKES_FILE), """
+                    INSERT INTO "like" (user_id, film_id, created_at)
+                    SELECT CAST(user_id AS INTEGER), CAST(film_id AS INTEGER), CAST(created_at AS TIMESTAMP)
+                    FROM %s
+                    """));
+            rows.put("friends", insert(directory.resolve(DatasetGenerator.FRIENDS_FILE), """
+                    INSERT INTO friends (request_from_id, request_to_id)
+                    SELECT CAST(request_from_id AS INTEGER), CAST(request_to_id AS INTEGER)
+                    FROM %s
+                    """));
+
+            restartIdentityAfterMax("\"user\"");
+            restartIdentityAfterMax("film");
+        } finally {
+            DEFERRED_INDEXES.values().forEach(jdbcTemplate::execute);
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        log.info("Загружен синтетический набор данных из {} за {} мс: {}", directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rows);
+        return rows;
+    }
+
+    private int insert(Path csv, String insertSelect) {
+        String source = "CSVREAD('" + csv.toAbsolutePath().toString().replace("'", "''") + "', NULL, 'charset=UTF-8')";
+        return jdbcTemplate.update(insertSelect.formatted(source));
+    }
+
+    private void restartIdentityAfterMax(String table) {
+        Integer next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Integer.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+}
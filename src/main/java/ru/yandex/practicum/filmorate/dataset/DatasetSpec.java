@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Size and shape of a synthetic dataset. Like and friendship totals are targets: per-user counts are drawn from
+ * a Pareto distribution with the requested mean and capped by the number of distinct films or users.
+ */
+@Value
+@Builder(toBuilder = true)
+public class DatasetSpec {
+    @Builder.Default
+    long seed = 42;
+    @Builder.Default
+    int users = 1_000;
+    @Builder.Default
+    int films = 200;
+    @Builder.Default
+    long likes = 50_000;
+    @Builder.Default
+    long friendships = 10_000;
+    /**
+     * Zipf exponent of film popularity and of incoming friend requests; larger values mean a heavier head.
+     */
+    @Builder.Default
+    double zipfExponent = 1.0;
+    /**
+     * Pareto shape of per-user activity (likes given, friend requests sent); must be above 1.
+     */
+    @Builder.Default
+    double activityShape = 2.0;
+    @Builder.Default
+    int mpaCount = 5;
+    @Builder.Default
+    int genreCount = 6;
+    @Builder.Default
+    int likeHistoryDays = 365;
+    @Builder.Default
+    LocalDateTime likesUntil = LocalDateTime.of(2024, 1, 1, 0, 0);
+}
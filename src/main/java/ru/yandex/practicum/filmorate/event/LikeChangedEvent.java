@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.time.Instant;
+
+/**
+ * {@code likedAt} is the creation time of the added or removed like, or {@code null} when the storage
+ * does not keep it.
+ */
+public record LikeChangedEvent(Integer filmId, Integer userId, boolean added, Instant likedAt) {
+}
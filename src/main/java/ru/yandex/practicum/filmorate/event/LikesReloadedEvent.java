@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.util.List;
+
+/**
+ * Published by the like matrix when the likes of a film, re-read after a change on another node, differ from
+ * what it held. Unlike {@link LikeChangedEvent} it stays on this node and carries no like times.
+ */
+public record LikesReloadedEvent(Integer filmId, List<Integer> addedUserIds, List<Integer> removedUserIds) {
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.util.List;
+
+import ru.yandex.practicum.filmorate.model.Like;
+
+/**
+ * {@code likes} were removed together with the user; each keeps the time it was given, so windowed indexes can
+ * take it out of the right bucket.
+ */
+public record UserDeletedEvent(Integer userId, List<Like> likes) {
+    public List<Integer> likedFilmIds() {
+        return likes.stream().map(Like::getFilmId).toList();
+    }
+}
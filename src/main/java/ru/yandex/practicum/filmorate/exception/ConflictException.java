@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class ConflictException extends FilmorateException {
+
+    public ConflictException(ExceptionType type, Class<?> source, Object... args) {
+        super(type, source, args);
+    }
+}
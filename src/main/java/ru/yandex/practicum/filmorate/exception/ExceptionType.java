@@ -1,16 +1,37 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import ru.yandex.practicum.filmorate.util.Validators;
+
 public enum ExceptionType {
-    INVALID_LOGIN,
-    USER_NOT_FOUND,
-    FILM_NOT_FOUND,
-    GENRE_NOT_FOUND,
-    MPA_NOT_FOUND,
-    INVALID_FILM_RELEASE_DATE,
-    INVALID_FILM_DESCRIPTION,
-    USER_LIKE_ALREADY_EXISTS,
-    USER_LIKE_NOT_EXISTS,
-    INVALID_FRIENDSHIP_ADD,
-    INVALID_FRIENDSHIP_REMOVE,
-    UNEXPECTED_ERROR
+    INVALID_LOGIN("Логин не должен содержать пробелы или быть пустым"),
+    USER_NOT_FOUND("Пользователь id=%d не найден."),
+    FILM_NOT_FOUND("Фильм id=%d не найден."),
+    GENRE_NOT_FOUND("Жанр id=%d не найден."),
+    MPA_NOT_FOUND("MPA id=%d не найден."),
+    INVALID_FILM_RELEASE_DATE("Дата создания фильма не может быть ранее 28 декабря 1895 г."),
+    INVALID_FILM_DESCRIPTION("Длина описания фильма id=%d превышает " + Validators.MAX_FILM_DESCRIPTION_LENGTH
+            + " символов"),
+    USER_LIKE_ALREADY_EXISTS("Пользователь id=%d уже поставил лайк фильму id=%d"),
+    USER_LIKE_NOT_EXISTS("Ошибка при удалении лайка. Пользователь id=%d не ставил лайк фильму id=%d."),
+    INVALID_FRIENDSHIP_ADD("Не удалось добавить друга с id=%d пользователю id=%d."
+            + "Убедитесь, что id пользователей указаны верно."),
+    INVALID_FRIENDSHIP_REMOVE("Не удалось удалить пользователя id=%d из друзей пользователя id=%d. "
+            + "Убедитесь, что id пользователей указаны верно."),
+    INVALID_TRENDING_WINDOW("Окно тренда должно быть от 1 до %d часов."),
+    INVALID_PROJECTION("Параметр fields или view содержит неизвестное значение."),
+    FILM_VERSION_CONFLICT("Фильм id=%d был изменён другим запросом: версия %d устарела."),
+    USER_VERSION_CONFLICT("Пользователь id=%d был изменён другим запросом: версия %d устарела."),
+    BACKUP_IN_PROGRESS("Резервное копирование уже выполняется."),
+    SQL_STATEMENT_NOT_FOUND("SQL-запрос с указанным id не найден."),
+    UNEXPECTED_ERROR("Произошла непредвиденная ошибка при обработке запроса.");
+
+    private final String messageTemplate;
+
+    ExceptionType(String messageTemplate) {
+        this.messageTemplate = messageTemplate;
+    }
+
+    public String formatMessage(Object... args) {
+        return args.length == 0 ? messageTemplate : String.format(messageTemplate, args);
+    }
 }
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.exception;
+
+/**
+ * Base class for expected domain outcomes (404/400). Such exceptions are thrown on every bad id a client sends,
+ * so they carry no stack trace and format their message only when somebody actually reads it.
+ */
+public abstract class FilmorateException extends RuntimeException {
+    private final ExceptionType type;
+    private final Class<?> source;
+    private final Object[] args;
+    private String message;
+
+    protected FilmorateException(ExceptionType type, Class<?> source, Object... args) {
+        super(null, null, false, false);
+        this.type = type;
+        this.source = source;
+        this.args = args;
+    }
+
+    protected FilmorateException(String message) {
+        super(message, null, false, false);
+        this.type = null;
+        this.source = null;
+        this.args = new Object[0];
+        this.message = message;
+    }
+
+    public ExceptionType getType() {
+        return type;
+    }
+
+    public Class<?> getSource() {
+        return source;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null && type != null) {
+            message = type.formatMessage(args);
+        }
+        return message;
+    }
+}
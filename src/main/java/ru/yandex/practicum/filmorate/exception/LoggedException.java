@@ -1,13 +1,21 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
-import jakarta.validation.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import ru.yandex.practicum.filmorate.util.Validators;
 
 public class LoggedException {
+    private static final Map<ExceptionType, FilmorateException> PREALLOCATED = new EnumMap<>(ExceptionType.class);
+
+    static {
+        PREALLOCATED.put(ExceptionType.INVALID_LOGIN,
+                new ValidationFailedException(ExceptionType.INVALID_LOGIN, LoggedException.class));
+        PREALLOCATED.put(ExceptionType.INVALID_FILM_RELEASE_DATE,
+                new ValidationFailedException(ExceptionType.INVALID_FILM_RELEASE_DATE, LoggedException.class));
+    }
 
     public static void throwNew(RuntimeException exception, Class<?> clazz) {
         Logger log = LoggerFactory.getLogger(clazz);
@@ -16,59 +24,28 @@ public class LoggedException {
     }
 
     public static void throwNew(ExceptionType exceptionType, Class<?> clazz, List<Integer> id) {
-        Logger log = LoggerFactory.getLogger(clazz);
-        RuntimeException exception;
+        FilmorateException preallocated = PREALLOCATED.get(exceptionType);
+        if (preallocated != null) {
+            throw preallocated;
+        }
+        Object[] args = id.toArray();
         switch (exceptionType) {
-            case INVALID_LOGIN -> {
-                exception = new ValidationException("Логин не должен содержать пробелы или быть пустым");
-            }
-            case USER_NOT_FOUND -> {
-                exception = new NotFoundException(String.format("Пользователь id=%d не найден.", id.getFirst()));
-            }
-            case FILM_NOT_FOUND -> {
-                exception = new NotFoundException(String.format("Фильм id=%d не найден.", id.getFirst()));
-            }
-            case MPA_NOT_FOUND -> {
-                exception = new NotFoundException(String.format("MPA id=%d не найден.", id.getFirst()));
+            case USER_NOT_FOUND, FILM_NOT_FOUND, MPA_NOT_FOUND, GENRE_NOT_FOUND, INVALID_FRIENDSHIP_ADD,
+                 INVALID_FRIENDSHIP_REMOVE, USER_LIKE_NOT_EXISTS, SQL_STATEMENT_NOT_FOUND -> {
+                throw new NotFoundException(exceptionType, clazz, args);
             }
-            case GENRE_NOT_FOUND -> {
-                exception = new NotFoundException(String.format("Жанр id=%d не найден.", id.getFirst()));
+            case FILM_VERSION_CONFLICT, USER_VERSION_CONFLICT, BACKUP_IN_PROGRESS -> {
+                throw new ConflictException(exceptionType, clazz, args);
             }
-            case INVALID_FRIENDSHIP_ADD -> {
-                exception = new NotFoundException(String.format("Не удалось добавить друга с id=%d пользователю id=%d."
-                        + "Убедитесь, что id пользователей указаны верно.", id.get(0), id.get(1)));
+            case USER_LIKE_ALREADY_EXISTS, INVALID_FILM_DESCRIPTION, INVALID_TRENDING_WINDOW,
+                 INVALID_PROJECTION -> {
+                throw new ValidationFailedException(exceptionType, clazz, args);
             }
-            case INVALID_FRIENDSHIP_REMOVE -> {
-                exception = new NotFoundException(String.format("Не удалось удалить пользователя id=%d из " +
-                                "друзей пользователя id=%d. Убедитесь, что id пользователей указаны верно.",
-                        id.get(0), id.get(1))
-                );
+            default -> {
+                RuntimeException exception = new RuntimeException(ExceptionType.UNEXPECTED_ERROR.formatMessage());
+                LoggerFactory.getLogger(clazz).error(exception.getMessage(), exception);
+                throw exception;
             }
-            case USER_LIKE_ALREADY_EXISTS -> {
-                exception = new ValidationException(
-                        String.format("Пользователь id=%d уже поставил лайк фильму id=%d", id.get(0), id.get(1))
-                );
-            }
-            case USER_LIKE_NOT_EXISTS -> {
-                exception = new NotFoundException(
-                        String.format("Ошибка при удалении лайка. Пользователь id=%d не ставил лайк фильму id=%d.",
-                                id.get(0), id.get(1))
-                );
-            }
-            case INVALID_FILM_RELEASE_DATE -> {
-                exception = new ValidationException("Дата создания фильма не может быть ранее 28 декабря 1895 г.");
-            }
-            case INVALID_FILM_DESCRIPTION -> {
-                exception = new ValidationException(String.format("Длина описания фильма id=%d превышает %d символов",
-                        id.getFirst(), Validators.MAX_FILM_DESCRIPTION_LENGTH)
-                );
-            }
-            case UNEXPECTED_ERROR -> {
-                exception = new RuntimeException("Произошла непредвиденная ошибка при обработке запроса.");
-            }
-            default -> exception = new RuntimeException("Произошла непредвиденная ошибка при обработке запроса.");
         }
-        log.error(exception.getMessage(), exception);
-        throw exception;
     }
 }
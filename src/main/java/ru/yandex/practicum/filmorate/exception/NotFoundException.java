@@ -1,8 +1,12 @@
 package ru.yandex.practicum.filmorate.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends FilmorateException {
 
     public NotFoundException(String message) {
         super(message);
     }
+
+    public NotFoundException(ExceptionType type, Class<?> source, Object... args) {
+        super(type, source, args);
+    }
 }
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class ValidationFailedException extends FilmorateException {
+
+    public ValidationFailedException(String message) {
+        super(message);
+    }
+
+    public ValidationFailedException(ExceptionType type, Class<?> source, Object... args) {
+        super(type, source, args);
+    }
+}
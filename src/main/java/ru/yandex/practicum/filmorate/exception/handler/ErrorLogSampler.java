@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.exception.handler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.FilmorateException;
+
+@Component
+public class ErrorLogSampler {
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final Level level;
+    private final int maxPerSecond;
+    /**
+     * Current second in the high 32 bits and the number of messages logged in it in the low 32 bits, so the
+     * rollover and the count change together.
+     */
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger suppressed = new AtomicInteger();
+
+    public ErrorLogSampler(@Value("${filmorate.errors.log-level:WARN}") Level level,
+                           @Value("${filmorate.errors.log-per-second:20}") int maxPerSecond) {
+        this.level = level;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public void log(int status, Exception e) {
+        Logger target = log;
+        if (e instanceof FilmorateException filmorateException && filmorateException.getSource() != null) {
+            target = LoggerFactory.getLogger(filmorateException.getSource());
+        }
+        if (!target.isEnabledForLevel(level) || !tryAcquire()) {
+            return;
+        }
+        target.atLevel(level).log("{}: {}", status, e.getMessage());
+    }
+
+    private boolean tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        while (true) {
+            long current = window.get();
+            long windowSecond = Math.max(current >>> 32, second);
+            boolean rollover = windowSecond != current >>> 32;
+            int logged = rollover ? 0 : (int) current;
+            if (logged >= maxPerSecond) {
+                suppressed.incrementAndGet();
+                return false;
+            }
+            if (window.compareAndSet(current, windowSecond << 32 | (logged + 1))) {
+                if (rollover) {
+                    reportSuppressed();
+                }
+                return true;
+            }
+        }
+    }
+
+    private void reportSuppressed() {
+        int dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            log.atLevel(level).log("Пропущено {} сообщений об ошибках запросов за предыдущий интервал", dropped);
+        }
+    }
+}
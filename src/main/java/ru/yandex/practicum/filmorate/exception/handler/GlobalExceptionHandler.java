@@ -2,18 +2,26 @@ package ru.yandex.practicum.filmorate.exception.handler;
 
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationFailedException;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
-    @ExceptionHandler({ConstraintViolationException.class, ValidationException.class})
+    private final ErrorLogSampler errorLogSampler;
+
+    @ExceptionHandler({ConstraintViolationException.class, ValidationException.class, ValidationFailedException.class,
+            HandlerMethodValidationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(Exception e) {
-        log.error(e.getMessage(), e);
+        errorLogSampler.log(400, e);
         return new ErrorResponse(400, String.format("A validation error occurred while handling request:%n %s",
                 e.getMessage()));
     }
@@ -21,10 +29,17 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(NotFoundException e) {
-        log.error(e.getMessage(), e);
+        errorLogSampler.log(404, e);
         return new ErrorResponse(404, e.getMessage());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflictException(ConflictException e) {
+        errorLogSampler.log(409, e);
+        return new ErrorResponse(409, e.getMessage());
+    }
+
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleUnexpectedException(Throwable e) {
         log.error(e.getMessage(), e);
@@ -34,4 +49,3 @@ public class GlobalExceptionHandler {
     public record ErrorResponse(int statusCode, String message) {
     }
 }
-
@@ -0,0 +1,242 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikesReloadedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+
+/**
+ * Item-item co-like counts: for every film, the films most often liked by the same users.
+ *
+ * <p>Each film keeps at most {@code capacity} neighbour counters (Space-Saving: a new neighbour replaces
+ * the smallest counter and inherits its count), so memory is bounded by
+ * {@code films * capacity * 8} bytes plus map overhead, e.g. about 32 MB for 100 000 films with the default
+ * capacity of 40. A like by a user with k likes touches k counters twice; users with more than
+ * {@code max-user-likes} likes are skipped both here and in the rebuild, which keeps the cost of a single
+ * like bounded. The like count is read from {@link LikeMatrix} after it has applied the event, so this listener
+ * runs after the matrix. A deleted user takes one count back from every pair of the films they liked; the full
+ * rebuild runs only at startup and on catch-all invalidations. The cost is recorded in {@code filmorate.similar.update} (time) and
+ * {@code filmorate.similar.update.pairs} (counters touched).
+ */
+@Component
+public class CoLikeIndex {
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final LikeMatrix likeMatrix;
+    private final int capacity;
+    private final int maxUserLikes;
+    private volatile Map<Integer, NeighbourCounters> neighbours = new ConcurrentHashMap<>();
+    private final Timer updateTimer;
+    private final DistributionSummary updatePairs;
+
+    public CoLikeIndex(LikeMatrix likeMatrix,
+                       MeterRegistry meterRegistry,
+                       @Value("${filmorate.similar.capacity:40}") int capacity,
+                       @Value("${filmorate.similar.max-user-likes:1000}") int maxUserLikes) {
+        this.likeMatrix = likeMatrix;
+        this.capacity = capacity;
+        this.maxUserLikes = maxUserLikes;
+        this.updateTimer = meterRegistry.timer("filmorate.similar.update");
+        this.updatePairs = meterRegistry.summary("filmorate.similar.update.pairs");
+    }
+
+    @Order
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        Map<Integer, NeighbourCounters> rebuilt = new ConcurrentHashMap<>();
+        likeMatrix.films().parallelStream().forEach(filmId -> {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (int userId : likeMatrix.usersOf(filmId)) {
+                int[] films = likeMatrix.filmsOf(userId);
+                if (films.length > maxUserLikes) {
+                    continue;
+                }
+                for (int otherFilmId : films) {
+                    if (otherFilmId != filmId) {
+                        counts.merge(otherFilmId, 1, Integer::sum);
+                    }
+                }
+            }
+            if (!counts.isEmpty()) {
+                rebuilt.put(filmId, NeighbourCounters.of(counts, capacity));
+            }
+        });
+        neighbours = rebuilt;
+        log.info("Совместные лайки пересчитаны: фильмов {} за {} мс", rebuilt.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        apply(event.filmId(), event.userId(), event.added() ? 1 : -1);
+    }
+
+    @EventListener
+    public void onLikesReloaded(LikesReloadedEvent event) {
+        event.addedUserIds().forEach(userId -> apply(event.filmId(), userId, 1));
+        event.removedUserIds().forEach(userId -> apply(event.filmId(), userId, -1));
+    }
+
+    /**
+     * A catch-all film key from another node rebuilds the counters once {@link LikeMatrix} has rebuilt itself;
+     * likes of single films arrive as {@link LikesReloadedEvent}.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        if (batch.contains(InvalidationKey.Kind.ALL_FILMS)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * The matrix has already dropped the user, so their films come from the event.
+     */
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        List<Integer> films = event.likedFilmIds();
+        if (films.size() > maxUserLikes) {
+            return;
+        }
+        long started = System.nanoTime();
+        int pairs = 0;
+        for (int filmId : films) {
+            NeighbourCounters counters = neighbours.get(filmId);
+            if (counters == null) {
+                continue;
+            }
+            for (int otherFilmId : films) {
+                if (otherFilmId != filmId) {
+                    counters.add(otherFilmId, -1);
+                    pairs++;
+                }
+            }
+        }
+        updatePairs.record(pairs);
+        updateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    @EventListener
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        neighbours.remove(event.filmId());
+        neighbours.values().forEach(counters -> counters.add(event.filmId(), Integer.MIN_VALUE));
+    }
+
+    public List<Integer> findSimilar(int filmId, int count) {
+        NeighbourCounters counters = neighbours.get(filmId);
+        return counters == null || count <= 0 ? List.of() : counters.top(count);
+    }
+
+    private void apply(int filmId, int userId, int delta) {
+        long started = System.nanoTime();
+        int[] films = likeMatrix.filmsOf(userId);
+        if (films.length > maxUserLikes) {
+            return;
+        }
+        int pairs = 0;
+        for (int otherFilmId : films) {
+            if (otherFilmId == filmId) {
+                continue;
+            }
+            counters(filmId).add(otherFilmId, delta);
+            counters(otherFilmId).add(filmId, delta);
+            pairs += 2;
+        }
+        updatePairs.record(pairs);
+        updateTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private NeighbourCounters counters(int filmId) {
+        return neighbours.computeIfAbsent(filmId, id -> new NeighbourCounters(capacity));
+    }
+
+    private static final class NeighbourCounters {
+        private final int[] filmIds;
+        private final int[] counts;
+        private int size;
+
+        NeighbourCounters(int capacity) {
+            filmIds = new int[capacity];
+            counts = new int[capacity];
+        }
+
+        static NeighbourCounters of(Map<Integer, Integer> counts, int capacity) {
+            NeighbourCounters counters = new NeighbourCounters(capacity);
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(capacity)
+                    .forEach(entry -> {
+                        counters.filmIds[counters.size] = entry.getKey();
+                        counters.counts[counters.size++] = entry.getValue();
+                    });
+            return counters;
+        }
+
+        synchronized void add(int filmId, int delta) {
+            int smallest = -1;
+            for (int i = 0; i < size; i++) {
+                if (filmIds[i] == filmId) {
+                    long updated = (long) counts[i] + delta;
+                    if (updated <= 0) {
+                        removeAt(i);
+                    } else {
+                        counts[i] = (int) updated;
+                    }
+                    return;
+                }
+                if (smallest < 0 || counts[i] < counts[smallest]) {
+                    smallest = i;
+                }
+            }
+            if (delta <= 0) {
+                return;
+            }
+            if (size < filmIds.length) {
+                filmIds[size] = filmId;
+                counts[size++] = delta;
+            } else {
+                filmIds[smallest] = filmId;
+                counts[smallest] += delta;
+            }
+        }
+
+        synchronized List<Integer> top(int count) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingInt(i -> counts[i]).reversed()
+                    .thenComparingInt(i -> filmIds[i]));
+            List<Integer> result = new ArrayList<>(Math.min(count, size));
+            for (int i = 0; i < Math.min(count, size); i++) {
+                result.add(filmIds[order[i]]);
+            }
+            return result;
+        }
+
+        private void removeAt(int index) {
+            size--;
+            filmIds[index] = filmIds[size];
+            counts[index] = counts[size];
+        }
+    }
+}
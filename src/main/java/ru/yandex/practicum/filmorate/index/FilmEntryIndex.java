@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import ru.yandex.practicum.filmorate.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.GenresLinkedEvent;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+/**
+ * Base for indexes that keep one immutable entry per film, taken from the stored film, plus lookup structures
+ * built from those entries. Loading, locking and the film events are handled here; subclasses only say how an
+ * entry is taken from a film and how it is added to and removed from their structures.
+ */
+public abstract class FilmEntryIndex<E> {
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    protected final FilmStorage filmStorage;
+    protected final Map<Integer, E> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final String name;
+
+    protected FilmEntryIndex(FilmStorage filmStorage, String name) {
+        this.filmStorage = filmStorage;
+        this.name = name;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Collection<Film> films = filmStorage.findAll();
+        write(() -> {
+            entries.clear();
+            clearIndexes();
+            films.forEach(film -> put(film.getId(), entryOf(film)));
+        });
+        log.info("{} построены: фильмов {}", name, films.size());
+    }
+
+    @EventListener
+    public void onFilmChanged(FilmChangedEvent event) {
+        E entry = entryOf(filmStorage.findById(event.filmId()));
+        write(() -> {
+            E previous = remove(event.filmId());
+            put(event.filmId(), previous == null ? entry : replacing(previous, entry));
+        });
+    }
+
+    @EventListener
+    public void onGenresLinked(GenresLinkedEvent event) {
+        Set<Integer> genreIds = Set.copyOf(event.genreIds());
+        update(event.filmId(), entry -> withGenres(entry, genreIds));
+    }
+
+    @EventListener
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        write(() -> remove(event.filmId()));
+    }
+
+    /**
+     * Films changed on other nodes are re-read from storage; a catch-all film key rebuilds the index.
+     */
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        if (batch.contains(InvalidationKey.Kind.ALL_FILMS)) {
+            rebuild();
+            return;
+        }
+        List<Integer> filmIds = batch.idsOf(InvalidationKey.Kind.FILM);
+        if (filmIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, E> reloaded = new HashMap<>();
+        filmStorage.findByIds(filmIds).forEach(film -> reloaded.put(film.getId(), entryOf(film)));
+        write(() -> filmIds.forEach(filmId -> {
+            remove(filmId);
+            E entry = reloaded.get(filmId);
+            if (entry != null) {
+                put(filmId, entry);
+            }
+        }));
+    }
+
+    protected abstract E entryOf(Film film);
+
+    protected abstract E withGenres(E entry, Set<Integer> genreIds);
+
+    protected abstract void index(Integer filmId, E entry);
+
+    protected abstract void unindex(Integer filmId, E entry);
+
+    protected abstract void clearIndexes();
+
+    /**
+     * Entry that replaces {@code previous} when a changed film is re-read. The film is read before the lock is
+     * taken, so state the index keeps up to date from its own events may be newer in {@code previous}.
+     */
+    protected E replacing(E previous, E reloaded) {
+        return reloaded;
+    }
+
+    /**
+     * Replaces the entry of an indexed film; films that are not indexed are left alone.
+     */
+    protected void update(Integer filmId, UnaryOperator<E> change) {
+        write(() -> {
+            E entry = remove(filmId);
+            if (entry != null) {
+                put(filmId, change.apply(entry));
+            }
+        });
+    }
+
+    protected <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected static Set<Integer> genreIdsOf(Film film) {
+        Set<Integer> genreIds = new HashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream().map(Genre::getId).forEach(genreIds::add);
+        }
+        return genreIds;
+    }
+
+    private void put(Integer filmId, E entry) {
+        index(filmId, entry);
+        entries.put(filmId, entry);
+    }
+
+    private E remove(Integer filmId) {
+        E entry = entries.remove(filmId);
+        if (entry != null) {
+            unindex(filmId, entry);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.*;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.dto.film.FilmFilterDto;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+/**
+ * Bitmap indexes for film browsing: film ids are bit positions, with one bitmap per genre and per MPA rating
+ * and a year-sorted map of bitmaps. Values of one parameter are OR-ed, different parameters are AND-ed.
+ */
+@Component
+public class FilmFilterIndex extends FilmEntryIndex<FilmFilterIndex.Facets> {
+    private final BitSet allFilms = new BitSet();
+    private final Map<Integer, BitSet> byGenre = new HashMap<>();
+    private final Map<Integer, BitSet> byMpa = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> byYear = new TreeMap<>();
+
+    public FilmFilterIndex(FilmStorage filmStorage) {
+        super(filmStorage, "Индексы фильтров");
+    }
+
+    public boolean contains(Integer filmId) {
+        if (filmId == null || filmId < 0) {
+            return false;
+        }
+        return read(() -> allFilms.get(filmId));
+    }
+
+    public List<Integer> find(FilmFilterDto filter) {
+        BitSet result = read(() -> {
+            BitSet matching = (BitSet) allFilms.clone();
+            if (filter.getGenreId() != null && !filter.getGenreId().isEmpty()) {
+                matching.and(union(filter.getGenreId().stream().map(byGenre::get).toList()));
+            }
+            if (filter.getMpaId() != null && !filter.getMpaId().isEmpty()) {
+                matching.and(union(filter.getMpaId().stream().map(byMpa::get).toList()));
+            }
+            if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+                int from = filter.getYearFrom() == null ? Integer.MIN_VALUE : filter.getYearFrom();
+                int to = filter.getYearTo() == null ? Integer.MAX_VALUE : filter.getYearTo();
+                matching.and(from > to ? new BitSet() : union(byYear.subMap(from, true, to, true).values()));
+            }
+            return matching;
+        });
+        return result.stream().boxed().toList();
+    }
+
+    @Override
+    protected Facets entryOf(Film film) {
+        return new Facets(genreIdsOf(film),
+                film.getMpa() == null ? null : film.getMpa().getId(),
+                film.getReleaseDate() == null ? null : film.getReleaseDate().getYear());
+    }
+
+    @Override
+    protected Facets withGenres(Facets facets, Set<Integer> genreIds) {
+        return new Facets(genreIds, facets.mpaId(), facets.year());
+    }
+
+    @Override
+    protected void index(Integer filmId, Facets facets) {
+        allFilms.set(filmId);
+        facets.genreIds().forEach(genreId -> byGenre.computeIfAbsent(genreId, id -> new BitSet()).set(filmId));
+        if (facets.mpaId() != null) {
+            byMpa.computeIfAbsent(facets.mpaId(), id -> new BitSet()).set(filmId);
+        }
+        if (facets.year() != null) {
+            byYear.computeIfAbsent(facets.year(), year -> new BitSet()).set(filmId);
+        }
+    }
+
+    @Override
+    protected void unindex(Integer filmId, Facets facets) {
+        allFilms.clear(filmId);
+        facets.genreIds().forEach(genreId -> clearBit(byGenre, genreId, filmId));
+        if (facets.mpaId() != null) {
+            clearBit(byMpa, facets.mpaId(), filmId);
+        }
+        if (facets.year() != null) {
+            clearBit(byYear, facets.year(), filmId);
+        }
+    }
+
+    @Override
+    protected void clearIndexes() {
+        allFilms.clear();
+        byGenre.clear();
+        byMpa.clear();
+        byYear.clear();
+    }
+
+    private BitSet union(Collection<BitSet> bitmaps) {
+        BitSet union = new BitSet();
+        for (BitSet bitmap : bitmaps) {
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private void clearBit(Map<Integer, BitSet> bitmaps, Integer key, Integer filmId) {
+        BitSet bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.clear(filmId);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    record Facets(Set<Integer> genreIds, Integer mpaId, Integer year) {
+    }
+}
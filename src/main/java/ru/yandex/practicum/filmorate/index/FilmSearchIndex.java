@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+/**
+ * Inverted index over film names and descriptions ranked with BM25. A term found in the name counts
+ * {@value #NAME_WEIGHT} times. The index is rebuilt from {@link FilmStorage#findAll()} at startup
+ * and then follows film events.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final FilmStorage filmStorage;
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, String[]> documentTerms = new HashMap<>();
+    private final Map<Integer, Integer> documentLengths = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        List<Film> films = new ArrayList<>(filmStorage.findAll());
+        films.sort(Comparator.comparing(Film::getId));
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            documentLengths.clear();
+            totalLength = 0;
+            films.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс построен: фильмов {}, термов {} за {} мс", films.size(), postings.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onFilmChanged(FilmChangedEvent event) {
+        index(filmStorage.findById(event.filmId()));
+    }
+
+    @EventListener
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        remove(event.filmId());
+    }
+
+    /**
+     * Films changed on other nodes are re-read from storage; a catch-all film key rebuilds the index.
+     */
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        if (batch.contains(InvalidationKey.Kind.ALL_FILMS)) {
+            rebuild();
+            return;
+        }
+        List<Integer> filmIds = batch.idsOf(InvalidationKey.Kind.FILM);
+        if (filmIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, Film> films = new HashMap<>();
+        filmStorage.findByIds(filmIds).forEach(film -> films.put(film.getId(), film));
+        for (Integer filmId : filmIds) {
+            Film film = films.get(filmId);
+            if (film == null) {
+                remove(filmId);
+            } else {
+                index(film);
+            }
+        }
+    }
+
+    public void index(Film film) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(film.getId());
+            addDocument(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer filmId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Integer> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextNormalizer.terms(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documents = documentLengths.size();
+            double averageLength = documents == 0 ? 1 : (double) totalLength / documents;
+            for (String term : queryTerms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents - list.size() + 0.5) / (list.size() + 0.5));
+                list.forEach((docId, frequency) -> {
+                    double norm = K1 * (1 - B + B * documentLengths.get(docId) / averageLength);
+                    scores.merge(docId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Comparator<Map.Entry<Integer, Double>> worstFirst = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(worstFirst);
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            top.offer(score);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Integer> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().getKey());
+        }
+        return result.reversed();
+    }
+
+    private void addDocument(Film film) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextNormalizer.terms(film.getName()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        TextNormalizer.terms(film.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        int documentLength = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(film.getId(), entry.getValue());
+            documentLength += entry.getValue();
+        }
+        documentTerms.put(film.getId(), frequencies.keySet().toArray(String[]::new));
+        documentLengths.put(film.getId(), documentLength);
+        totalLength += documentLength;
+    }
+
+    private void removeDocument(Integer filmId) {
+        String[] terms = documentTerms.remove(filmId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(filmId) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(filmId);
+    }
+}
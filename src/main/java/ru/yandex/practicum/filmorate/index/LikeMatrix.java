@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikesReloadedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+/**
+ * Sparse like matrix as two maps of sorted int arrays: user to liked films and film to users who liked it.
+ * Arrays are replaced on change and never modified, so readers may keep a reference without locking.
+ */
+@Component
+@RequiredArgsConstructor
+public class LikeMatrix {
+    private static final int[] EMPTY = new int[0];
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final LikeStorage likeStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Integer, int[]> filmsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> usersByFilm = new ConcurrentHashMap<>();
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Like> likes = likeStorage.findAll();
+        Map<Integer, List<Integer>> films = new HashMap<>();
+        Map<Integer, List<Integer>> users = new HashMap<>();
+        for (Like like : likes) {
+            films.computeIfAbsent(like.getUserId(), id -> new ArrayList<>()).add(like.getFilmId());
+            users.computeIfAbsent(like.getFilmId(), id -> new ArrayList<>()).add(like.getUserId());
+        }
+        filmsByUser.clear();
+        usersByFilm.clear();
+        films.forEach((userId, filmIds) -> filmsByUser.put(userId, toSortedArray(filmIds)));
+        users.forEach((filmId, userIds) -> usersByFilm.put(filmId, toSortedArray(userIds)));
+        log.info("Матрица лайков построена: лайков {}, пользователей {}, фильмов {}", likes.size(),
+                filmsByUser.size(), usersByFilm.size());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public synchronized void onLikeChanged(LikeChangedEvent event) {
+        if (event.added()) {
+            filmsByUser.merge(event.userId(), new int[]{event.filmId()}, (old, value) -> insert(old, event.filmId()));
+            usersByFilm.merge(event.filmId(), new int[]{event.userId()}, (old, value) -> insert(old, event.userId()));
+        } else {
+            filmsByUser.computeIfPresent(event.userId(), (id, old) -> delete(old, event.filmId()));
+            usersByFilm.computeIfPresent(event.filmId(), (id, old) -> delete(old, event.userId()));
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public synchronized void onUserDeleted(UserDeletedEvent event) {
+        int[] films = filmsByUser.remove(event.userId());
+        if (films != null) {
+            for (int filmId : films) {
+                usersByFilm.computeIfPresent(filmId, (id, old) -> delete(old, event.userId()));
+            }
+        }
+    }
+
+    @EventListener
+    public synchronized void onFilmDeleted(FilmDeletedEvent event) {
+        int[] users = usersByFilm.remove(event.filmId());
+        if (users != null) {
+            for (int userId : users) {
+                filmsByUser.computeIfPresent(userId, (id, old) -> delete(old, event.filmId()));
+            }
+        }
+    }
+
+    /**
+     * Every like change on another node comes with its film key, so the likes of those films are re-read and the
+     * differences published as {@link LikesReloadedEvent}; a catch-all film key rebuilds the matrix.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        if (batch.contains(InvalidationKey.Kind.ALL_FILMS)) {
+            rebuild();
+            return;
+        }
+        for (Integer filmId : batch.idsOf(InvalidationKey.Kind.FILM)) {
+            LikesReloadedEvent event = reload(filmId, toSortedArray(storedLikes(filmId)));
+            if (!event.addedUserIds().isEmpty() || !event.removedUserIds().isEmpty()) {
+                eventPublisher.publishEvent(event);
+            }
+        }
+    }
+
+    public int[] filmsOf(int userId) {
+        return filmsByUser.getOrDefault(userId, EMPTY);
+    }
+
+    public int[] usersOf(int filmId) {
+        return usersByFilm.getOrDefault(filmId, EMPTY);
+    }
+
+    public Set<Integer> films() {
+        return Collections.unmodifiableSet(usersByFilm.keySet());
+    }
+
+    public static int intersectionSize(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private List<Integer> storedLikes(Integer filmId) {
+        try {
+            return likeStorage.getLikesByFilmId(filmId);
+        } catch (NotFoundException e) {
+            return List.of();
+        }
+    }
+
+    private synchronized LikesReloadedEvent reload(int filmId, int[] users) {
+        int[] previous = usersOf(filmId);
+        List<Integer> added = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < previous.length || j < users.length) {
+            if (j == users.length || (i < previous.length && previous[i] < users[j])) {
+                removed.add(previous[i++]);
+            } else if (i == previous.length || users[j] < previous[i]) {
+                added.add(users[j++]);
+            } else {
+                i++;
+                j++;
+            }
+        }
+        added.forEach(userId -> filmsByUser.merge(userId, new int[]{filmId}, (old, value) -> insert(old, filmId)));
+        removed.forEach(userId -> filmsByUser.computeIfPresent(userId, (id, old) -> delete(old, filmId)));
+        if (users.length == 0) {
+            usersByFilm.remove(filmId);
+        } else {
+            usersByFilm.put(filmId, users);
+        }
+        return new LikesReloadedEvent(filmId, added, removed);
+    }
+
+    private static int[] toSortedArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    private static int[] insert(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position >= 0) {
+            return values;
+        }
+        int insertAt = -position - 1;
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return result;
+    }
+
+    private static int[] delete(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return values;
+        }
+        if (values.length == 1) {
+            return null;
+        }
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, position);
+        System.arraycopy(values, position + 1, result, position, values.length - position - 1);
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.*;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+/**
+ * Popular lists per genre and per release year. Each scope is a set ordered by like count, so the top
+ * of any scope is read without aggregation and a like moves one entry in each scope of its film.
+ */
+@Component
+public class PopularityIndex extends FilmEntryIndex<PopularityIndex.Entry> {
+    private static final Comparator<Ranked> MOST_LIKED_FIRST = Comparator.comparingInt(Ranked::likes)
+            .reversed()
+            .thenComparingInt(Ranked::filmId);
+
+    private final Map<Integer, NavigableSet<Ranked>> byGenre = new HashMap<>();
+    private final Map<Integer, NavigableSet<Ranked>> byYear = new HashMap<>();
+
+    public PopularityIndex(FilmStorage filmStorage) {
+        super(filmStorage, "Рейтинги по жанрам и годам");
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        addLikes(event.filmId(), event.added() ? 1 : -1);
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        event.likedFilmIds().forEach(filmId -> addLikes(filmId, -1));
+    }
+
+    public List<Integer> findTop(int count, Integer genreId, Integer year) {
+        return read(() -> {
+            NavigableSet<Ranked> scope = genreId != null ? byGenre.get(genreId) : byYear.get(year);
+            if (scope == null) {
+                return List.of();
+            }
+            return scope.stream()
+                    .filter(ranked -> year == null || year.equals(entries.get(ranked.filmId()).year()))
+                    .limit(count)
+                    .map(Ranked::filmId)
+                    .toList();
+        });
+    }
+
+    @Override
+    protected Entry entryOf(Film film) {
+        Integer year = film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+        return new Entry(genreIdsOf(film), year, film.getLikes().size());
+    }
+
+    @Override
+    protected Entry withGenres(Entry entry, Set<Integer> genreIds) {
+        return new Entry(genreIds, entry.year(), entry.likes());
+    }
+
+    /**
+     * Like counts follow like events, so the count already indexed wins over the one read with the film.
+     */
+    @Override
+    protected Entry replacing(Entry previous, Entry reloaded) {
+        return new Entry(reloaded.genreIds(), reloaded.year(), previous.likes());
+    }
+
+    @Override
+    protected void index(Integer filmId, Entry entry) {
+        Ranked ranked = new Ranked(filmId, entry.likes());
+        entry.genreIds().forEach(genreId -> byGenre.computeIfAbsent(genreId, id -> newScope()).add(ranked));
+        if (entry.year() != null) {
+            byYear.computeIfAbsent(entry.year(), year -> newScope()).add(ranked);
+        }
+    }
+
+    @Override
+    protected void unindex(Integer filmId, Entry entry) {
+        Ranked ranked = new Ranked(filmId, entry.likes());
+        entry.genreIds().forEach(genreId -> removeFromScope(byGenre, genreId, ranked));
+        if (entry.year() != null) {
+            removeFromScope(byYear, entry.year(), ranked);
+        }
+    }
+
+    @Override
+    protected void clearIndexes() {
+        byGenre.clear();
+        byYear.clear();
+    }
+
+    private void addLikes(Integer filmId, int delta) {
+        update(filmId, entry -> new Entry(entry.genreIds(), entry.year(), Math.max(0, entry.likes() + delta)));
+    }
+
+    private void removeFromScope(Map<Integer, NavigableSet<Ranked>> scopes, Integer key, Ranked ranked) {
+        NavigableSet<Ranked> scope = scopes.get(key);
+        if (scope != null && scope.remove(ranked) && scope.isEmpty()) {
+            scopes.remove(key);
+        }
+    }
+
+    private static NavigableSet<Ranked> newScope() {
+        return new TreeSet<>(MOST_LIKED_FIRST);
+    }
+
+    private record Ranked(int filmId, int likes) {
+    }
+
+    record Entry(Set<Integer> genreIds, Integer year, int likes) {
+    }
+}
@@ -0,0 +1,213 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sorted list of (film id, term frequency) pairs split into blocks of about {@value #BLOCK_SIZE} postings, each
+ * stored as varint-encoded id deltas followed by the frequency. Appending an id larger than the last one is
+ * amortized O(1); inserting or replacing an id re-encodes only its block. Removing an id leaves a tombstone that
+ * reads skip; a block drops its dead postings the next time it is re-encoded, or once half of it is dead, and is
+ * then merged into its successor if both fit in one block. Not thread-safe: the owning index guards it.
+ */
+final class PostingList {
+    static final int BLOCK_SIZE = 128;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final Set<Integer> tombstones = new HashSet<>();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(int docId, int frequency) {
+        Block last = blocks.isEmpty() ? null : blocks.getLast();
+        if (last == null || docId > last.lastDocId) {
+            if (last == null || last.count >= BLOCK_SIZE) {
+                last = new Block();
+                blocks.add(last);
+            }
+            last.append(docId, frequency);
+            size++;
+            return;
+        }
+        int index = blockIndex(docId);
+        Block block = blocks.get(index);
+        if (!block.contains(docId) || tombstones.contains(docId)) {
+            size++;
+        }
+        rewrite(index, docId, frequency);
+    }
+
+    boolean remove(int docId) {
+        int index = blockIndex(docId);
+        if (index == blocks.size() || tombstones.contains(docId)) {
+            return false;
+        }
+        Block block = blocks.get(index);
+        if (!block.contains(docId)) {
+            return false;
+        }
+        tombstones.add(docId);
+        block.dead++;
+        size--;
+        if (block.dead * 2 >= block.count) {
+            rewrite(index, 0, 0);
+        }
+        return true;
+    }
+
+    void forEach(PostingConsumer consumer) {
+        for (Block block : blocks) {
+            if (block.dead == 0) {
+                block.forEach(consumer);
+            } else {
+                block.forEach((docId, frequency) -> {
+                    if (!tombstones.contains(docId)) {
+                        consumer.accept(docId, frequency);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Index of the first block whose last id is not below {@code docId}, or the number of blocks.
+     */
+    private int blockIndex(int docId) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).lastDocId < docId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Re-encodes block {@code index} without its dead postings and, if {@code docId} is positive, with
+     * {@code docId} inserted or replaced. An oversized block is split in two, an empty one is dropped and a small
+     * one is merged into its successor.
+     */
+    private void rewrite(int index, int docId, int frequency) {
+        Block block = blocks.get(index);
+        int[] docIds = new int[block.count + 1];
+        int[] frequencies = new int[block.count + 1];
+        int[] count = new int[1];
+        boolean[] placed = new boolean[]{docId <= 0};
+        block.forEach((id, tf) -> {
+            if (!placed[0] && docId <= id) {
+                docIds[count[0]] = docId;
+                frequencies[count[0]++] = frequency;
+                placed[0] = true;
+            }
+            if (block.dead > 0 && tombstones.remove(id) || id == docId) {
+                return;
+            }
+            docIds[count[0]] = id;
+            frequencies[count[0]++] = tf;
+        });
+        if (!placed[0]) {
+            docIds[count[0]] = docId;
+            frequencies[count[0]++] = frequency;
+        }
+        int total = count[0];
+        if (total == 0) {
+            blocks.remove(index);
+            return;
+        }
+        if (total > 2 * BLOCK_SIZE) {
+            int half = total / 2;
+            blocks.set(index, Block.of(docIds, frequencies, 0, half));
+            blocks.add(index + 1, Block.of(docIds, frequencies, half, total));
+            return;
+        }
+        Block next = index + 1 < blocks.size() ? blocks.get(index + 1) : null;
+        if (next != null && next.dead == 0 && total + next.count <= BLOCK_SIZE) {
+            Block merged = Block.of(docIds, frequencies, 0, total);
+            next.forEach(merged::append);
+            blocks.set(index, merged);
+            blocks.remove(index + 1);
+            return;
+        }
+        blocks.set(index, Block.of(docIds, frequencies, 0, total));
+    }
+
+    private static final class Block {
+        private byte[] data = new byte[16];
+        private int length;
+        private int count;
+        private int dead;
+        private int lastDocId;
+
+        static Block of(int[] docIds, int[] frequencies, int from, int to) {
+            Block block = new Block();
+            block.data = new byte[Math.max(16, (to - from) * 3)];
+            for (int i = from; i < to; i++) {
+                block.append(docIds[i], frequencies[i]);
+            }
+            return block;
+        }
+
+        void append(int docId, int frequency) {
+            if (length + 10 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            writeVarint(docId - lastDocId);
+            writeVarint(frequency);
+            lastDocId = docId;
+            count++;
+        }
+
+        boolean contains(int docId) {
+            boolean[] found = new boolean[1];
+            forEach((id, frequency) -> found[0] |= id == docId);
+            return found[0];
+        }
+
+        void forEach(PostingConsumer consumer) {
+            int position = 0;
+            int docId = 0;
+            while (position < length) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                int frequency = 0;
+                shift = 0;
+                do {
+                    b = data[position++];
+                    frequency |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                docId += delta;
+                consumer.accept(docId, frequency);
+            }
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+
+    @FunctionalInterface
+    interface PostingConsumer {
+        void accept(int docId, int frequency);
+    }
+}
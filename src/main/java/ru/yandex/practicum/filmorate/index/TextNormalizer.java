@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-case terms and strips common Russian and English endings, so that
+ * "приключения" and "приключение" or "movies" and "movie" end up as the same term.
+ */
+final class TextNormalizer {
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "о", "об", "про", "по", "к", "у", "за", "из", "от", "до", "не", "а",
+            "the", "a", "an", "of", "and", "or", "in", "on", "to", "is");
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией", "ешь", "ишь", "ете", "ите",
+            "ия", "ие", "ий", "ый", "ой", "ая", "яя", "ое", "ее", "ые", "ов", "ев", "ам", "ям", "ах", "ях",
+            "ом", "ем", "ую", "юю", "ть", "ет", "ит", "ут", "ют", "ат", "ят",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"};
+    private static final String[] ENGLISH_ENDINGS = {"ing", "ed", "ly", "e"};
+
+    private TextNormalizer() {
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean wordChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = lowerCase.substring(start, i);
+                if (!STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static String stem(String word) {
+        if (isCyrillic(word)) {
+            return stripEnding(word, RUSSIAN_ENDINGS);
+        }
+        String stem = word;
+        if (stem.length() > MIN_STEM_LENGTH && stem.endsWith("s") && !stem.endsWith("ss")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stripEnding(stem, ENGLISH_ENDINGS);
+    }
+
+    private static String stripEnding(String word, String[] endings) {
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    private static boolean isCyrillic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.UnicodeBlock.of(word.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
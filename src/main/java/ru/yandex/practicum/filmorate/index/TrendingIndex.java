@@ -0,0 +1,209 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+/**
+ * Recent likes per film in hourly buckets kept in a ring that covers the longest supported window.
+ * A film's trending score is the sum of its buckets inside the window, each halved every
+ * {@code half-life-hours}, so fresh likes outweigh likes from the start of the window. Windows follow like
+ * events; the full replay from the like table runs only at startup, from the admin endpoint and on catch-all
+ * invalidations.
+ */
+@Component
+public class TrendingIndex {
+    private static final long SECONDS_PER_BUCKET = Duration.ofHours(1).toSeconds();
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final LikeStorage likeStorage;
+    private final int maxWindowHours;
+    private final double halfLifeHours;
+    private volatile Map<Integer, FilmWindow> windows = new ConcurrentHashMap<>();
+
+    public TrendingIndex(LikeStorage likeStorage,
+                         @Value("${filmorate.trending.max-window-hours:168}") int maxWindowHours,
+                         @Value("${filmorate.trending.half-life-hours:6}") double halfLifeHours) {
+        this.likeStorage = likeStorage;
+        this.maxWindowHours = maxWindowHours;
+        this.halfLifeHours = halfLifeHours;
+    }
+
+    public int getMaxWindowHours() {
+        return maxWindowHours;
+    }
+
+    /**
+     * Rebuilds every window from the likes of the longest window and swaps them in at once, so readers see
+     * either the old windows or the new ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int replay() {
+        Instant now = Instant.now();
+        List<Like> likes = likeStorage.findCreatedSince(now.minusSeconds(maxWindowHours * SECONDS_PER_BUCKET));
+        Map<Integer, FilmWindow> replayed = new ConcurrentHashMap<>();
+        for (Like like : likes) {
+            replayed.computeIfAbsent(like.getFilmId(), filmId -> new FilmWindow(maxWindowHours))
+                    .add(bucketOf(like.getCreatedAt()), 1);
+        }
+        windows = replayed;
+        log.info("Окна трендов восстановлены из таблицы лайков: лайков {}, фильмов {}", likes.size(), replayed.size());
+        return likes.size();
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        Instant likedAt = event.likedAt() == null ? Instant.now() : event.likedAt();
+        if (event.added()) {
+            windows.computeIfAbsent(event.filmId(), filmId -> new FilmWindow(maxWindowHours))
+                    .add(bucketOf(likedAt), 1);
+        } else {
+            FilmWindow window = windows.get(event.filmId());
+            if (window != null) {
+                window.add(bucketOf(likedAt), -1);
+            }
+        }
+    }
+
+    /**
+     * Takes each like of the deleted user out of the bucket it was counted in.
+     */
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        for (Like like : event.likes()) {
+            FilmWindow window = windows.get(like.getFilmId());
+            if (window != null && like.getCreatedAt() != null) {
+                window.add(bucketOf(like.getCreatedAt()), -1);
+            }
+        }
+    }
+
+    @EventListener
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        windows.remove(event.filmId());
+    }
+
+    /**
+     * Windows of films changed on other nodes are rebuilt from the recent likes in storage; a catch-all film
+     * key replays every window.
+     */
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        if (batch.contains(InvalidationKey.Kind.ALL_FILMS)) {
+            replay();
+            return;
+        }
+        Set<Integer> filmIds = Set.copyOf(batch.idsOf(InvalidationKey.Kind.FILM));
+        if (filmIds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Map<Integer, FilmWindow> reloaded = new HashMap<>();
+        for (Like like : likeStorage.findCreatedSince(now.minusSeconds(maxWindowHours * SECONDS_PER_BUCKET))) {
+            if (filmIds.contains(like.getFilmId())) {
+                reloaded.computeIfAbsent(like.getFilmId(), filmId -> new FilmWindow(maxWindowHours))
+                        .add(bucketOf(like.getCreatedAt()), 1);
+            }
+        }
+        for (Integer filmId : filmIds) {
+            FilmWindow window = reloaded.get(filmId);
+            if (window == null) {
+                windows.remove(filmId);
+            } else {
+                windows.put(filmId, window);
+            }
+        }
+    }
+
+    public List<Integer> findTrending(int windowHours, int count) {
+        long now = bucketOf(Instant.now());
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(
+                Map.Entry.<Integer, Double>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        Iterator<Map.Entry<Integer, FilmWindow>> iterator = windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, FilmWindow> entry = iterator.next();
+            FilmWindow window = entry.getValue();
+            if (window.isExpired(now)) {
+                iterator.remove();
+                continue;
+            }
+            double score = window.score(now, windowHours, halfLifeHours);
+            if (score > 0) {
+                top.offer(Map.entry(entry.getKey(), score));
+                if (top.size() > count) {
+                    top.poll();
+                }
+            }
+        }
+        List<Integer> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().getKey());
+        }
+        return result.reversed();
+    }
+
+    private static long bucketOf(Instant instant) {
+        return instant.getEpochSecond() / SECONDS_PER_BUCKET;
+    }
+
+    private static final class FilmWindow {
+        private final int[] counts;
+        private long newestBucket = Long.MIN_VALUE;
+
+        FilmWindow(int size) {
+            counts = new int[size];
+        }
+
+        synchronized void add(long bucket, int delta) {
+            if (newestBucket == Long.MIN_VALUE) {
+                newestBucket = bucket;
+            } else if (bucket > newestBucket) {
+                long advance = Math.min(bucket - newestBucket, counts.length);
+                for (long i = 1; i <= advance; i++) {
+                    counts[slot(newestBucket + i)] = 0;
+                }
+                newestBucket = bucket;
+            } else if (bucket <= newestBucket - counts.length) {
+                return;
+            }
+            int slot = slot(bucket);
+            counts[slot] = Math.max(0, counts[slot] + delta);
+        }
+
+        synchronized boolean isExpired(long now) {
+            return newestBucket <= now - counts.length;
+        }
+
+        synchronized double score(long now, int windowHours, double halfLifeHours) {
+            double score = 0;
+            long oldest = Math.max(now - windowHours, newestBucket - counts.length);
+            for (long bucket = Math.min(now, newestBucket); bucket > oldest; bucket--) {
+                int count = counts[slot(bucket)];
+                if (count > 0) {
+                    score += count * Math.pow(0.5, (now - bucket) / halfLifeHours);
+                }
+            }
+            return score;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) counts.length);
+        }
+    }
+}
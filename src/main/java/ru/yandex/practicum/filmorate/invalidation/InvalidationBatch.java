@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Coalesced keys flushed by one node. {@code sequence} grows by one per flush of {@code origin}, so a receiver
+ * can tell that it missed a batch; {@code oldestMillis} is the wall-clock time of the earliest write in it.
+ * On the receiving node the batch is published as an application event for the local caches to apply.
+ */
+public record InvalidationBatch(String origin, long sequence, long oldestMillis, List<InvalidationKey> keys) {
+
+    /**
+     * Stands in for batches that were lost: drops everything the lost batches could have covered.
+     */
+    public static InvalidationBatch everything(String origin, long sequence, long oldestMillis) {
+        return new InvalidationBatch(origin, sequence, oldestMillis, Arrays.stream(InvalidationKey.Kind.values())
+                .filter(kind -> kind.wide() == kind)
+                .map(InvalidationKey::all)
+                .toList());
+    }
+
+    public boolean contains(InvalidationKey.Kind kind) {
+        return keys.stream().anyMatch(key -> key.kind() == kind);
+    }
+
+    /**
+     * Ids of the narrow keys of {@code kind}, in batch order.
+     */
+    public List<Integer> idsOf(InvalidationKey.Kind kind) {
+        return keys.stream()
+                .filter(key -> key.kind() == kind)
+                .map(InvalidationKey::id)
+                .toList();
+    }
+}
@@ -0,0 +1,236 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.event.*;
+
+/**
+ * Tells other nodes which of their cached data our writes made stale. Write events are turned into keys once
+ * the transaction commits, deduplicated in memory and flushed as one batch every {@code flush-interval-ms};
+ * too many keys of one kind collapse into a catch-all key. Batches from other nodes are republished locally
+ * as {@link InvalidationBatch} events, which caches and in-memory indexes apply by re-reading the named films
+ * from storage or, for catch-all keys, rebuilding.
+ */
+@Component
+public class InvalidationBus implements AutoCloseable {
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final String origin = UUID.randomUUID().toString();
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long flushIntervalMs;
+    private final int maxKeysPerKind;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<InvalidationKey, Long> pending = new LinkedHashMap<>();
+    private final Map<InvalidationKey.Kind, Integer> pendingPerKind = new EnumMap<>(InvalidationKey.Kind.class);
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+    private long sequence;
+    private final Counter events;
+    private final Counter coalesced;
+    private final Counter sentBatches;
+    private final Counter sentKeys;
+    private final Counter receivedBatches;
+    private final Counter receivedKeys;
+    private final Counter failures;
+    private final Counter gaps;
+    private final Timer staleness;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public InvalidationBus(InvalidationTransport transport,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry,
+                           InvalidationProperties properties) {
+        this.transport = transport;
+        this.eventPublisher = eventPublisher;
+        this.flushIntervalMs = properties.getFlushIntervalMs();
+        this.maxKeysPerKind = properties.getMaxKeysPerKind();
+        this.events = meterRegistry.counter("filmorate.invalidation.events");
+        this.coalesced = meterRegistry.counter("filmorate.invalidation.coalesced");
+        this.sentBatches = meterRegistry.counter("filmorate.invalidation.batches", "direction", "sent");
+        this.sentKeys = meterRegistry.counter("filmorate.invalidation.keys", "direction", "sent");
+        this.receivedBatches = meterRegistry.counter("filmorate.invalidation.batches", "direction", "received");
+        this.receivedKeys = meterRegistry.counter("filmorate.invalidation.keys", "direction", "received");
+        this.failures = meterRegistry.counter("filmorate.invalidation.send.failures");
+        this.gaps = meterRegistry.counter("filmorate.invalidation.gaps");
+        this.staleness = meterRegistry.timer("filmorate.invalidation.staleness");
+        meterRegistry.gauge("filmorate.invalidation.pending", this, InvalidationBus::pendingSize);
+        transport.start(this::receive);
+        this.worker = Thread.ofPlatform().name("invalidation-bus").daemon().start(this::drain);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmChanged(FilmChangedEvent event) {
+        publish(InvalidationKey.film(event.filmId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        publish(InvalidationKey.film(event.filmId()),
+                InvalidationKey.all(InvalidationKey.Kind.RECOMMENDATIONS));
+    }
+
+    /**
+     * Only the film key: peers re-read its likes and learn who liked or unliked it from the difference, so a
+     * storm of likes from many users does not pile up user keys that collapse into a catch-all.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikeChanged(LikeChangedEvent event) {
+        publish(InvalidationKey.film(event.filmId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenresLinked(GenresLinkedEvent event) {
+        publish(InvalidationKey.film(event.filmId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendshipChanged(FriendshipChangedEvent event) {
+        publish(InvalidationKey.friends(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        publish(InvalidationKey.all(InvalidationKey.Kind.FILM),
+                InvalidationKey.all(InvalidationKey.Kind.RECOMMENDATIONS),
+                InvalidationKey.all(InvalidationKey.Kind.FRIENDS));
+    }
+
+    public void publish(InvalidationKey... keys) {
+        long now = System.currentTimeMillis();
+        events.increment(keys.length);
+        lock.lock();
+        try {
+            for (InvalidationKey key : keys) {
+                if (!add(key, now)) {
+                    coalesced.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code false} if the key was already covered by a pending one
+     */
+    private boolean add(InvalidationKey key, long now) {
+        if (pending.containsKey(key.wide()) || pending.putIfAbsent(key, now) != null) {
+            return false;
+        }
+        int count = pendingPerKind.merge(key.kind(), 1, Integer::sum);
+        if (key.isWide() || count > maxKeysPerKind) {
+            collapse(key.kind().wide());
+        }
+        return true;
+    }
+
+    /**
+     * Replaces every pending key of the kind with its catch-all key; the replaced keys count as coalesced.
+     */
+    private void collapse(InvalidationKey.Kind wideKind) {
+        long oldest = Long.MAX_VALUE;
+        int removed = 0;
+        Iterator<Map.Entry<InvalidationKey, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<InvalidationKey, Long> entry = entries.next();
+            if (entry.getKey().kind().wide() == wideKind) {
+                oldest = Math.min(oldest, entry.getValue());
+                entries.remove();
+                removed++;
+            }
+        }
+        coalesced.increment(removed - 1);
+        pendingPerKind.keySet().removeIf(kind -> kind.wide() == wideKind);
+        pending.put(InvalidationKey.all(wideKind), oldest);
+        pendingPerKind.put(wideKind, 1);
+    }
+
+    private void receive(InvalidationBatch batch) {
+        if (origin.equals(batch.origin())) {
+            return;
+        }
+        Long previous = lastSequences.put(batch.origin(), batch.sequence());
+        InvalidationBatch applied = batch;
+        if (previous != null && batch.sequence() != previous + 1) {
+            gaps.increment();
+            log.warn("Пропущены пакеты инвалидации от {}: после {} получен {}, сбрасываются все кэши",
+                    batch.origin(), previous, batch.sequence());
+            applied = InvalidationBatch.everything(batch.origin(), batch.sequence(), batch.oldestMillis());
+        }
+        try {
+            eventPublisher.publishEvent(applied);
+        } catch (RuntimeException e) {
+            log.error("Не удалось применить пакет инвалидации {} от {}", batch.sequence(), batch.origin(), e);
+        }
+        staleness.record(Math.max(0, System.currentTimeMillis() - batch.oldestMillis()), TimeUnit.MILLISECONDS);
+        receivedBatches.increment();
+        receivedKeys.increment(batch.keys().size());
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            flush();
+        }
+    }
+
+    private synchronized void flush() {
+        Map<InvalidationKey, Long> keys;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            keys = pending;
+            pending = new LinkedHashMap<>();
+            pendingPerKind.clear();
+        } finally {
+            lock.unlock();
+        }
+        long oldest = Collections.min(keys.values());
+        InvalidationBatch batch = new InvalidationBatch(origin, ++sequence, oldest, List.copyOf(keys.keySet()));
+        try {
+            transport.send(batch);
+            sentBatches.increment();
+            sentKeys.increment(keys.size());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Не удалось отправить пакет инвалидации {} ({} ключей)", batch.sequence(), keys.size(), e);
+        }
+    }
+
+    private int pendingSize() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the worker and sends what is still pending. The transport is closed by its owner.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        flush();
+    }
+}
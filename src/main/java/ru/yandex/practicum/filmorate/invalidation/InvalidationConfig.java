@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InvalidationConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "filmorate.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+    public InvalidationTransport loopbackTransport() {
+        return new LoopbackTransport();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "filmorate.invalidation.transport", havingValue = "socket")
+    public InvalidationTransport socketTransport(InvalidationProperties properties) throws IOException {
+        InvalidationProperties.Socket socket = properties.getSocket();
+        return new SocketTransport(SocketTransport.address(socket.getBind()),
+                socket.getPeers().stream().map(SocketTransport::address).toList());
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+/**
+ * A cached region to drop on other nodes. Catch-all kinds carry id {@code 0} and cover every key of their
+ * narrow kind, which is what a batch falls back to when too many keys of one kind pile up.
+ */
+public record InvalidationKey(Kind kind, int id) {
+
+    public static InvalidationKey film(int filmId) {
+        return new InvalidationKey(Kind.FILM, filmId);
+    }
+
+    public static InvalidationKey recommendations(int userId) {
+        return new InvalidationKey(Kind.RECOMMENDATIONS, userId);
+    }
+
+    public static InvalidationKey friends(int userId) {
+        return new InvalidationKey(Kind.FRIENDS, userId);
+    }
+
+    public static InvalidationKey all(Kind kind) {
+        return new InvalidationKey(kind.wide(), 0);
+    }
+
+    public InvalidationKey wide() {
+        return all(kind);
+    }
+
+    public boolean isWide() {
+        return kind.wide() == kind;
+    }
+
+    public enum Kind {
+        ALL_FILMS(null),
+        FILM(ALL_FILMS),
+        ALL_RECOMMENDATIONS(null),
+        RECOMMENDATIONS(ALL_RECOMMENDATIONS),
+        ALL_FRIENDS(null),
+        FRIENDS(ALL_FRIENDS);
+
+        private final Kind wide;
+
+        Kind(Kind wide) {
+            this.wide = wide;
+        }
+
+        public Kind wide() {
+            return wide == null ? this : wide;
+        }
+    }
+}
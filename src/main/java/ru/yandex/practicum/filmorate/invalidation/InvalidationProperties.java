@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.invalidation")
+public class InvalidationProperties {
+    /**
+     * {@code loopback} or {@code socket}.
+     */
+    private String transport = "loopback";
+    private long flushIntervalMs = 50;
+    /**
+     * More distinct keys of one kind within a flush interval are replaced by the kind's catch-all key.
+     */
+    private int maxKeysPerKind = 256;
+    private Socket socket = new Socket();
+
+    @Data
+    public static class Socket {
+        private String bind = "127.0.0.1:0";
+        /**
+         * {@code host:port} of every other node.
+         */
+        private List<String> peers = new ArrayList<>();
+    }
+}
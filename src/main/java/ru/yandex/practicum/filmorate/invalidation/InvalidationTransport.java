@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries batches between nodes. Delivery may be lossy; receivers detect gaps by sequence number.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    void start(Consumer<InvalidationBatch> receiver);
+
+    void send(InvalidationBatch batch);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM transport: every batch is handed synchronously to all receivers started on the same instance,
+ * the sender included. A single node uses it as a no-op; tests share one instance between several buses.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+    private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void start(Consumer<InvalidationBatch> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        receivers.forEach(receiver -> receiver.accept(batch));
+    }
+
+    @Override
+    public void close() {
+        receivers.clear();
+    }
+}
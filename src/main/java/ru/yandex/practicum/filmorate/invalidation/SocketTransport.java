@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends every batch as one UDP datagram to a fixed list of peers, meant for several processes on one host.
+ * Datagrams can be lost or reordered; the bus turns a sequence gap into a full invalidation.
+ */
+public class SocketTransport implements InvalidationTransport {
+    private static final int MAX_DATAGRAM_SIZE = 65_507;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers;
+
+    public SocketTransport(InetSocketAddress bindAddress, List<InetSocketAddress> peers) throws IOException {
+        this.channel = DatagramChannel.open().bind(bindAddress);
+        this.peers = List.copyOf(peers);
+    }
+
+    /**
+     * Parses {@code host:port}.
+     */
+    public static InetSocketAddress address(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        return new InetSocketAddress(hostAndPort.substring(0, colon),
+                Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+
+    public int getLocalPort() {
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> receiver) {
+        Thread.ofPlatform().name("invalidation-socket-" + getLocalPort()).daemon().start(() -> receive(receiver));
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        byte[] datagram = encode(batch);
+        if (datagram.length > MAX_DATAGRAM_SIZE) {
+            throw new IllegalStateException("Пакет инвалидации не помещается в датаграмму: " + datagram.length
+                    + " байт");
+        }
+        try {
+            for (InetSocketAddress peer : peers) {
+                channel.send(ByteBuffer.wrap(datagram), peer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть сокет инвалидации", e);
+        }
+    }
+
+    private void receive(Consumer<InvalidationBatch> receiver) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                SocketAddress sender = channel.receive(buffer);
+                buffer.flip();
+                try {
+                    receiver.accept(decode(buffer));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Отброшен пакет инвалидации от {}", sender, e);
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Ошибка чтения сокета инвалидации", e);
+            }
+        }
+    }
+
+    static byte[] encode(InvalidationBatch batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + batch.keys().size() * 5);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(batch.origin());
+            out.writeLong(batch.sequence());
+            out.writeLong(batch.oldestMillis());
+            out.writeInt(batch.keys().size());
+            for (InvalidationKey key : batch.keys()) {
+                out.writeByte(key.kind().ordinal());
+                out.writeInt(key.id());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static InvalidationBatch decode(ByteBuffer datagram) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(datagram.array(), datagram.position(),
+                datagram.remaining()));
+        String origin = in.readUTF();
+        long sequence = in.readLong();
+        long oldestMillis = in.readLong();
+        int size = in.readInt();
+        InvalidationKey.Kind[] kinds = InvalidationKey.Kind.values();
+        List<InvalidationKey> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(new InvalidationKey(kinds[in.readUnsignedByte()], in.readInt()));
+        }
+        return new InvalidationBatch(origin, sequence, oldestMillis, keys);
+    }
+}
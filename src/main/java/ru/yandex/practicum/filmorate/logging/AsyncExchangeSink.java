@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.logbook.*;
+
+public class AsyncExchangeSink implements Sink, AutoCloseable {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final ExchangeLogProperties properties;
+    private final BlockingQueue<ExchangeRecord> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public AsyncExchangeSink(ExchangeLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.written = meterRegistry.counter("filmorate.exchange.log.records", "outcome", "written");
+        this.dropped = meterRegistry.counter("filmorate.exchange.log.records", "outcome", "dropped");
+        meterRegistry.gauge("filmorate.exchange.log.queue.size", queue, BlockingQueue::size);
+        this.worker = Thread.ofPlatform().name("exchange-log-writer").daemon().start(this::drain);
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request) {
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response) throws IOException {
+        writeBoth(correlation, request, response);
+    }
+
+    @Override
+    public void writeBoth(Correlation correlation, HttpRequest request, HttpResponse response) throws IOException {
+        ExchangeRecord exchangeRecord = new ExchangeRecord(
+                correlation.getId(),
+                request.getMethod(),
+                request.getRequestUri(),
+                response.getStatus(),
+                correlation.getDuration().toMillis(),
+                extractBody(request),
+                extractBody(response)
+        );
+        if (!queue.offer(exchangeRecord)) {
+            dropped.increment();
+        }
+    }
+
+    private String extractBody(HttpMessage message) throws IOException {
+        byte[] body = message.getBody();
+        if (body.length == 0) {
+            return "";
+        }
+        if (body.length > properties.getSkipBodyAbove()) {
+            return "<" + body.length + " bytes skipped>";
+        }
+        Charset charset = message.getCharset();
+        if (body.length > properties.getMaxBodySize()) {
+            return new String(body, 0, properties.getMaxBodySize(), charset) + "...";
+        }
+        return new String(body, charset);
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                ExchangeRecord exchangeRecord = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (exchangeRecord == null) {
+                    continue;
+                }
+                log.info("{} {} {} -> {} ({} ms) request={} response={}", exchangeRecord.id(),
+                        exchangeRecord.method(), exchangeRecord.uri(), exchangeRecord.status(),
+                        exchangeRecord.durationMillis(), exchangeRecord.requestBody(), exchangeRecord.responseBody());
+                written.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lets the worker write out what is already queued before it stops.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record ExchangeRecord(String id, String method, String uri, int status, long durationMillis,
+                                  String requestBody, String responseBody) {
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.AntPathMatcher;
+import org.zalando.logbook.*;
+
+@RequiredArgsConstructor
+public class BodySkippingStrategy implements Strategy {
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ExchangeLogProperties properties;
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        Optional<Long> contentLength = contentLength(request);
+        if (contentLength.isPresent() && contentLength.get() > properties.getSkipBodyAbove()) {
+            return request.withoutBody();
+        }
+        return request.withBody();
+    }
+
+    /**
+     * A missing or malformed header means the length is unknown; a bad header must not fail the request.
+     */
+    private static Optional<Long> contentLength(HttpRequest request) {
+        String header = request.getHeaders().getFirst("Content-Length");
+        if (header == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        boolean skipBody = properties.getNoResponseBodyPaths().stream()
+                .anyMatch(pattern -> pathMatcher.match(pattern, request.getPath()));
+        return skipBody ? response.withoutBody() : response.withBody();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+            throws IOException {
+        sink.writeBoth(correlation, request, response);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import java.util.*;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.exchange-log")
+public class ExchangeLogProperties {
+    private boolean enabled = true;
+    private double sampleRate = 1.0;
+    private Map<String, Double> endpointSampleRates = new LinkedHashMap<>();
+    private List<String> noResponseBodyPaths = new ArrayList<>();
+    private int maxBodySize = 2048;
+    private int skipBodyAbove = 65536;
+    private int queueCapacity = 1024;
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import java.util.function.Predicate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+@Configuration
+public class ExchangeLoggingConfig {
+
+    @Bean
+    public Predicate<HttpRequest> requestCondition(ExchangeLogProperties properties) {
+        return new SamplingRequestCondition(properties);
+    }
+
+    @Bean
+    public Strategy exchangeLogStrategy(ExchangeLogProperties properties) {
+        return new BodySkippingStrategy(properties);
+    }
+
+    @Bean(destroyMethod = "close")
+    public Sink exchangeLogSink(ExchangeLogProperties properties, MeterRegistry meterRegistry) {
+        return new AsyncExchangeSink(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.AntPathMatcher;
+import org.zalando.logbook.HttpRequest;
+
+@RequiredArgsConstructor
+public class SamplingRequestCondition implements Predicate<HttpRequest> {
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ExchangeLogProperties properties;
+
+    @Override
+    public boolean test(HttpRequest request) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        double rate = sampleRateFor(request.getPath());
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private double sampleRateFor(String path) {
+        for (Map.Entry<String, Double> entry : properties.getEndpointSampleRates().entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return properties.getSampleRate();
+    }
+}
@@ -48,7 +48,8 @@ public class FilmMapper {
                 .id(filmUpdateDto.getId())
                 .name(filmUpdateDto.getName().orElse(null))
                 .duration(filmUpdateDto.getDuration().orElse(null))
-                .description(filmUpdateDto.getDescription().orElse(null));
+                .description(filmUpdateDto.getDescription().orElse(null))
+                .version(filmUpdateDto.getVersion());
 
         if (Optional.ofNullable(filmUpdateDto.getReleaseDate()).isPresent()) {
             filmBuilder.releaseDate(filmUpdateDto.getReleaseDate());
@@ -30,6 +30,7 @@ public class UserMapper {
                 )
                 .login(userUpdateDto.getLogin())
                 .birthday(userUpdateDto.getBirthday())
+                .version(userUpdateDto.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Result of a multi-get: the entities that were found, in request order, and the requested ids that were not.
+ */
+@Data
+@Builder
+public class BatchResult<T> {
+    private List<T> items;
+    private List<Integer> missingIds;
+
+    public static <T> BatchResult<T> of(List<Integer> requestedIds, List<T> found, Function<T, Integer> idOf) {
+        Set<Integer> foundIds = found.stream().map(idOf).collect(Collectors.toSet());
+        return BatchResult.<T>builder()
+                .items(found)
+                .missingIds(requestedIds.stream().distinct().filter(id -> !foundIds.contains(id)).toList())
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is passed back as {@code before} to get the next
+ * page and is {@code null} on the last page.
+ */
+@Data
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FeedEvent {
+    private Long id;
+    private Integer userId;
+    private FeedEventType eventType;
+    private FeedOperation operation;
+    private Integer entityId;
+    private Instant timestamp;
+}
@@ -3,10 +3,13 @@ package ru.yandex.practicum.filmorate.model;
 import java.time.LocalDate;
 import java.util.*;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Builder;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.util.Projection;
 
 @Data
+@JsonFilter(Projection.FILTER_ID)
 @Builder(toBuilder = true)
 public class Film {
     private final Set<Integer> likes = new HashSet<>();
@@ -17,4 +20,10 @@ public class Film {
     private Integer duration;
     private Mpa mpa;
     private List<Genre> genres;
+    private Integer likeCount;
+    private Integer version;
+
+    public Integer getLikeCount() {
+        return likeCount != null ? likeCount : likes.size();
+    }
 }
\ No newline at end of file
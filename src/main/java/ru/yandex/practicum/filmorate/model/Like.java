@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class Like {
+    private Integer filmId;
+    private Integer userId;
+    private Instant createdAt;
+}
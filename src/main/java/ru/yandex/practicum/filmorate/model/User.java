@@ -4,11 +4,14 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Builder;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.util.Projection;
 
 @Data
-@Builder
+@JsonFilter(Projection.FILTER_ID)
+@Builder(toBuilder = true)
 public class User {
     private final Map<Integer, FriendStatus> friends = new HashMap<>();
     private Integer id;
@@ -16,4 +19,5 @@ public class User {
     private String login;
     private String name;
     private LocalDate birthday;
+    private Integer version;
 }
\ No newline at end of file
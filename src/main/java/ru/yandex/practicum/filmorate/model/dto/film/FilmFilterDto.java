@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.model.dto.film;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilmFilterDto {
+    private List<Integer> genreId;
+    private List<Integer> mpaId;
+    private Integer yearFrom;
+    private Integer yearTo;
+
+    public boolean isEmpty() {
+        return (genreId == null || genreId.isEmpty())
+                && (mpaId == null || mpaId.isEmpty())
+                && yearFrom == null
+                && yearTo == null;
+    }
+}
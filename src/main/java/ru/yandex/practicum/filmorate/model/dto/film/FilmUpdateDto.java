@@ -32,4 +32,7 @@ public class FilmUpdateDto {
 
     @Positive
     private Optional<MpaDto> mpa;
+
+    @PositiveOrZero
+    private Integer version;
 }
\ No newline at end of file
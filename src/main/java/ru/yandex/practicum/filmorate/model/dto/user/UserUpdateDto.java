@@ -24,4 +24,7 @@ public class UserUpdateDto {
 
     @PastOrPresent
     private LocalDate birthday;
+
+    @PositiveOrZero
+    private Integer version;
 }
\ No newline at end of file
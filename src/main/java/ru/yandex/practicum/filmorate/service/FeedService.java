@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.CursorPage;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.FeedEventType;
+import ru.yandex.practicum.filmorate.model.FeedOperation;
+import ru.yandex.practicum.filmorate.storage.feed.FeedStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+/**
+ * Activity feed. Events are queued by the request thread and written in batches by a background thread,
+ * so a just-recorded event shows up in the feed after at most {@code flush-interval-ms}. The queue holds at most
+ * {@code queue-capacity} events; when the writer falls that far behind, new events are dropped and counted rather
+ * than held in memory.
+ */
+@Service
+public class FeedService implements AutoCloseable {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final FeedStorage feedStorage;
+    private final UserStorage userStorage;
+    private final Validators validators;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<FeedEvent> queue;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public FeedService(FeedStorage feedStorage,
+                       UserStorage userStorage,
+                       Validators validators,
+                       MeterRegistry meterRegistry,
+                       @Value("${filmorate.feed.batch-size:500}") int batchSize,
+                       @Value("${filmorate.feed.flush-interval-ms:50}") long flushIntervalMs,
+                       @Value("${filmorate.feed.queue-capacity:10000}") int queueCapacity) {
+        this.feedStorage = feedStorage;
+        this.userStorage = userStorage;
+        this.validators = validators;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.written = meterRegistry.counter("filmorate.feed.events", "outcome", "written");
+        this.failed = meterRegistry.counter("filmorate.feed.events", "outcome", "failed");
+        this.dropped = meterRegistry.counter("filmorate.feed.events", "outcome", "dropped");
+        meterRegistry.gauge("filmorate.feed.queue.size", queue, BlockingQueue::size);
+        this.worker = Thread.ofPlatform().name("feed-writer").daemon().start(this::drain);
+    }
+
+    public void record(Integer userId, FeedEventType eventType, FeedOperation operation, Integer entityId) {
+        FeedEvent event = FeedEvent.builder()
+                .userId(userId)
+                .eventType(eventType)
+                .operation(operation)
+                .entityId(entityId)
+                .timestamp(Instant.now())
+                .build();
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    public CursorPage<FeedEvent> getFeed(Integer userId, Long before, int limit) {
+        validators.validateUserExits(userStorage, userId, getClass());
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<FeedEvent> events = feedStorage.findByUserId(userId, before == null ? Long.MAX_VALUE : before,
+                pageSize + 1);
+        boolean hasMore = events.size() > pageSize;
+        List<FeedEvent> page = hasMore ? events.subList(0, pageSize) : events;
+        return CursorPage.<FeedEvent>builder()
+                .items(page)
+                .nextCursor(hasMore ? page.getLast().getId() : null)
+                .build();
+    }
+
+    private void drain() {
+        List<FeedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                FeedEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                feedStorage.saveAll(batch);
+                written.increment(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failed.increment(batch.size());
+                log.error("Не удалось записать {} событий ленты", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -1,39 +1,100 @@
 package ru.yandex.practicum.filmorate.service;
 
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
+import ru.yandex.practicum.filmorate.index.CoLikeIndex;
+import ru.yandex.practicum.filmorate.index.FilmFilterIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.CursorPage;
+import ru.yandex.practicum.filmorate.model.FeedEventType;
+import ru.yandex.practicum.filmorate.model.FeedOperation;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.dto.film.FilmCreateDto;
+import ru.yandex.practicum.filmorate.model.dto.film.FilmFilterDto;
 import ru.yandex.practicum.filmorate.model.dto.film.FilmUpdateDto;
+import ru.yandex.practicum.filmorate.storage.film.FilmReadStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import ru.yandex.practicum.filmorate.util.DtoHelper;
+import ru.yandex.practicum.filmorate.util.Projection;
+import ru.yandex.practicum.filmorate.util.SingleFlight;
 import ru.yandex.practicum.filmorate.util.Validators;
 
 @Service
 @RequiredArgsConstructor
 public class FilmService {
+    private static final int MAX_LIKES_PAGE_SIZE = 1000;
+    private static final int UPDATE_ATTEMPTS = 3;
+    private static final String UNVERSIONED = "-";
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
     private final FilmStorage filmStorage;
+    private final FilmReadStorage filmReadStorage;
+    private final UserStorage userStorage;
     private final UserService userService;
     private final FilmMapper filmMapper;
     private final LikeService likeService;
-    private final GenreService genreService;
     private final DtoHelper dtoHelper;
     private final Validators validators;
+    private final FilmSearchIndex searchIndex;
+    private final FilmFilterIndex filterIndex;
+    private final PopularityIndex popularityIndex;
+    private final TrendingIndex trendingIndex;
+    private final CoLikeIndex coLikeIndex;
+    private final FeedService feedService;
+    private final SingleFlight singleFlight;
 
     public Collection<Film> findAll() {
-        return filmStorage.findAll();
+        return filmReadStorage.findAll();
+    }
+
+    public Collection<Film> findAll(FilmFilterDto filter, Projection projection) {
+        if (filter.isEmpty()) {
+            return filmReadStorage.findAll(projection);
+        }
+        return filmReadStorage.findByIds(filterIndex.find(filter), projection);
     }
 
     public Film findById(Integer filmId) {
-        return filmStorage.findById(filmId);
+        return findById(filmId, Projection.ALL);
+    }
+
+    public Film findById(Integer filmId, Projection projection) {
+        return findById(filmId, projection, UNVERSIONED);
+    }
+
+    /**
+     * Callers that tag the response with a version pass the version they read beforehand. It is part of the
+     * single-flight key, so they never join a load that started before the write behind that version and would
+     * answer with the film as it was before it.
+     */
+    public Film findById(Integer filmId, Projection projection, Object observedVersion) {
+        return singleFlight.load("film.findById", filmId + ":" + observedVersion + projection.tagSuffix(),
+                () -> filmReadStorage.findById(filmId, projection));
+    }
+
+    /**
+     * Answered from the in-memory filter index, so conditional reads need no database query.
+     */
+    public boolean exists(Integer filmId) {
+        return filterIndex.contains(filmId);
+    }
+
+    public BatchResult<Film> findByIds(List<Integer> filmIds, Projection projection) {
+        return BatchResult.of(filmIds, filmReadStorage.findByIds(filmIds, projection), Film::getId);
     }
 
     public Film create(FilmCreateDto filmCreateDto) {
@@ -41,33 +102,111 @@ public class FilmService {
         return filmStorage.create(film);
     }
 
+    /**
+     * Applies the update only to the version the client sent; a stale version is answered with 409.
+     * Without a version the merge is retried on a fresh copy of the film up to {@link #UPDATE_ATTEMPTS} times.
+     */
     public Film update(FilmUpdateDto filmUpdateDto) {
-        validators.validateFilmExists(filmUpdateDto.getId(), getClass());
+        validators.validateFilmExists(filmStorage, filmUpdateDto.getId(), getClass());
         validators.validateFilmReleaseDate(filmUpdateDto.getReleaseDate(), getClass());
         validators.validateFilmDescription(filmUpdateDto.getDescription(), filmUpdateDto.getId(), getClass());
 
+        int attemptsLeft = filmUpdateDto.getVersion() == null ? UPDATE_ATTEMPTS : 1;
+        while (true) {
+            try {
+                Film updated = mergeAndUpdate(filmUpdateDto);
+                feedService.record(null, FeedEventType.FILM, FeedOperation.UPDATE, updated.getId());
+                return updated;
+            } catch (ConflictException e) {
+                if (--attemptsLeft == 0) {
+                    throw e;
+                }
+                log.debug("Повтор обновления фильма id {} после конфликта версий", filmUpdateDto.getId());
+            }
+        }
+    }
+
+    private Film mergeAndUpdate(FilmUpdateDto filmUpdateDto) {
         Film filmUpdate = filmMapper.toEntity(filmUpdateDto);
         Film filmOriginal = filmStorage.findById(filmUpdate.getId());
-
         filmUpdate = (Film) dtoHelper.transferFields(filmOriginal, filmUpdate);
-        Set<Integer> genreIds = filmUpdate.getGenres().stream().mapToInt(Genre::getId).boxed().collect(Collectors.toSet());
-        genreService.linkGenresToFilm(filmUpdate.getId(), genreIds, true);
         return filmStorage.update(filmUpdate);
     }
 
     public void addLike(Integer filmId, Integer userId) {
-        validators.validateFilmExists(filmId, getClass());
-        validators.validateUserExits(userId, getClass());
+        validators.validateFilmExists(filmStorage, filmId, getClass());
+        validators.validateUserExits(userStorage, userId, getClass());
         likeService.addLike(filmId, userId);
+        feedService.record(userId, FeedEventType.LIKE, FeedOperation.ADD, filmId);
     }
 
     public void removeLike(Integer filmId, Integer userId) {
-        validators.validateFilmExists(filmId, getClass());
-        validators.validateUserExits(userId, getClass());
+        validators.validateFilmExists(filmStorage, filmId, getClass());
+        validators.validateUserExits(userStorage, userId, getClass());
         likeService.removeLike(filmId, userId);
+        feedService.record(userId, FeedEventType.LIKE, FeedOperation.REMOVE, filmId);
     }
 
     public List<Film> findTopLiked(int count) {
-        return filmStorage.findTopLiked(count);
+        return findTopLiked(count, Projection.ALL);
+    }
+
+    public List<Film> findTopLiked(int count, Projection projection) {
+        return findTopLiked(count, projection, UNVERSIONED);
+    }
+
+    /**
+     * Same as {@link #findById(Integer, Projection, Object)}: the observed version keeps the caller out of loads
+     * that started before it.
+     */
+    public List<Film> findTopLiked(int count, Projection projection, Object observedVersion) {
+        return singleFlight.load("film.findTopLiked", count + ":" + observedVersion + projection.tagSuffix(),
+                () -> filmReadStorage.findTopLiked(count, projection));
+    }
+
+    public List<Film> findTopLiked(int count, Integer genreId, Integer year) {
+        return findTopLiked(count, genreId, year, Projection.ALL);
+    }
+
+    public List<Film> findTopLiked(int count, Integer genreId, Integer year, Projection projection) {
+        if (genreId == null && year == null) {
+            return findTopLiked(count, projection);
+        }
+        return filmReadStorage.findByIds(popularityIndex.findTop(count, genreId, year), projection);
+    }
+
+    public CursorPage<Integer> findLikes(Integer filmId, Integer after, int limit) {
+        validators.validateFilmExists(filmStorage, filmId, getClass());
+        int pageSize = Math.clamp(limit, 1, MAX_LIKES_PAGE_SIZE);
+        List<Integer> userIds = likeService.getLikesByFilmId(filmId, after == null ? 0 : after, pageSize + 1);
+        boolean hasMore = userIds.size() > pageSize;
+        List<Integer> page = hasMore ? userIds.subList(0, pageSize) : userIds;
+        return CursorPage.<Integer>builder()
+                .items(page)
+                .nextCursor(hasMore ? page.getLast().longValue() : null)
+                .build();
+    }
+
+    public List<Film> findTrending(String window, int count) {
+        long windowHours;
+        try {
+            windowHours = DurationStyle.detectAndParse(window, ChronoUnit.HOURS).toHours();
+        } catch (IllegalArgumentException e) {
+            windowHours = -1;
+        }
+        if (windowHours < 1 || windowHours > trendingIndex.getMaxWindowHours()) {
+            LoggedException.throwNew(ExceptionType.INVALID_TRENDING_WINDOW, getClass(),
+                    List.of(trendingIndex.getMaxWindowHours()));
+        }
+        return filmReadStorage.findByIds(trendingIndex.findTrending((int) windowHours, count));
+    }
+
+    public List<Film> findSimilar(Integer filmId, int count) {
+        validators.validateFilmExists(filmStorage, filmId, getClass());
+        return filmReadStorage.findByIds(coLikeIndex.findSimilar(filmId, count));
+    }
+
+    public List<Film> search(String query, int limit) {
+        return filmReadStorage.findByIds(searchIndex.search(query, limit));
     }
 }
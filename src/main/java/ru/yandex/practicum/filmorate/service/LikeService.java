@@ -4,26 +4,30 @@ import java.util.List;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
 import ru.yandex.practicum.filmorate.util.Validators;
 
 @Service
 @RequiredArgsConstructor
 public class LikeService {
-    private final LikeDbStorage likeStorage;
+    private final LikeStorage likeStorage;
     private final Validators validators;
 
     public void addLike(Integer filmId, Integer userId) {
-        validators.validateLikeNotExists(filmId, userId, getClass());
+        validators.validateLikeNotExists(likeStorage, filmId, userId, getClass());
         likeStorage.addLike(filmId, userId);
     }
 
     public void removeLike(Integer filmId, Integer userId) {
-        validators.validateLikeExists(filmId, userId, getClass());
+        validators.validateLikeExists(likeStorage, filmId, userId, getClass());
         likeStorage.removeLike(filmId, userId);
     }
 
     public List<Integer> getLikesByFilmId(Integer filmId) {
         return likeStorage.getLikesByFilmId(filmId);
     }
+
+    public List<Integer> getLikesByFilmId(Integer filmId, Integer afterUserId, int limit) {
+        return likeStorage.getLikesByFilmId(filmId, afterUserId, limit);
+    }
 }
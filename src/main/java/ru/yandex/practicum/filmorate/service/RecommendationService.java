@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikesReloadedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmReadStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+/**
+ * User-based collaborative filtering. Users who liked the same films are neighbours, ranked by the Jaccard
+ * similarity of their likes. A film's score is the summed similarity of the neighbours who liked it.
+ * For users with many likes, only their {@code profile-cap} least-liked films are used to find neighbours,
+ * and at most {@code candidate-cap} neighbours are scored. Computed lists are kept for up to {@code cache-size}
+ * recently asked users and for {@code cache-ttl-ms} at most.
+ */
+@Service
+public class RecommendationService {
+    private final LikeMatrix likeMatrix;
+    private final FilmReadStorage filmReadStorage;
+    private final UserStorage userStorage;
+    private final Validators validators;
+    private final int profileCap;
+    private final int candidateCap;
+    private final int neighbours;
+    private final RecommendationCache cache;
+
+    public RecommendationService(LikeMatrix likeMatrix,
+                                 FilmReadStorage filmReadStorage,
+                                 UserStorage userStorage,
+                                 Validators validators,
+                                 @Value("${filmorate.recommendations.profile-cap:500}") int profileCap,
+                                 @Value("${filmorate.recommendations.candidate-cap:2000}") int candidateCap,
+                                 @Value("${filmorate.recommendations.neighbours:50}") int neighbours,
+                                 @Value("${filmorate.recommendations.cache-size:10000}") int cacheSize,
+                                 @Value("${filmorate.recommendations.cache-ttl-ms:600000}") long cacheTtlMs) {
+        this.likeMatrix = likeMatrix;
+        this.filmReadStorage = filmReadStorage;
+        this.userStorage = userStorage;
+        this.validators = validators;
+        this.profileCap = profileCap;
+        this.candidateCap = candidateCap;
+        this.neighbours = neighbours;
+        this.cache = new RecommendationCache(cacheSize, TimeUnit.MILLISECONDS.toNanos(cacheTtlMs));
+    }
+
+    public List<Film> getRecommendations(Integer userId, int count) {
+        validators.validateUserExits(userStorage, userId, getClass());
+        List<Integer> filmIds = cache.get(userId, this::computeRecommendations);
+        return filmReadStorage.findByIds(filmIds.subList(0, Math.min(count, filmIds.size())));
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        cache.remove(event.userId());
+    }
+
+    @EventListener({FilmDeletedEvent.class, UserDeletedEvent.class})
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Likes changed on another node reach the matrix as re-read films; the users it found added or removed are the
+     * ones whose lists are now stale.
+     */
+    @EventListener
+    public void onLikesReloaded(LikesReloadedEvent event) {
+        event.addedUserIds().forEach(cache::remove);
+        event.removedUserIds().forEach(cache::remove);
+    }
+
+    /**
+     * A catch-all film key rebuilds the matrix without telling whose likes changed, so it drops every list too.
+     */
+    @EventListener
+    public void onRemoteInvalidation(InvalidationBatch batch) {
+        for (InvalidationKey key : batch.keys()) {
+            switch (key.kind()) {
+                case RECOMMENDATIONS -> cache.remove(key.id());
+                case ALL_RECOMMENDATIONS, ALL_FILMS -> cache.clear();
+                default -> {
+                }
+            }
+        }
+    }
+
+    private List<Integer> computeRecommendations(Integer userId) {
+        int[] liked = likeMatrix.filmsOf(userId);
+        if (liked.length == 0) {
+            return List.of();
+        }
+        int[] profile = IntStream.of(liked)
+                .boxed()
+                .sorted(Comparator.comparingInt(filmId -> likeMatrix.usersOf(filmId).length))
+                .limit(profileCap)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Set<Integer> candidates = new LinkedHashSet<>();
+        for (int filmId : profile) {
+            for (int otherUserId : likeMatrix.usersOf(filmId)) {
+                if (otherUserId != userId && candidates.size() < candidateCap) {
+                    candidates.add(otherUserId);
+                }
+            }
+        }
+
+        List<Neighbour> nearest = candidates.parallelStream()
+                .map(otherUserId -> {
+                    int[] theirs = likeMatrix.filmsOf(otherUserId);
+                    int common = LikeMatrix.intersectionSize(liked, theirs);
+                    return new Neighbour(otherUserId, (double) common / (liked.length + theirs.length - common));
+                })
+                .filter(neighbour -> neighbour.similarity() > 0)
+                .sorted(Comparator.comparingDouble(Neighbour::similarity).reversed()
+                        .thenComparingInt(Neighbour::userId))
+                .limit(neighbours)
+                .toList();
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Neighbour neighbour : nearest) {
+            for (int filmId : likeMatrix.filmsOf(neighbour.userId())) {
+                if (Arrays.binarySearch(liked, filmId) < 0) {
+                    scores.merge(filmId, neighbour.similarity(), Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private record Neighbour(int userId, double similarity) {
+    }
+
+    /**
+     * Least recently used lists, each dropped once it is older than the TTL. A miss leaves a pending marker that
+     * an invalidation removes, so a list computed across an invalidation is returned but not stored.
+     */
+    private static final class RecommendationCache {
+        private final long ttlNanos;
+        private final LinkedHashMap<Integer, Cached> entries;
+
+        RecommendationCache(int capacity, long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Cached> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        List<Integer> get(Integer userId, Function<Integer, List<Integer>> loader) {
+            Cached pending = new Cached(null, System.nanoTime());
+            synchronized (this) {
+                Cached cached = entries.get(userId);
+                if (cached != null && cached.filmIds() != null && pending.createdAt() - cached.createdAt() < ttlNanos) {
+                    return cached.filmIds();
+                }
+                entries.put(userId, pending);
+            }
+            List<Integer> filmIds = loader.apply(userId);
+            synchronized (this) {
+                if (entries.get(userId) == pending) {
+                    entries.put(userId, new Cached(filmIds, pending.createdAt()));
+                }
+            }
+            return filmIds;
+        }
+
+        synchronized void remove(Integer userId) {
+            entries.remove(userId);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+
+    private record Cached(List<Integer> filmIds, long createdAt) {
+    }
+}
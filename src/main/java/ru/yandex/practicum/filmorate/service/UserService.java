@@ -5,33 +5,46 @@ import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.FeedEventType;
+import ru.yandex.practicum.filmorate.model.FeedOperation;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.dto.user.UserCreateDto;
 import ru.yandex.practicum.filmorate.model.dto.user.UserUpdateDto;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import ru.yandex.practicum.filmorate.util.DtoHelper;
+import ru.yandex.practicum.filmorate.util.Projection;
+import ru.yandex.practicum.filmorate.util.SingleFlight;
 import ru.yandex.practicum.filmorate.util.Validators;
 
 @Service
 public class UserService {
+    private static final int UPDATE_ATTEMPTS = 3;
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
     private final UserStorage userStorage;
     private final Validators validators;
     private final UserMapper mapper;
     private final DtoHelper dtoHelper;
+    private final FeedService feedService;
+    private final SingleFlight singleFlight;
 
     @Autowired
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage,
+    public UserService(UserStorage userStorage,
                        UserMapper mapper,
                        DtoHelper dtoHelper,
-                       Validators validators) {
+                       Validators validators,
+                       FeedService feedService,
+                       SingleFlight singleFlight) {
         this.userStorage = userStorage;
         this.mapper = mapper;
         this.dtoHelper = dtoHelper;
         this.validators = validators;
+        this.feedService = feedService;
+        this.singleFlight = singleFlight;
     }
 
     public Collection<User> findAll() {
@@ -42,8 +55,21 @@ public class UserService {
         return userStorage.getFriends(userId);
     }
 
+    public Collection<User> findAll(Projection projection) {
+        return userStorage.findAll(projection);
+    }
+
     public User findById(Integer userId) {
-        return userStorage.findById(userId);
+        return findById(userId, Projection.ALL);
+    }
+
+    public User findById(Integer userId, Projection projection) {
+        return singleFlight.load("user.findById", userId + projection.tagSuffix(),
+                () -> userStorage.findById(userId, projection));
+    }
+
+    public BatchResult<User> findByIds(List<Integer> userIds, Projection projection) {
+        return BatchResult.of(userIds, userStorage.findByIds(userIds, projection), User::getId);
     }
 
     public User create(UserCreateDto userCreateDto) {
@@ -52,29 +78,43 @@ public class UserService {
         return userStorage.create(user);
     }
 
+    /**
+     * Same contract as {@link FilmService#update}: a sent version must match, otherwise 409; without one the merge
+     * is retried on a fresh copy of the user.
+     */
     public User update(UserUpdateDto userUpdateDto) {
-        validators.validateUserExits(userUpdateDto.getId(), getClass());
+        validators.validateUserExits(userStorage, userUpdateDto.getId(), getClass());
         validators.validateLogin(userUpdateDto.getLogin(), getClass());
 
-        User userUpdate = mapper.toEntity(userUpdateDto);
-        User userOriginal = userStorage.findById(userUpdate.getId());
-
-        userUpdate = (User) dtoHelper.transferFields(userOriginal, userUpdate);
-
-        return userStorage.update(userUpdate);
+        int attemptsLeft = userUpdateDto.getVersion() == null ? UPDATE_ATTEMPTS : 1;
+        while (true) {
+            try {
+                User userUpdate = mapper.toEntity(userUpdateDto);
+                User userOriginal = userStorage.findById(userUpdate.getId());
+                userUpdate = (User) dtoHelper.transferFields(userOriginal, userUpdate);
+                return userStorage.update(userUpdate);
+            } catch (ConflictException e) {
+                if (--attemptsLeft == 0) {
+                    throw e;
+                }
+                log.debug("Повтор обновления пользователя id {} после конфликта версий", userUpdateDto.getId());
+            }
+        }
     }
 
     public void addFriend(Integer userIdA, Integer userIdB) {
         findById(userIdA);
         findById(userIdB);
-        validators.validateFriendshipNotExists(userIdA, userIdB, getClass());
+        validators.validateFriendshipNotExists(userStorage, userIdA, userIdB, getClass());
         userStorage.addFriend(userIdA, userIdB);
+        feedService.record(userIdA, FeedEventType.FRIEND, FeedOperation.ADD, userIdB);
     }
 
     public void removeFriend(Integer userIdA, Integer userIdB) {
         findById(userIdA);
         findById(userIdB);
         userStorage.removeFriend(userIdA, userIdB);
+        feedService.record(userIdA, FeedEventType.FRIEND, FeedOperation.REMOVE, userIdB);
     }
 
     public Set<User> getCommonFriends(Integer userIdA, Integer userIdB) {
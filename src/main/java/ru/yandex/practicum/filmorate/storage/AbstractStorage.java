@@ -1,21 +1,113 @@
 package ru.yandex.practicum.filmorate.storage;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
 
+/**
+ * Entities stored here are never changed once put: writers replace them, and subclasses keep mutable collections
+ * such as likes and friends in concurrent maps of their own. Reads therefore take no lock; only writers that
+ * check a stored value before replacing it serialize on {@link #withEntityLock}.
+ */
 public abstract class AbstractStorage<T> {
-    protected final Map<Integer, T> mapEntityStorage = new HashMap<>();
+    private static final int LOCK_STRIPES = 64;
+
+    protected final Map<Integer, T> mapEntityStorage = new ConcurrentHashMap<>();
     protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final AtomicInteger idSequence = new AtomicInteger();
+    private final Lock[] entityLocks = new Lock[LOCK_STRIPES];
+
+    protected AbstractStorage() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            entityLocks[i] = new ReentrantLock();
+        }
+    }
 
     protected int getNextId() {
-        int currentMaxId = mapEntityStorage.keySet()
-                .stream()
-                .mapToInt(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
-    }
-}
\ No newline at end of file
+        return idSequence.incrementAndGet();
+    }
+
+    public int getLastId() {
+        return idSequence.get();
+    }
+
+    public void advanceIdTo(int id) {
+        idSequence.accumulateAndGet(id, Math::max);
+    }
+
+    public Set<Integer> ids() {
+        return Set.copyOf(mapEntityStorage.keySet());
+    }
+
+    public boolean exists(Integer id) {
+        return id != null && mapEntityStorage.containsKey(id);
+    }
+
+    public List<T> findByIds(List<Integer> ids) {
+        return ids.stream()
+                .distinct()
+                .map(this::snapshot)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void restore(Integer id, T entity) {
+        mapEntityStorage.put(id, entity);
+        advanceIdTo(id);
+    }
+
+    public T evict(Integer id) {
+        return mapEntityStorage.remove(id);
+    }
+
+    /**
+     * Detached copy of a stored entity with its collections filled in, so callers never see them change while
+     * reading them.
+     */
+    protected abstract T copyOf(T entity);
+
+    protected T snapshot(Integer id) {
+        T entity = mapEntityStorage.get(id);
+        return entity == null ? null : copyOf(entity);
+    }
+
+    protected List<T> snapshotAll() {
+        return mapEntityStorage.keySet().stream()
+                .map(this::snapshot)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Version for an entity replacing one stored with {@code storedVersion}. Must be called under the entity lock;
+     * an {@code expectedVersion} of {@code null} skips the check.
+     */
+    protected int nextVersion(Integer storedVersion, Integer expectedVersion, ExceptionType conflict, Integer id) {
+        int current = storedVersion == null ? 0 : storedVersion;
+        if (expectedVersion != null && expectedVersion != current) {
+            LoggedException.throwNew(conflict, getClass(), List.of(id, expectedVersion));
+        }
+        return current + 1;
+    }
+
+    protected <R> R withEntityLock(Integer id, Supplier<R> action) {
+        Lock lock = entityLocks[Math.floorMod(id, LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
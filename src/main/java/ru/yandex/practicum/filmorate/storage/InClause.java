@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for multi-get queries: ids are de-duplicated and split into chunks so a single
+ * {@code IN (...)} list never grows past {@link #CHUNK_SIZE} bind parameters.
+ */
+public final class InClause {
+    public static final int CHUNK_SIZE = 500;
+
+    private InClause() {
+    }
+
+    public static List<List<Integer>> chunks(List<Integer> ids) {
+        List<Integer> distinct = ids.stream().distinct().toList();
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public static <T> List<T> inRequestOrder(List<Integer> ids, Collection<T> found, Function<T, Integer> idOf) {
+        Map<Integer, T> byId = found.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
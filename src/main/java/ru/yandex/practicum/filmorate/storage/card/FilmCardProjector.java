@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage.card;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.*;
+
+/**
+ * Keeps {@code film_card} in step with the source tables. Events are published synchronously by the storages,
+ * so a card is up to date before the write request returns.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "db", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FilmCardProjector {
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final FilmCardStorage cardStorage;
+
+    @EventListener
+    public void onFilmChanged(FilmChangedEvent event) {
+        cardStorage.refresh(event.filmId());
+    }
+
+    @EventListener
+    public void onGenresLinked(GenresLinkedEvent event) {
+        cardStorage.refresh(event.filmId());
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        cardStorage.refreshLikeCount(event.filmId());
+    }
+
+    @EventListener
+    public void onFilmDeleted(FilmDeletedEvent event) {
+        cardStorage.remove(event.filmId());
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        cardStorage.refreshAllLikeCounts();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuild() {
+        long started = System.nanoTime();
+        int cards = cardStorage.rebuild();
+        log.info("Карточки фильмов пересобраны: {} шт. за {} мс", cards, (System.nanoTime() - started) / 1_000_000);
+        return cards;
+    }
+}
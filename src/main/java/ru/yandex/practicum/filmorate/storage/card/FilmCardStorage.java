@@ -0,0 +1,275 @@
+package ru.yandex.practicum.filmorate.storage.card;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.InClause;
+import ru.yandex.practicum.filmorate.storage.film.FilmReadStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
+import ru.yandex.practicum.filmorate.util.Projection;
+
+/**
+ * Denormalized film cards: one row per film with the MPA name, genres and like count already assembled.
+ * Rows are written only by {@link FilmCardProjector}; reads are a single lookup on {@code film_card}
+ * plus one query for the ids of users who liked the returned films.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "db", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FilmCardStorage implements FilmReadStorage {
+    private static final String CARD_SOURCE = """
+            SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa_id, m.name,
+                (SELECT ARRAY_AGG(g.id ORDER BY g.id)
+                    FROM film_genre AS fg JOIN genre AS g ON g.id = fg.genre_id
+                    WHERE fg.film_id = f.id),
+                (SELECT ARRAY_AGG(g.name ORDER BY g.id)
+                    FROM film_genre AS fg JOIN genre AS g ON g.id = fg.genre_id
+                    WHERE fg.film_id = f.id),
+                (SELECT COUNT(*) FROM "like" AS l WHERE l.film_id = f.id),
+                f.version
+            FROM film AS f
+            LEFT JOIN mpa AS m ON m.id = f.mpa_id
+            """;
+    private static final String CARD_MERGE = """
+            MERGE INTO film_card (film_id, name, description, release_date, duration, mpa_id, mpa_name,
+                genre_ids, genre_names, like_count, version)
+            KEY (film_id)
+            """;
+
+    private static final Map<String, String> FIELD_COLUMNS = Map.of(
+            "name", "name",
+            "description", "description",
+            "releaseDate", "release_date",
+            "duration", "duration",
+            "mpa", "mpa_id, mpa_name",
+            "genres", "genre_ids, genre_names",
+            "likeCount", "like_count",
+            "version", "version");
+
+    private static final SqlStatement FIND_ALL = SqlStatement.defineTemplate("filmCard.findAll",
+            "SELECT %s FROM film_card ORDER BY film_id;", List.of("*"));
+    private static final SqlStatement FIND_BY_ID = SqlStatement.defineTemplate("filmCard.findById",
+            "SELECT %s FROM film_card WHERE film_id = ?;", List.of("*"), 1);
+    private static final SqlStatement FIND_BY_IDS = SqlStatement.defineTemplate("filmCard.findByIds",
+            "SELECT %s FROM film_card WHERE film_id IN (%s);", List.of("*", "?"), 1);
+    private static final SqlStatement FIND_TOP_LIKED = SqlStatement.defineTemplate("filmCard.findTopLiked", """
+            SELECT %s FROM film_card
+            ORDER BY like_count DESC, film_id
+            LIMIT ?;
+            """, List.of("*"), 10);
+    private static final SqlStatement ALL_LIKES = SqlStatement.define("filmCard.allLikes",
+            "SELECT film_id, user_id FROM \"like\";");
+    private static final SqlStatement LIKES_BY_FILM_ID = SqlStatement.define("filmCard.likesByFilmId",
+            "SELECT film_id, user_id FROM \"like\" WHERE film_id = ?;", 1);
+    private static final SqlStatement LIKES_BY_FILM_IDS = SqlStatement.defineTemplate("filmCard.likesByFilmIds",
+            "SELECT film_id, user_id FROM \"like\" WHERE film_id IN (%s);", List.of("?"), 1);
+    private static final SqlStatement REFRESH = SqlStatement.define("filmCard.refresh",
+            CARD_MERGE + CARD_SOURCE + "WHERE f.id = ?;", 1);
+    private static final SqlStatement REFRESH_LIKE_COUNT = SqlStatement.define("filmCard.refreshLikeCount", """
+            UPDATE film_card
+            SET like_count = (SELECT COUNT(*) FROM "like" WHERE film_id = ?)
+            WHERE film_id = ?;
+            """, 1, 1);
+    private static final SqlStatement REFRESH_ALL_LIKE_COUNTS = SqlStatement.define("filmCard.refreshAllLikeCounts",
+            """
+            UPDATE film_card AS c
+            SET like_count = (SELECT COUNT(*) FROM "like" AS l WHERE l.film_id = c.film_id);
+            """);
+    private static final SqlStatement REMOVE = SqlStatement.define("filmCard.remove",
+            "DELETE FROM film_card WHERE film_id = ?;", 1);
+    private static final SqlStatement CLEAR = SqlStatement.define("filmCard.clear", "DELETE FROM film_card;");
+    private static final SqlStatement REBUILD = SqlStatement.define("filmCard.rebuild",
+            CARD_MERGE + CARD_SOURCE + ";");
+
+    private final SqlRunner sql;
+    private final RowMapper<Film> mapper = new FilmCardRowMapper(Projection.ALL);
+
+    @Override
+    public List<Film> findAll() {
+        return findAll(Projection.ALL);
+    }
+
+    @Override
+    public List<Film> findAll(Projection projection) {
+        List<Film> films = sql.query(FIND_ALL.render(columns(projection)), mapperFor(projection));
+        if (projection.includes("likes")) {
+            attachLikes(films, ALL_LIKES);
+        }
+        return films;
+    }
+
+    @Override
+    public Film findById(Integer filmId) {
+        return findById(filmId, Projection.ALL);
+    }
+
+    @Override
+    public Film findById(Integer filmId, Projection projection) {
+        List<Film> result = sql.query(FIND_BY_ID.render(columns(projection)), mapperFor(projection), filmId);
+        if (result.isEmpty()) {
+            LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(filmId));
+        }
+        if (projection.includes("likes")) {
+            attachLikes(result, LIKES_BY_FILM_ID, filmId);
+        }
+        return result.getFirst();
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> filmIds) {
+        return findByIds(filmIds, Projection.ALL);
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> filmIds, Projection projection) {
+        RowMapper<Film> rowMapper = mapperFor(projection);
+        List<Film> films = new ArrayList<>();
+        for (List<Integer> chunk : InClause.chunks(filmIds)) {
+            String placeholders = InClause.placeholders(chunk.size());
+            Object[] args = chunk.toArray();
+            List<Film> found = sql.query(FIND_BY_IDS.render(columns(projection), placeholders), rowMapper, args);
+            if (projection.includes("likes")) {
+                attachLikes(found, LIKES_BY_FILM_IDS.render(placeholders), args);
+            }
+            films.addAll(found);
+        }
+        return InClause.inRequestOrder(filmIds, films, Film::getId);
+    }
+
+    @Override
+    public List<Film> findTopLiked(int size) {
+        return findTopLiked(size, Projection.ALL);
+    }
+
+    @Override
+    public List<Film> findTopLiked(int size, Projection projection) {
+        List<Film> films = sql.query(FIND_TOP_LIKED.render(columns(projection)), mapperFor(projection), size);
+        if (!films.isEmpty() && projection.includes("likes")) {
+            attachLikes(films, LIKES_BY_FILM_IDS.render(InClause.placeholders(films.size())),
+                    films.stream().map(Film::getId).toArray());
+        }
+        return films;
+    }
+
+    public void refresh(Integer filmId) {
+        sql.update(REFRESH, filmId);
+    }
+
+    public void refreshLikeCount(Integer filmId) {
+        sql.update(REFRESH_LIKE_COUNT, filmId, filmId);
+    }
+
+    public void refreshAllLikeCounts() {
+        sql.update(REFRESH_ALL_LIKE_COUNTS);
+    }
+
+    public void remove(Integer filmId) {
+        sql.update(REMOVE, filmId);
+    }
+
+    /**
+     * Clears and refills the table in one transaction, so readers never see it empty half way through.
+     */
+    @Transactional
+    public int rebuild() {
+        sql.update(CLEAR);
+        return sql.update(REBUILD);
+    }
+
+    private String columns(Projection projection) {
+        if (projection.isAll()) {
+            return "*";
+        }
+        StringBuilder columns = new StringBuilder("film_id");
+        FIELD_COLUMNS.forEach((field, column) -> {
+            if (projection.includes(field)) {
+                columns.append(", ").append(column);
+            }
+        });
+        return columns.toString();
+    }
+
+    private RowMapper<Film> mapperFor(Projection projection) {
+        return projection.isAll() ? mapper : new FilmCardRowMapper(projection);
+    }
+
+    private void attachLikes(List<Film> films, SqlStatement likesQuery, Object... args) {
+        Map<Integer, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        sql.query(likesQuery, (ResultSet rs) -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getInt("user_id"));
+            }
+        }, args);
+    }
+
+    @RequiredArgsConstructor
+    private static class FilmCardRowMapper implements RowMapper<Film> {
+        private final Projection projection;
+
+        @Override
+        public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Film.FilmBuilder film = Film.builder().id(rs.getInt("film_id"));
+            if (projection.includes("name")) {
+                film.name(rs.getString("name"));
+            }
+            if (projection.includes("description")) {
+                film.description(rs.getString("description"));
+            }
+            if (projection.includes("releaseDate")) {
+                Date releaseDate = rs.getDate("release_date");
+                film.releaseDate(releaseDate == null ? null : releaseDate.toLocalDate());
+            }
+            if (projection.includes("duration")) {
+                film.duration(rs.getInt("duration"));
+            }
+            if (projection.includes("mpa")) {
+                int mpaId = rs.getInt("mpa_id");
+                film.mpa(rs.wasNull() ? null : Mpa.builder().id(mpaId).name(rs.getString("mpa_name")).build());
+            }
+            if (projection.includes("genres")) {
+                film.genres(mapGenres(rs.getArray("genre_ids"), rs.getArray("genre_names")));
+            }
+            if (projection.includes("likeCount")) {
+                film.likeCount(rs.getInt("like_count"));
+            }
+            if (projection.includes("version")) {
+                film.version(rs.getInt("version"));
+            }
+            return film.build();
+        }
+
+        private List<Genre> mapGenres(Array ids, Array names) throws SQLException {
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            Object[] genreIds = (Object[]) ids.getArray();
+            Object[] genreNames = (Object[]) names.getArray();
+            List<Genre> genres = new ArrayList<>(genreIds.length);
+            for (int i = 0; i < genreIds.length; i++) {
+                genres.add(Genre.builder()
+                        .id(((Number) genreIds[i]).intValue())
+                        .name((String) genreNames[i])
+                        .build());
+            }
+            return genres;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.feed;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.FeedEventType;
+import ru.yandex.practicum.filmorate.model.FeedOperation;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
+
+@Component
+@RequiredArgsConstructor
+public class FeedDbStorage implements FeedStorage {
+    private static final SqlStatement INSERT = SqlStatement.define("feed.insert", """
+            INSERT INTO feed_event (user_id, event_type, operation, entity_id, created_at)
+            VALUES (?, ?, ?, ?, ?);
+            """, 1, "LIKE", "ADD", 1, Timestamp.valueOf("2024-01-01 00:00:00"));
+    private static final SqlStatement INSERT_FOR_LIKERS = SqlStatement.define("feed.insertForLikers", """
+            INSERT INTO feed_event (user_id, event_type, operation, entity_id, created_at)
+            SELECT user_id, ?, ?, film_id, ? FROM "like"
+            WHERE film_id = ?
+            ORDER BY user_id;
+            """, "FILM", "UPDATE", Timestamp.valueOf("2024-01-01 00:00:00"), 1);
+    private static final SqlStatement FIND_BY_USER_ID = SqlStatement.define("feed.findByUserId", """
+            SELECT * FROM feed_event
+            WHERE user_id = ? AND id < ?
+            ORDER BY id DESC
+            LIMIT ?;
+            """, 1, Long.MAX_VALUE, 20);
+
+    private final SqlRunner sql;
+    private final RowMapper<FeedEvent> mapper = new FeedEventRowMapper();
+
+    /**
+     * Events without a user are film edits: they are copied to every user who likes the film, so each feed is
+     * read from the user's own rows. Runs of either kind are written as one batch, keeping the order of ids.
+     */
+    @Override
+    public void saveAll(List<FeedEvent> events) {
+        int start = 0;
+        for (int i = 1; i <= events.size(); i++) {
+            if (i == events.size() || isFilmEdit(events.get(i)) != isFilmEdit(events.get(start))) {
+                List<FeedEvent> run = events.subList(start, i);
+                if (isFilmEdit(run.getFirst())) {
+                    sql.batchUpdate(INSERT_FOR_LIKERS, run, (ps, event) -> {
+                        ps.setString(1, event.getEventType().name());
+                        ps.setString(2, event.getOperation().name());
+                        ps.setTimestamp(3, Timestamp.from(event.getTimestamp()));
+                        ps.setInt(4, event.getEntityId());
+                    });
+                } else {
+                    sql.batchUpdate(INSERT, run, (ps, event) -> {
+                        ps.setInt(1, event.getUserId());
+                        ps.setString(2, event.getEventType().name());
+                        ps.setString(3, event.getOperation().name());
+                        ps.setInt(4, event.getEntityId());
+                        ps.setTimestamp(5, Timestamp.from(event.getTimestamp()));
+                    });
+                }
+                start = i;
+            }
+        }
+    }
+
+    @Override
+    public List<FeedEvent> findByUserId(Integer userId, long beforeId, int limit) {
+        return sql.query(FIND_BY_USER_ID, mapper, userId, beforeId, limit);
+    }
+
+    private static boolean isFilmEdit(FeedEvent event) {
+        return event.getUserId() == null;
+    }
+
+    private static class FeedEventRowMapper implements RowMapper<FeedEvent> {
+        @Override
+        public FeedEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+            int userId = rs.getInt("user_id");
+            return FeedEvent.builder()
+                    .id(rs.getLong("id"))
+                    .userId(rs.wasNull() ? null : userId)
+                    .eventType(FeedEventType.valueOf(rs.getString("event_type")))
+                    .operation(FeedOperation.valueOf(rs.getString("operation")))
+                    .entityId(rs.getInt("entity_id"))
+                    .timestamp(rs.getTimestamp("created_at").toInstant())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.storage.feed;
+
+import java.util.List;
+
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+
+public interface FeedStorage {
+    void saveAll(List<FeedEvent> events);
+
+    List<FeedEvent> findByUserId(Integer userId, long beforeId, int limit);
+}
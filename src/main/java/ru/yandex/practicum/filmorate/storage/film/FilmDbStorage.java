@@ -9,141 +9,233 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
 import ru.yandex.practicum.filmorate.exception.ExceptionType;
 import ru.yandex.practicum.filmorate.exception.LoggedException;
 import ru.yandex.practicum.filmorate.model.*;
-import ru.yandex.practicum.filmorate.service.*;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.storage.InClause;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
 
 @Primary
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class FilmDbStorage implements FilmStorage {
+    private static final String FILM_SELECT = """
+            SELECT f.*, m.name AS mpa_name
+            FROM film AS f
+            LEFT JOIN mpa AS m ON m.id = f.mpa_id
+            """;
+    private static final SqlStatement FIND_ALL = SqlStatement.define("film.findAll", FILM_SELECT + ";");
+    private static final SqlStatement FIND_BY_ID = SqlStatement.define("film.findById",
+            FILM_SELECT + "WHERE f.id = ?;", 1);
+    private static final SqlStatement EXISTS = SqlStatement.define("film.exists",
+            "SELECT EXISTS (SELECT 1 FROM film WHERE id = ?);", 1);
+    private static final SqlStatement FIND_BY_IDS = SqlStatement.defineTemplate("film.findByIds",
+            FILM_SELECT + "WHERE f.id IN (%s);", List.of("?"), 1);
+    private static final SqlStatement FIND_TOP_LIKED = SqlStatement.define("film.findTopLiked", FILM_SELECT + """
+            ORDER BY (SELECT COUNT(*) FROM "like" AS l WHERE l.film_id = f.id) DESC, f.id
+            LIMIT ?;
+            """, 10);
+    private static final SqlStatement GENRES_BY_FILM_IDS = SqlStatement.defineTemplate("film.genresByFilmIds", """
+            SELECT fg.film_id, g.id, g.name
+            FROM film_genre AS fg
+            JOIN genre AS g ON g.id = fg.genre_id
+            WHERE fg.film_id IN (%s)
+            ORDER BY fg.film_id, g.id;
+            """, List.of("?"), 1);
+    private static final SqlStatement LIKES_BY_FILM_IDS = SqlStatement.defineTemplate("film.likesByFilmIds",
+            "SELECT film_id, user_id FROM \"like\" WHERE film_id IN (%s);", List.of("?"), 1);
+    private static final SqlStatement ALL_GENRES = SqlStatement.define("film.allGenres", """
+            SELECT fg.film_id, g.id, g.name
+            FROM film_genre AS fg
+            JOIN genre AS g ON g.id = fg.genre_id
+            ORDER BY fg.film_id, g.id;
+            """);
+    private static final SqlStatement ALL_LIKES = SqlStatement.define("film.allLikes",
+            "SELECT film_id, user_id FROM \"like\";");
+    private static final SqlStatement INSERT = SqlStatement.define("film.insert", """
+            INSERT INTO film (NAME, DESCRIPTION, RELEASE_DATE, DURATION, MPA_ID)
+            VALUES(?, ?, ?, ?, ?);
+            """, "Фильм", "Описание", Date.valueOf("2000-01-01"), 100, 1);
+    private static final SqlStatement UPDATE = SqlStatement.define("film.update", """
+            UPDATE film
+            SET name = ?,
+                description = ?,
+                release_date = ?,
+                duration = ?,
+                mpa_id = ?,
+                version = version + 1
+            WHERE film.id = ?
+              AND version = COALESCE(?, version);
+            """, "Фильм", "Описание", Date.valueOf("2000-01-01"), 100, 1, 1, 0);
+    private static final SqlStatement FIND_VERSION = SqlStatement.define("film.findVersion",
+            "SELECT version FROM film WHERE id = ?;", 1);
+    private static final SqlStatement DELETE = SqlStatement.define("film.delete",
+            "DELETE FROM film WHERE id = ?;", 1);
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
-    private final JdbcTemplate jdbcTemplate;
-    private final FilmRowMapper mapper;
-    private final MpaService mpaService;
+    private final SqlRunner sql;
     private final GenreService genreService;
-    private final LikeService likeService;
-
-    private Film addAllAttributesToFilm(Film film) {
-        Integer filmId = film.getId();
-        Integer mpaId = film.getMpa().getId();
-
-        Mpa mpa = mpaService.findById(mpaId);
-        List<Genre> genre = genreService.findGenreByFilmId(filmId);
-        List<Integer> likes = likeService.getLikesByFilmId(filmId);
-        film.setMpa(mpa);
-        film.setGenres(genre);
-        film.getLikes().addAll(likes);
-        return film;
-    }
+    private final ApplicationEventPublisher eventPublisher;
+    private final RowMapper<Film> mapper = new FilmRowMapper();
 
     @Override
     public List<Film> findAll() {
-        String query = "SELECT * FROM film;";
-        List<Film> films = jdbcTemplate.query(query, mapper);
-        films.forEach(this::addAllAttributesToFilm);
+        List<Film> films = sql.query(FIND_ALL, mapper);
+        Map<Integer, Film> filmsById = byId(films);
+        sql.query(ALL_GENRES, genreHandler(filmsById));
+        sql.query(ALL_LIKES, likeHandler(filmsById));
         return films;
     }
 
     @Override
     public Film findById(Integer filmId) {
-        String query = "SELECT * FROM film WHERE id = ?;";
-        List<Film> result = jdbcTemplate.query(query, mapper, filmId);
+        List<Film> result = sql.query(FIND_BY_ID, mapper, filmId);
         if (result.isEmpty()) {
             LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(filmId));
         }
-        Film film = result.getFirst();
-        addAllAttributesToFilm(film);
-        return film;
+        attachRelations(result);
+        return result.getFirst();
+    }
+
+    @Override
+    public boolean exists(Integer filmId) {
+        return Boolean.TRUE.equals(sql.queryForObject(EXISTS, Boolean.class, filmId));
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> filmIds) {
+        List<Film> films = new ArrayList<>();
+        for (List<Integer> chunk : InClause.chunks(filmIds)) {
+            films.addAll(sql.query(FIND_BY_IDS.render(InClause.placeholders(chunk.size())), mapper, chunk.toArray()));
+        }
+        attachRelations(films);
+        return InClause.inRequestOrder(filmIds, films, Film::getId);
     }
 
     @Override
+    @Transactional
     public Film create(Film film) {
-        String query = """
-                INSERT INTO film (NAME, DESCRIPTION, RELEASE_DATE, DURATION, MPA_ID)
-                VALUES(?, ?, ?, ?, ?);
-                """;
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-
-        jdbcTemplate.update(
-                con -> {
-                    PreparedStatement ps = con.prepareStatement(query, new String[]{"id"});
-                    ps.setString(1, film.getName());
-                    ps.setString(2, film.getDescription());
-                    ps.setDate(3, Date.valueOf(film.getReleaseDate()));
-                    ps.setInt(4, film.getDuration());
-                    ps.setInt(5, film.getMpa().getId());
-                    return ps;
-                }, keyHolder);
-
-        if (Optional.ofNullable(keyHolder.getKey()).isEmpty()) {
+        Number key = sql.insert(INSERT, ps -> {
+            ps.setString(1, film.getName());
+            ps.setString(2, film.getDescription());
+            ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+            ps.setInt(4, film.getDuration());
+            ps.setInt(5, film.getMpa().getId());
+        });
+
+        if (key == null) {
             LoggedException.throwNew(ExceptionType.UNEXPECTED_ERROR, getClass(), List.of());
         }
 
-        film.setId(keyHolder.getKey().intValue());
+        film.setId(key.intValue());
+        film.setVersion(0);
         log.info("Добавлен новый фильм: {}", film);
 
         genreService.linkGenresToFilm(film.getId(), extractGenreIdSet(film), false);
+        eventPublisher.publishEvent(new FilmChangedEvent(film.getId()));
         return film;
     }
 
+    /**
+     * Writes the film only if its stored version still equals {@link Film#getVersion()} (any version when it is
+     * {@code null}) and relinks genres in the same transaction, so a conflicting update leaves no partial changes.
+     */
     @Override
+    @Transactional
     public Film update(Film film) {
-        String queryFilmUpdate = """
-                    UPDATE film
-                    SET name = ?,
-                        description = ?,
-                        release_date = ?,
-                        duration = ?,
-                        mpa_id = ?
-                    WHERE film.id = ?;
-                """;
-        int updatedFilmRows = jdbcTemplate.update(
-                queryFilmUpdate,
+        int updatedFilmRows = sql.update(
+                UPDATE,
                 film.getName(),
                 film.getDescription(),
                 film.getReleaseDate(),
                 film.getDuration(),
                 film.getMpa().getId(),
-                film.getId()
+                film.getId(),
+                film.getVersion()
         );
         if (updatedFilmRows == 0) {
-            LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(film.getId()));
+            List<Integer> stored = sql.queryForList(FIND_VERSION, Integer.class, film.getId());
+            if (stored.isEmpty()) {
+                LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(film.getId()));
+            }
+            LoggedException.throwNew(ExceptionType.FILM_VERSION_CONFLICT, getClass(),
+                    List.of(film.getId(), film.getVersion()));
         }
+        film.setVersion(film.getVersion() != null ? film.getVersion() + 1
+                : sql.queryForObject(FIND_VERSION, Integer.class, film.getId()));
         log.info("Обновлён фильм id {}. Новое значение: {}", film.getId(), film);
         genreService.linkGenresToFilm(film.getId(), extractGenreIdSet(film), true);
+        eventPublisher.publishEvent(new FilmChangedEvent(film.getId()));
         return film;
     }
 
     @Override
     public Integer delete(Integer filmId) {
-        String query = "DELETE FROM film WHERE id = ?";
-        int deletedRows = jdbcTemplate.update(query, filmId);
+        int deletedRows = sql.update(DELETE, filmId);
         if (deletedRows == 0) {
             LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(filmId));
         }
         log.info("Удалён фильм id {}", filmId);
+        eventPublisher.publishEvent(new FilmDeletedEvent(filmId));
         return filmId;
     }
 
     @Override
     public List<Film> findTopLiked(int size) {
-        String query = """
-                    SELECT f.*
-                    FROM film AS f
-                    LEFT JOIN "like" AS l ON f.id = l.film_id
-                    GROUP BY f.id
-                    ORDER BY COUNT(l.id) DESC
-                    LIMIT ?;
-                """;
-        return jdbcTemplate.query(query, mapper, size).stream().map(this::addAllAttributesToFilm).toList();
+        List<Film> films = sql.query(FIND_TOP_LIKED, mapper, size);
+        attachRelations(films);
+        return films;
+    }
+
+    /**
+     * Loads genres and likes for already mapped films with one query per relation and chunk of ids,
+     * after the film result set is closed. {@link #findAll()} reads both relations whole instead: a scan is
+     * cheaper than probing the index with every film id.
+     */
+    private void attachRelations(List<Film> films) {
+        Map<Integer, Film> filmsById = byId(films);
+        for (List<Integer> chunk : InClause.chunks(List.copyOf(filmsById.keySet()))) {
+            String placeholders = InClause.placeholders(chunk.size());
+            Object[] args = chunk.toArray();
+            sql.query(GENRES_BY_FILM_IDS.render(placeholders), genreHandler(filmsById), args);
+            sql.query(LIKES_BY_FILM_IDS.render(placeholders), likeHandler(filmsById), args);
+        }
+    }
+
+    private static Map<Integer, Film> byId(List<Film> films) {
+        Map<Integer, Film> filmsById = new HashMap<>();
+        films.forEach(film -> filmsById.put(film.getId(), film));
+        return filmsById;
+    }
+
+    private static RowCallbackHandler genreHandler(Map<Integer, Film> filmsById) {
+        return rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getGenres().add(Genre.builder().id(rs.getInt("id")).name(rs.getString("name")).build());
+            }
+        };
+    }
+
+    private static RowCallbackHandler likeHandler(Map<Integer, Film> filmsById) {
+        return rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getInt("user_id"));
+            }
+        };
     }
 
     private Set<Integer> extractGenreIdSet(Film film) {
@@ -153,12 +245,7 @@ public class FilmDbStorage implements FilmStorage {
                 .collect(Collectors.toSet());
     }
 
-    @Component
-    @RequiredArgsConstructor
     private static class FilmRowMapper implements RowMapper<Film> {
-        private final MpaService mpaService;
-        private final GenreService genreService;
-
         @Override
         public Film mapRow(ResultSet resultSet, int rowNum) throws SQLException {
             return Film.builder()
@@ -167,8 +254,9 @@ public class FilmDbStorage implements FilmStorage {
                     .description(resultSet.getString("DESCRIPTION"))
                     .releaseDate(resultSet.getDate("RELEASE_DATE").toLocalDate())
                     .duration(resultSet.getInt("DURATION"))
-                    .mpa(mpaService.findById(resultSet.getInt("MPA_ID")))
-                    .genres(genreService.findGenreByFilmId(resultSet.getInt("ID")))
+                    .mpa(Mpa.builder().id(resultSet.getInt("MPA_ID")).name(resultSet.getString("MPA_NAME")).build())
+                    .genres(new ArrayList<>())
+                    .version(resultSet.getInt("VERSION"))
                     .build();
         }
     }
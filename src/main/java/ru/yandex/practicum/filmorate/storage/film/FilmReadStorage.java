@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.List;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.Projection;
+
+public interface FilmReadStorage {
+    List<Film> findAll();
+
+    Film findById(Integer filmId);
+
+    List<Film> findByIds(List<Integer> filmIds);
+
+    List<Film> findTopLiked(int size);
+
+    /**
+     * Projected reads. Storages that keep films assembled in memory have nothing to skip and return full films;
+     * unrequested attributes are then dropped at serialization.
+     */
+    default List<Film> findAll(Projection projection) {
+        return findAll();
+    }
+
+    default Film findById(Integer filmId, Projection projection) {
+        return findById(filmId);
+    }
+
+    default List<Film> findByIds(List<Integer> filmIds, Projection projection) {
+        return findByIds(filmIds);
+    }
+
+    default List<Film> findTopLiked(int size, Projection projection) {
+        return findTopLiked(size);
+    }
+}
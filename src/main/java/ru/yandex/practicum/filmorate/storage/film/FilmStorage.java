@@ -9,6 +9,10 @@ public interface FilmStorage {
 
     Film findById(Integer filmId);
 
+    boolean exists(Integer filmId);
+
+    List<Film> findByIds(List<Integer> filmIds);
+
     Film create(Film film);
 
     Film update(Film filmUpdate);
@@ -1,60 +1,201 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.AbstractStorage;
-import ru.yandex.practicum.filmorate.util.Validators;
 
 @Component
-@RequiredArgsConstructor
 public class InMemoryFilmStorage extends AbstractStorage<Film> implements FilmStorage {
-    private final Validators validators;
+    /**
+     * Creation time of a like whose time was never recorded, e.g. one restored from an older log.
+     */
+    public static final Instant UNKNOWN_LIKE_TIME = Instant.EPOCH;
+
+    /**
+     * Users who liked each stored film, mapped to the creation time of their like. Stored films keep an empty
+     * like set; {@link #copyOf} fills it in from here.
+     */
+    private final Map<Integer, Map<Integer, Instant>> likeTimes = new ConcurrentHashMap<>();
 
     public Map<Integer, Film> getStorage() {
-        return Map.copyOf(mapEntityStorage);
+        Map<Integer, Film> storage = new HashMap<>();
+        mapEntityStorage.keySet().forEach(filmId -> Optional.ofNullable(snapshot(filmId))
+                .ifPresent(film -> storage.put(filmId, film)));
+        return storage;
     }
 
     @Override
     public List<Film> findAll() {
-        return mapEntityStorage.values().stream().toList();
+        return snapshotAll();
     }
 
     @Override
     public Film findById(Integer filmId) {
-        validators.validateFilmExists(filmId, getClass());
-        return mapEntityStorage.get(filmId);
+        Film film = snapshot(filmId);
+        if (film == null) {
+            LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(filmId));
+        }
+        return film;
     }
 
     @Override
     public Film create(Film film) {
         film.setId(getNextId());
-        mapEntityStorage.put(film.getId(), film);
-        log.info("Добавлен новый фильм: {}", film);
-        return film;
+        film.setVersion(0);
+        likeTimes.put(film.getId(), new ConcurrentHashMap<>());
+        mapEntityStorage.put(film.getId(), detached(film));
+        Film created = copyOf(film);
+        log.info("Добавлен новый фильм: {}", created);
+        return created;
     }
 
     @Override
     public Film update(Film filmUpdate) {
-        getStorage().put(filmUpdate.getId(), filmUpdate);
-        log.info("Обновлён фильм id {}. Новое значение: {}", filmUpdate.getId(), filmUpdate);
-        return filmUpdate;
+        Film updated = withEntityLock(filmUpdate.getId(), () -> {
+            Film original = stored(filmUpdate.getId());
+            filmUpdate.setVersion(nextVersion(original.getVersion(), filmUpdate.getVersion(),
+                    ExceptionType.FILM_VERSION_CONFLICT, filmUpdate.getId()));
+            Film replacement = detached(filmUpdate);
+            mapEntityStorage.put(filmUpdate.getId(), replacement);
+            return copyOf(replacement);
+        });
+        log.info("Обновлён фильм id {}. Новое значение: {}", updated.getId(), updated);
+        return updated;
     }
 
     @Override
     public Integer delete(Integer filmId) {
-        mapEntityStorage.remove(filmId);
+        evict(filmId);
         log.info("Удалён фильм id {}", filmId);
         return filmId;
     }
 
+    /**
+     * Ranks by like counts read once per film, so concurrent likes cannot reorder the sort, and copies only
+     * the films returned.
+     */
     @Override
     public List<Film> findTopLiked(int count) {
-        return mapEntityStorage.values().stream()
-                .sorted(Comparator.<Film, Integer>comparing(film -> film.getLikes().size()).reversed())
+        return likeTimes.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().size()))
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .map(entry -> snapshot(entry.getKey()))
+                .filter(Objects::nonNull)
                 .limit(count)
                 .toList();
     }
+
+    /**
+     * Puts a film read from a log or snapshot. Likes it carries are added to the ones already stored, which keeps
+     * them across a replayed update.
+     */
+    @Override
+    public void restore(Integer filmId, Film film) {
+        Map<Integer, Instant> likes = likeTimes.computeIfAbsent(filmId, id -> new ConcurrentHashMap<>());
+        film.getLikes().forEach(userId -> likes.putIfAbsent(userId, UNKNOWN_LIKE_TIME));
+        super.restore(filmId, detached(film));
+    }
+
+    /**
+     * Puts a film with exactly the given likes, replacing any stored under its id.
+     */
+    public void restore(Film film, Map<Integer, Instant> likes) {
+        likeTimes.put(film.getId(), new ConcurrentHashMap<>(likes));
+        super.restore(film.getId(), detached(film));
+    }
+
+    @Override
+    public Film evict(Integer filmId) {
+        Film evicted = super.evict(filmId);
+        likeTimes.remove(filmId);
+        return evicted;
+    }
+
+    public boolean addLike(Integer filmId, Integer userId) {
+        return addLike(filmId, userId, Instant.now());
+    }
+
+    public boolean addLike(Integer filmId, Integer userId, Instant likedAt) {
+        return likesOf(filmId).putIfAbsent(userId, likedAt) == null;
+    }
+
+    /**
+     * @return creation time of the removed like, or empty if the user had not liked the film
+     */
+    public Optional<Instant> removeLike(Integer filmId, Integer userId) {
+        return Optional.ofNullable(likesOf(filmId).remove(userId));
+    }
+
+    /**
+     * @return users who liked the film, mapped to the creation time of their like
+     */
+    public Map<Integer, Instant> getLikeTimes(Integer filmId) {
+        return new HashMap<>(likesOf(filmId));
+    }
+
+    public List<Like> findLikesSince(Instant since) {
+        List<Like> likes = new ArrayList<>();
+        likeTimes.forEach((filmId, times) -> times.forEach((userId, likedAt) -> {
+            if (!likedAt.isBefore(since)) {
+                likes.add(Like.builder().filmId(filmId).userId(userId).createdAt(likedAt).build());
+            }
+        }));
+        return likes;
+    }
+
+    public boolean hasLike(Integer filmId, Integer userId) {
+        Map<Integer, Instant> likes = filmId == null ? null : likeTimes.get(filmId);
+        return likes != null && likes.containsKey(userId);
+    }
+
+    public List<Integer> getLikes(Integer filmId) {
+        return List.copyOf(likesOf(filmId).keySet());
+    }
+
+    public List<Integer> getLikes(Integer filmId, Integer afterUserId, int limit) {
+        return likesOf(filmId).keySet().stream()
+                .filter(userId -> userId > afterUserId)
+                .sorted()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    protected Film copyOf(Film film) {
+        Film copy = detached(film);
+        copy.getLikes().addAll(likeTimes.getOrDefault(film.getId(), Map.of()).keySet());
+        return copy;
+    }
+
+    /**
+     * Copy without likes, safe to store: later changes to {@code film} or its genre list do not reach it.
+     */
+    private static Film detached(Film film) {
+        return film.toBuilder()
+                .genres(film.getGenres() == null ? null : new ArrayList<>(film.getGenres()))
+                .build();
+    }
+
+    private Map<Integer, Instant> likesOf(Integer filmId) {
+        Map<Integer, Instant> likes = likeTimes.get(filmId);
+        if (likes == null) {
+            LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(filmId));
+        }
+        return likes;
+    }
+
+    private Film stored(Integer filmId) {
+        Film film = mapEntityStorage.get(filmId);
+        if (film == null) {
+            LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, getClass(), List.of(filmId));
+        }
+        return film;
+    }
 }
@@ -5,61 +5,94 @@ import java.sql.SQLException;
 import java.util.*;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.GenresLinkedEvent;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
 
+/**
+ * Genres come from data.sql and have no write path, so they are read from the database once and then served
+ * from memory; only the links between films and genres stay in the database.
+ */
 @Component
 @RequiredArgsConstructor
 public class GenreDbStorage implements GenreStorage {
-    private final JdbcTemplate jdbcTemplate;
+    private static final SqlStatement FIND_ALL = SqlStatement.define("genre.findAll",
+            "SELECT * FROM genre ORDER BY id;");
+    private static final SqlStatement FIND_BY_FILM_ID = SqlStatement.define("genre.findByFilmId", """
+            SELECT g.*
+            FROM genre g
+            JOIN film_genre fg ON g.id = fg.genre_id
+            WHERE fg.film_id = ?
+            ORDER BY fg.genre_id;
+            """, 1);
+    private static final SqlStatement LINK = SqlStatement.define("genre.linkToFilm",
+            "INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?);", 2, 1);
+    private static final SqlStatement UNLINK_ALL = SqlStatement.define("genre.unlinkAllFromFilm",
+            "DELETE FROM film_genre WHERE film_id = ?;", 1);
+
+    private final SqlRunner sql;
+    private final ApplicationEventPublisher eventPublisher;
     private final RowMapper<Genre> mapper = new GenreRowMapper();
+    private volatile Map<Integer, Genre> genres;
 
     @Override
     public Set<Genre> findAll() {
-        String query = """
-                SELECT * FROM genre;
-                """;
-        return new HashSet<>(jdbcTemplate.query(query, mapper));
+        Set<Genre> all = new HashSet<>();
+        genres().values().forEach(genre -> all.add(copyOf(genre)));
+        return all;
     }
 
     @Override
     public Genre findById(Integer genreId) {
-        String query = """
-                SELECT * FROM genre
-                WHERE id = ?;
-                """;
-        return jdbcTemplate.queryForObject(query, mapper, genreId);
+        Genre genre = genres().get(genreId);
+        if (genre == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return copyOf(genre);
+    }
+
+    public boolean exists(Integer genreId) {
+        return genreId != null && genres().containsKey(genreId);
     }
 
     @Override
     public List<Genre> findGenreByFilmId(Integer filmId) {
-        String query = """
-                    SELECT g.*
-                    FROM genre g
-                    JOIN film_genre fg ON g.id = fg.genre_id
-                    WHERE fg.film_id = ?
-                    ORDER BY fg.genre_id;
-                """;
-        return jdbcTemplate.query(query, mapper, filmId);
+        return sql.query(FIND_BY_FILM_ID, mapper, filmId);
     }
 
-
     @Override
     public void linkGenresToFilm(Integer filmId, Set<Integer> genreIdSet, boolean clearExisting) {
-        StringBuilder insertQuery = new StringBuilder();
-
-        for (Integer genreId : genreIdSet) {
-            insertQuery.append(String.format("INSERT INTO film_genre (film_id, genre_id) VALUES (%d, %d);", filmId, genreId));
-            insertQuery.append("\n");
+        if (clearExisting) {
+            sql.update(UNLINK_ALL, filmId);
         }
+        sql.batchUpdate(LINK, genreIdSet, (ps, genreId) -> {
+            ps.setInt(1, filmId);
+            ps.setInt(2, genreId);
+        });
+        eventPublisher.publishEvent(new GenresLinkedEvent(filmId, genreIdSet));
+    }
 
-        if (clearExisting) {
-            String deleteGenresOfFilmQuery = "DELETE FROM film_genre WHERE film_id = ?;";
-            jdbcTemplate.update(deleteGenresOfFilmQuery, filmId);
+    private Map<Integer, Genre> genres() {
+        Map<Integer, Genre> loaded = genres;
+        if (loaded == null) {
+            Map<Integer, Genre> byId = new LinkedHashMap<>();
+            sql.query(FIND_ALL, mapper).forEach(genre -> byId.put(genre.getId(), genre));
+            loaded = Collections.unmodifiableMap(byId);
+            genres = loaded;
         }
-        jdbcTemplate.update(insertQuery.toString());
+        return loaded;
+    }
+
+    private static Genre copyOf(Genre genre) {
+        return Genre.builder()
+                .id(genre.getId())
+                .name(genre.getName())
+                .build();
     }
 
     private static class GenreRowMapper implements RowMapper<Genre> {
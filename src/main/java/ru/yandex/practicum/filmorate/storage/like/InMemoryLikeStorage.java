@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+@Component
+@RequiredArgsConstructor
+public class InMemoryLikeStorage implements LikeStorage {
+    private final InMemoryFilmStorage filmStorage;
+
+    @Override
+    public void addLike(Integer filmId, Integer userId) {
+        filmStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public void removeLike(Integer filmId, Integer userId) {
+        filmStorage.removeLike(filmId, userId);
+    }
+
+    @Override
+    public boolean exists(Integer filmId, Integer userId) {
+        return filmStorage.hasLike(filmId, userId);
+    }
+
+    @Override
+    public List<Integer> getLikesByFilmId(Integer filmId) {
+        return filmStorage.getLikes(filmId);
+    }
+
+    @Override
+    public List<Integer> getLikesByFilmId(Integer filmId, Integer afterUserId, int limit) {
+        return filmStorage.getLikes(filmId, afterUserId, limit);
+    }
+
+    @Override
+    public List<Like> findAll() {
+        return filmStorage.findLikesSince(Instant.MIN);
+    }
+
+    @Override
+    public List<Like> findCreatedSince(Instant since) {
+        return filmStorage.findLikesSince(since);
+    }
+}
@@ -1,41 +1,101 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
 
+@Primary
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor
 public class LikeDbStorage implements LikeStorage {
-    private final JdbcTemplate jdbcTemplate;
+    private static final SqlStatement INSERT = SqlStatement.define("like.insert", """
+            INSERT INTO "like" (film_id, user_id, created_at)
+            VALUES (?, ?, ?);
+            """, 2, 1, Timestamp.valueOf("2024-01-01 00:00:00"));
+    private static final SqlStatement DELETE = SqlStatement.define("like.delete", """
+            SELECT created_at FROM OLD TABLE (
+                DELETE FROM "like"
+                WHERE film_id = ?
+                AND user_id = ?
+            );
+            """, 1, 1);
+    private static final SqlStatement EXISTS = SqlStatement.define("like.exists", """
+            SELECT EXISTS (SELECT 1 FROM "like" WHERE film_id = ? AND user_id = ?);
+            """, 1, 1);
+    private static final SqlStatement FIND_BY_FILM_ID = SqlStatement.define("like.findByFilmId", """
+            SELECT user_id FROM "like"
+            WHERE film_id = ?;
+            """, 1);
+    private static final SqlStatement FIND_PAGE_BY_FILM_ID = SqlStatement.define("like.findPageByFilmId", """
+            SELECT user_id FROM "like"
+            WHERE film_id = ? AND user_id > ?
+            ORDER BY user_id
+            LIMIT ?;
+            """, 1, 0, 100);
+    private static final SqlStatement FIND_ALL = SqlStatement.define("like.findAll",
+            "SELECT film_id, user_id, created_at FROM \"like\";");
+    private static final SqlStatement FIND_CREATED_SINCE = SqlStatement.define("like.findCreatedSince", """
+            SELECT film_id, user_id, created_at FROM "like"
+            WHERE created_at >= ?;
+            """, Timestamp.valueOf("2024-01-01 00:00:00"));
+
+    private final SqlRunner sql;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RowMapper<Like> likeMapper = (rs, rowNum) -> Like.builder()
+            .filmId(rs.getInt("film_id"))
+            .userId(rs.getInt("user_id"))
+            .createdAt(rs.getTimestamp("created_at").toInstant())
+            .build();
 
     @Override
     public void addLike(Integer filmId, Integer userId) {
-        String query = """
-                INSERT INTO "like" (film_id, user_id)
-                VALUES (?, ?);
-                """;
-        jdbcTemplate.update(query, filmId, userId);
+        Instant likedAt = Instant.now();
+        sql.update(INSERT, filmId, userId, Timestamp.from(likedAt));
+        eventPublisher.publishEvent(new LikeChangedEvent(filmId, userId, true, likedAt));
     }
 
     @Override
     public void removeLike(Integer filmId, Integer userId) {
-        String query = """
-                DELETE FROM "like"
-                WHERE film_id = ?
-                AND user_id = ?;
-                """;
-        jdbcTemplate.update(query, filmId, userId);
+        List<Timestamp> removed = sql.queryForList(DELETE, Timestamp.class, filmId, userId);
+        if (!removed.isEmpty()) {
+            eventPublisher.publishEvent(new LikeChangedEvent(filmId, userId, false, removed.getFirst().toInstant()));
+        }
+    }
+
+    @Override
+    public boolean exists(Integer filmId, Integer userId) {
+        return Boolean.TRUE.equals(sql.queryForObject(EXISTS, Boolean.class, filmId, userId));
     }
 
     @Override
     public List<Integer> getLikesByFilmId(Integer filmId) {
-        String query = """
-                SELECT user_id FROM "like"
-                WHERE film_id = ?;
-                """;
-        return jdbcTemplate.queryForList(query, Integer.class, filmId);
+        return sql.queryForList(FIND_BY_FILM_ID, Integer.class, filmId);
+    }
+
+    @Override
+    public List<Integer> getLikesByFilmId(Integer filmId, Integer afterUserId, int limit) {
+        return sql.queryForList(FIND_PAGE_BY_FILM_ID, Integer.class, filmId, afterUserId, limit);
+    }
+
+    @Override
+    public List<Like> findAll() {
+        return sql.query(FIND_ALL, likeMapper);
+    }
+
+    @Override
+    public List<Like> findCreatedSince(Instant since) {
+        return sql.query(FIND_CREATED_SINCE, likeMapper, Timestamp.from(since));
     }
 }
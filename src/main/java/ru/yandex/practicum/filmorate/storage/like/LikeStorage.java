@@ -1,11 +1,22 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
+import java.time.Instant;
 import java.util.List;
 
+import ru.yandex.practicum.filmorate.model.Like;
+
 public interface LikeStorage {
     void addLike(Integer filmId, Integer userId);
 
     void removeLike(Integer filmId, Integer userId);
 
+    boolean exists(Integer filmId, Integer userId);
+
     List<Integer> getLikesByFilmId(Integer filmId);
+
+    List<Integer> getLikesByFilmId(Integer filmId, Integer afterUserId, int limit);
+
+    List<Like> findAll();
+
+    List<Like> findCreatedSince(Instant since);
 }
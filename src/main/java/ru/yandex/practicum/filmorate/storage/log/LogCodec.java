@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.storage.log;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+final class LogCodec {
+    private static final int NULL_MARKER = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private LogCodec() {
+    }
+
+    static void writeFilm(DataOutputStream out, Film film) throws IOException {
+        out.writeInt(film.getId());
+        writeString(out, film.getName());
+        writeString(out, film.getDescription());
+        writeDate(out, film.getReleaseDate());
+        out.writeInt(film.getDuration() == null ? NULL_MARKER : film.getDuration());
+        if (film.getMpa() == null) {
+            out.writeInt(NULL_MARKER);
+        } else {
+            out.writeInt(film.getMpa().getId());
+            writeString(out, film.getMpa().getName());
+        }
+        if (film.getGenres() == null) {
+            out.writeInt(NULL_MARKER);
+        } else {
+            out.writeInt(film.getGenres().size());
+            for (Genre genre : film.getGenres()) {
+                out.writeInt(genre.getId());
+                writeString(out, genre.getName());
+            }
+        }
+        writeVersion(out, film.getVersion());
+    }
+
+    /**
+     * @param withVersion {@code false} for snapshots written before versions were stored; log records end with
+     *                    the film, so older ones are told apart by having no bytes left
+     */
+    static Film readFilm(ByteBuffer in, boolean withVersion) {
+        Film.FilmBuilder film = Film.builder()
+                .id(in.getInt())
+                .name(readString(in))
+                .description(readString(in))
+                .releaseDate(readDate(in));
+        int duration = in.getInt();
+        film.duration(duration == NULL_MARKER ? null : duration);
+        int mpaId = in.getInt();
+        if (mpaId != NULL_MARKER) {
+            film.mpa(Mpa.builder().id(mpaId).name(readString(in)).build());
+        }
+        int genreCount = in.getInt();
+        if (genreCount != NULL_MARKER) {
+            List<Genre> genres = new ArrayList<>(genreCount);
+            for (int i = 0; i < genreCount; i++) {
+                genres.add(Genre.builder().id(in.getInt()).name(readString(in)).build());
+            }
+            film.genres(genres);
+        }
+        if (withVersion && in.hasRemaining()) {
+            film.version(readVersion(in));
+        }
+        return film.build();
+    }
+
+    static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeInt(user.getId());
+        writeString(out, user.getEmail());
+        writeString(out, user.getLogin());
+        writeString(out, user.getName());
+        writeDate(out, user.getBirthday());
+        writeVersion(out, user.getVersion());
+    }
+
+    /**
+     * @param withVersion same as for {@link #readFilm(ByteBuffer, boolean)}
+     */
+    static User readUser(ByteBuffer in, boolean withVersion) {
+        User.UserBuilder user = User.builder()
+                .id(in.getInt())
+                .email(readString(in))
+                .login(readString(in))
+                .name(readString(in))
+                .birthday(readDate(in));
+        if (withVersion && in.hasRemaining()) {
+            user.version(readVersion(in));
+        }
+        return user.build();
+    }
+
+    static void writeLikes(DataOutputStream out, Map<Integer, Instant> likes) throws IOException {
+        out.writeInt(likes.size());
+        for (Map.Entry<Integer, Instant> like : likes.entrySet()) {
+            out.writeInt(like.getKey());
+            out.writeLong(like.getValue().toEpochMilli());
+        }
+    }
+
+    /**
+     * @param withTimes {@code false} for snapshots written before like times were stored
+     */
+    static Map<Integer, Instant> readLikes(ByteBuffer in, boolean withTimes) {
+        int count = in.getInt();
+        Map<Integer, Instant> likes = new HashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            int userId = in.getInt();
+            likes.put(userId, withTimes ? Instant.ofEpochMilli(in.getLong()) : InMemoryFilmStorage.UNKNOWN_LIKE_TIME);
+        }
+        return likes;
+    }
+
+    static void writeFriends(DataOutputStream out, User user) throws IOException {
+        Map<Integer, FriendStatus> friends = Map.copyOf(user.getFriends());
+        out.writeInt(friends.size());
+        for (Map.Entry<Integer, FriendStatus> friend : friends.entrySet()) {
+            out.writeInt(friend.getKey());
+            out.writeByte(friend.getValue().ordinal());
+        }
+    }
+
+    static void readFriends(ByteBuffer in, User user) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            user.getFriends().put(in.getInt(), FriendStatus.values()[in.get()]);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_MARKER);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_MARKER) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVersion(DataOutputStream out, Integer version) throws IOException {
+        out.writeInt(version == null ? NULL_MARKER : version);
+    }
+
+    private static Integer readVersion(ByteBuffer in) {
+        int version = in.getInt();
+        return version == NULL_MARKER ? null : version;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NULL_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long epochDay = in.getLong();
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
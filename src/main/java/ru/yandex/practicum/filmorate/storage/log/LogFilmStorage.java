@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.storage.log;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmReadStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogStructuredStore.Change;
+
+@Primary
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "log")
+@RequiredArgsConstructor
+public class LogFilmStorage implements FilmStorage, FilmReadStorage {
+    private final LogStructuredStore store;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<Film> findAll() {
+        return store.films().findAll();
+    }
+
+    @Override
+    public Film findById(Integer filmId) {
+        return store.films().findById(filmId);
+    }
+
+    @Override
+    public boolean exists(Integer filmId) {
+        return store.films().exists(filmId);
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> filmIds) {
+        return store.films().findByIds(filmIds);
+    }
+
+    @Override
+    public Film create(Film film) {
+        Film created = store.write(LogOperation.FILM_PUT, () -> {
+            Film stored = store.films().create(film);
+            return Change.of(stored, () -> store.films().evict(stored.getId()));
+        }, out -> LogCodec.writeFilm(out, film));
+        eventPublisher.publishEvent(new FilmChangedEvent(created.getId()));
+        return created;
+    }
+
+    @Override
+    public Film update(Film filmUpdate) {
+        Film updated = store.write(LogOperation.FILM_PUT, () -> {
+            Film previous = store.films().findById(filmUpdate.getId());
+            return Change.of(store.films().update(filmUpdate),
+                    () -> store.films().restore(previous.getId(), previous));
+        }, out -> LogCodec.writeFilm(out, filmUpdate));
+        eventPublisher.publishEvent(new FilmChangedEvent(updated.getId()));
+        return updated;
+    }
+
+    @Override
+    public Integer delete(Integer filmId) {
+        store.write(LogOperation.FILM_DELETE, () -> {
+            Film previous = store.films().findById(filmId);
+            Map<Integer, Instant> likes = store.films().getLikeTimes(filmId);
+            return Change.of(store.films().delete(filmId), () -> store.films().restore(previous, likes));
+        }, out -> out.writeInt(filmId));
+        eventPublisher.publishEvent(new FilmDeletedEvent(filmId));
+        return filmId;
+    }
+
+    @Override
+    public List<Film> findTopLiked(int size) {
+        return store.films().findTopLiked(size);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.log;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogStructuredStore.Change;
+
+@Primary
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "log")
+@RequiredArgsConstructor
+public class LogLikeStorage implements LikeStorage {
+    private final LogStructuredStore store;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void addLike(Integer filmId, Integer userId) {
+        Instant likedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        if (store.write(LogOperation.LIKE_ADD, () -> {
+            boolean added = store.films().addLike(filmId, userId, likedAt);
+            return Change.of(added, () -> {
+                if (added) {
+                    store.films().removeLike(filmId, userId);
+                }
+            });
+        }, out -> {
+            writeLike(out, filmId, userId);
+            out.writeLong(likedAt.toEpochMilli());
+        })) {
+            eventPublisher.publishEvent(new LikeChangedEvent(filmId, userId, true, likedAt));
+        }
+    }
+
+    @Override
+    public void removeLike(Integer filmId, Integer userId) {
+        Optional<Instant> removed = store.write(LogOperation.LIKE_REMOVE, () -> {
+            Optional<Instant> likedAt = store.films().removeLike(filmId, userId);
+            return Change.of(likedAt, () -> likedAt.ifPresent(time -> store.films().addLike(filmId, userId, time)));
+        }, out -> writeLike(out, filmId, userId));
+        removed.ifPresent(likedAt -> eventPublisher.publishEvent(new LikeChangedEvent(filmId, userId, false, likedAt)));
+    }
+
+    @Override
+    public boolean exists(Integer filmId, Integer userId) {
+        return store.films().hasLike(filmId, userId);
+    }
+
+    @Override
+    public List<Integer> getLikesByFilmId(Integer filmId) {
+        return store.films().getLikes(filmId);
+    }
+
+    @Override
+    public List<Integer> getLikesByFilmId(Integer filmId, Integer afterUserId, int limit) {
+        return store.films().getLikes(filmId, afterUserId, limit);
+    }
+
+    @Override
+    public List<Like> findAll() {
+        return store.films().findLikesSince(Instant.MIN);
+    }
+
+    @Override
+    public List<Like> findCreatedSince(Instant since) {
+        return store.films().findLikesSince(since);
+    }
+
+    private static void writeLike(DataOutputStream out, Integer filmId, Integer userId) throws IOException {
+        out.writeInt(filmId);
+        out.writeInt(userId);
+    }
+}
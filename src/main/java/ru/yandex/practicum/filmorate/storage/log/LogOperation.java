@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.storage.log;
+
+public enum LogOperation {
+    FILM_PUT,
+    FILM_DELETE,
+    USER_PUT,
+    USER_DELETE,
+    LIKE_ADD,
+    LIKE_REMOVE,
+    FRIEND_ADD,
+    FRIEND_REMOVE;
+
+    private static final LogOperation[] VALUES = values();
+
+    public static LogOperation of(byte code) {
+        return VALUES[code];
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+}
@@ -0,0 +1,560 @@
+package ru.yandex.practicum.filmorate.storage.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendStatus;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+/**
+ * Working set of films, users, likes and friendships kept in memory and made durable by an append-only log.
+ *
+ * <p>Every record is {@code [payload length][crc32][operation][payload]}. Writers apply a change in memory and
+ * enqueue its record under one short lock, so the log order matches the order of in-memory changes, then wait
+ * outside the lock while a single flusher thread writes everything queued so far and forces it to disk once
+ * (group commit). If a batch cannot be made durable, the log is cut back to where the batch started and every
+ * change not yet on disk is undone newest first, so memory never keeps a change the log lost. Every {@code snapshot-every} records the state is compacted into a snapshot and the log is
+ * rotated. Recovery memory-maps the newest valid snapshot and replays the newer logs, stopping at a torn tail.
+ * All operations are idempotent, so a record that is both in a snapshot and in the next log is harmless.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "log")
+public class LogStructuredStore implements AutoCloseable {
+    private static final int LEGACY_SNAPSHOT_MAGIC = 0x464C4D53;
+    private static final int SNAPSHOT_MAGIC = 0x464C4D56;
+    /**
+     * Written after {@link #SNAPSHOT_MAGIC}. Snapshots with {@link #LEGACY_SNAPSHOT_MAGIC} are format 1, which
+     * stored likes without their creation time; format 2 stored films and users without their version.
+     */
+    private static final int SNAPSHOT_FORMAT = 3;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2 + 1;
+    private static final int MAX_BATCH = 4096;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    private final Path directory;
+    private final long snapshotEveryRecords;
+    private final boolean fsync;
+    private final InMemoryFilmStorage films = new InMemoryFilmStorage();
+    private final InMemoryUserStorage users;
+    private final ReentrantLock sequencer = new ReentrantLock();
+    /**
+     * Signalled under {@link #sequencer} whenever {@link #unflushed} drops to zero or draining ends.
+     */
+    private final Condition flushed = sequencer.newCondition();
+    private final Object channelLock = new Object();
+    private final BlockingQueue<PendingWrite> pending = new LinkedBlockingQueue<>();
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(
+            runnable -> Thread.ofPlatform().name("storage-log-snapshot").daemon().unstarted(runnable));
+    private final Thread flusher;
+    private volatile boolean running = true;
+    /**
+     * Changes applied in memory whose records are not yet durable; guarded by {@link #sequencer}.
+     */
+    private int unflushed;
+    /**
+     * Set while a snapshot waits for {@link #unflushed} to reach zero; writers hold back meanwhile.
+     */
+    private boolean draining;
+    private FileChannel channel;
+    private long generation;
+
+    public LogStructuredStore(@Value("${filmorate.storage.log.dir:./db/log}") Path directory,
+                              @Value("${filmorate.storage.log.snapshot-every:100000}") long snapshotEveryRecords,
+                              @Value("${filmorate.storage.log.fsync:true}") boolean fsync,
+                              Validators validators) throws IOException {
+        this.directory = directory;
+        this.snapshotEveryRecords = snapshotEveryRecords;
+        this.fsync = fsync;
+        this.users = new InMemoryUserStorage(validators);
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        recover();
+        log.info("Хранилище восстановлено из {} за {} мс: фильмов {}, пользователей {}", directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), films.findAll().size(),
+                users.findAll().size());
+        channel = openLog(++generation);
+        flusher = Thread.ofPlatform().name("storage-log-flusher").daemon().start(this::flushLoop);
+    }
+
+    public InMemoryFilmStorage films() {
+        return films;
+    }
+
+    public InMemoryUserStorage users() {
+        return users;
+    }
+
+    /**
+     * Applies {@code mutation} in memory, logs it and returns once the record is durable. If it cannot be made
+     * durable, the change is undone before the exception reaches the caller.
+     */
+    public <R> R write(LogOperation operation, Supplier<Change<R>> mutation, PayloadWriter payload) {
+        Change<R> change;
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        sequencer.lock();
+        try {
+            while (draining) {
+                flushed.awaitUninterruptibly();
+            }
+            change = mutation.get();
+            ByteBuffer record;
+            try {
+                record = encode(operation, payload);
+            } catch (RuntimeException e) {
+                change.undo().run();
+                throw e;
+            }
+            pending.add(new PendingWrite(record, change.undo(), durable));
+            unflushed++;
+        } finally {
+            sequencer.unlock();
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException("Не удалось записать журнал хранилища", cause);
+            }
+            throw new IllegalStateException("Не удалось записать журнал хранилища", e.getCause());
+        }
+        return change.result();
+    }
+
+    /**
+     * @return likes the user had given, or empty if there was no such user
+     */
+    public Change<Optional<Map<Integer, Instant>>> removeUser(Integer userId) {
+        User user = users.findById(userId);
+        if (user == null || users.evict(userId) == null) {
+            return Change.of(Optional.empty(), () -> { });
+        }
+        Map<Integer, Instant> likes = new LinkedHashMap<>();
+        for (Integer filmId : films.ids()) {
+            films.removeLike(filmId, userId).ifPresent(likedAt -> likes.put(filmId, likedAt));
+        }
+        Map<Integer, FriendStatus> befriendedBy = users.forgetFriend(userId);
+        return Change.of(Optional.of(likes), () -> {
+            users.restore(userId, user);
+            likes.forEach((filmId, likedAt) -> films.addLike(filmId, userId, likedAt));
+            befriendedBy.forEach((friendOf, status) -> users.putFriend(friendOf, userId, status));
+        });
+    }
+
+    public void snapshot() throws IOException {
+        byte[] data;
+        long covered;
+        sequencer.lock();
+        try {
+            // Changes still waiting for the flusher could yet be undone, so they must not reach the snapshot.
+            draining = true;
+            while (unflushed > 0) {
+                flushed.awaitUninterruptibly();
+            }
+            data = encodeSnapshot();
+            synchronized (channelLock) {
+                covered = generation;
+                channel.force(true);
+                channel.close();
+                channel = openLog(++generation);
+            }
+            recordsSinceSnapshot.set(0);
+        } finally {
+            draining = false;
+            flushed.signalAll();
+            sequencer.unlock();
+        }
+
+        Path target = directory.resolve(fileName("snapshot", covered, "snap"));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path file : listGenerations("wal", "log")) {
+            if (generationOf(file) <= covered) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : listGenerations("snapshot", "snap")) {
+            if (generationOf(file) < covered) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("Записан снимок хранилища {} ({} байт)", target.getFileName(), data.length);
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        flusher.join();
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        synchronized (channelLock) {
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    private ByteBuffer encode(LogOperation operation, PayloadWriter payload) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(operation.code());
+            payload.write(out);
+            byte[] body = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + body.length);
+            buffer.putInt(body.length - 1).putInt((int) crc.getValue()).put(body).flip();
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingWrite first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, MAX_BATCH - 1);
+                try {
+                    writeBatch(batch);
+                    settle(batch.size());
+                    batch.forEach(write -> write.durable().complete(null));
+                    if (recordsSinceSnapshot.addAndGet(batch.size()) >= snapshotEveryRecords) {
+                        scheduleSnapshot();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.error("Ошибка записи журнала хранилища", e);
+                    rollBack(batch, e);
+                } finally {
+                    // Nobody waits forever, even if the rollback itself failed.
+                    batch.forEach(write -> write.durable().completeExceptionally(
+                            new IllegalStateException("Запись журнала хранилища прервана")));
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the batch; on failure the log is cut back to where the batch started.
+     */
+    private void writeBatch(List<PendingWrite> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).record();
+            remaining += buffers[i].remaining();
+        }
+        synchronized (channelLock) {
+            long start = channel.position();
+            try {
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+                if (fsync) {
+                    force(channel);
+                }
+            } catch (IOException | RuntimeException e) {
+                try {
+                    channel.truncate(start);
+                    channel.position(start);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Forces appended records to disk.
+     */
+    protected void force(FileChannel logChannel) throws IOException {
+        logChannel.force(false);
+    }
+
+    /**
+     * Undoes the failed batch and everything queued behind it, newest first, since those changes were applied on
+     * top of it, and fails all their writers.
+     */
+    private void rollBack(List<PendingWrite> batch, Exception cause) {
+        sequencer.lock();
+        List<PendingWrite> failed = new ArrayList<>(batch);
+        try {
+            pending.drainTo(failed);
+            for (int i = failed.size() - 1; i >= 0; i--) {
+                try {
+                    failed.get(i).undo().run();
+                } catch (RuntimeException e) {
+                    log.error("Не удалось отменить изменение, не попавшее в журнал хранилища", e);
+                }
+            }
+        } finally {
+            failed.forEach(write -> write.durable().completeExceptionally(cause));
+            unflushed -= failed.size();
+            flushed.signalAll();
+            sequencer.unlock();
+        }
+    }
+
+    private void settle(int writes) {
+        sequencer.lock();
+        try {
+            unflushed -= writes;
+            if (unflushed == 0) {
+                flushed.signalAll();
+            }
+        } finally {
+            sequencer.unlock();
+        }
+    }
+
+    private void scheduleSnapshot() {
+        if (!running || !snapshotScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        snapshotExecutor.execute(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                log.error("Не удалось записать снимок хранилища", e);
+            } finally {
+                snapshotScheduled.set(false);
+            }
+        });
+    }
+
+    private byte[] encodeSnapshot() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(films.getLastId());
+            out.writeInt(users.getLastId());
+            List<Film> allFilms = films.findAll();
+            out.writeInt(allFilms.size());
+            for (Film film : allFilms) {
+                LogCodec.writeFilm(out, film);
+                LogCodec.writeLikes(out, films.getLikeTimes(film.getId()));
+            }
+            List<User> allUsers = users.findAll();
+            out.writeInt(allUsers.size());
+            for (User user : allUsers) {
+                LogCodec.writeUser(out, user);
+                LogCodec.writeFriends(out, user);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recover() throws IOException {
+        long snapshotGeneration = 0;
+        List<Path> snapshots = listGenerations("snapshot", "snap");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            if (loadSnapshot(snapshots.get(i))) {
+                snapshotGeneration = generationOf(snapshots.get(i));
+                break;
+            }
+        }
+        generation = snapshotGeneration;
+        for (Path wal : listGenerations("wal", "log")) {
+            long walGeneration = generationOf(wal);
+            if (walGeneration > snapshotGeneration) {
+                replay(wal);
+            }
+            generation = Math.max(generation, walGeneration);
+        }
+    }
+
+    private boolean loadSnapshot(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            if (buffer.limit() < Integer.BYTES * 2) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, buffer.limit() - Integer.BYTES));
+            int magic = buffer.getInt();
+            int format = magic == SNAPSHOT_MAGIC ? buffer.getInt() : 1;
+            if ((int) crc.getValue() != buffer.getInt(buffer.limit() - Integer.BYTES)
+                    || (magic != SNAPSHOT_MAGIC && magic != LEGACY_SNAPSHOT_MAGIC) || format > SNAPSHOT_FORMAT) {
+                log.warn("Снимок {} повреждён и будет пропущен", file.getFileName());
+                return false;
+            }
+            int lastFilmId = buffer.getInt();
+            int lastUserId = buffer.getInt();
+            int filmCount = buffer.getInt();
+            for (int i = 0; i < filmCount; i++) {
+                Film film = LogCodec.readFilm(buffer, format >= 3);
+                Map<Integer, Instant> likes = LogCodec.readLikes(buffer, format >= 2);
+                films.restore(film, likes);
+            }
+            int userCount = buffer.getInt();
+            for (int i = 0; i < userCount; i++) {
+                User user = LogCodec.readUser(buffer, format >= 3);
+                LogCodec.readFriends(buffer, user);
+                users.restore(user.getId(), user);
+            }
+            films.advanceIdTo(lastFilmId);
+            users.advanceIdTo(lastUserId);
+            return true;
+        }
+    }
+
+    private void replay(Path file) throws IOException {
+        long validLength;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int start = buffer.position();
+                int payloadLength = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (payloadLength < 0 || payloadLength + 1 > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                ByteBuffer body = buffer.slice(buffer.position(), payloadLength + 1);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    buffer.position(start);
+                    break;
+                }
+                buffer.position(buffer.position() + payloadLength + 1);
+                apply(LogOperation.of(body.get()), body);
+            }
+            validLength = buffer.position();
+        }
+        if (validLength < Files.size(file)) {
+            log.warn("Журнал {} обрезан до {} байт: обнаружена неполная запись", file.getFileName(), validLength);
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                out.truncate(validLength);
+            }
+        }
+    }
+
+    private void apply(LogOperation operation, ByteBuffer payload) {
+        switch (operation) {
+            case FILM_PUT -> {
+                Film film = LogCodec.readFilm(payload, true);
+                films.restore(film.getId(), film);
+            }
+            case FILM_DELETE -> films.evict(payload.getInt());
+            case USER_PUT -> {
+                User user = LogCodec.readUser(payload, true);
+                users.restore(user.getId(), user);
+            }
+            case USER_DELETE -> removeUser(payload.getInt());
+            case LIKE_ADD, LIKE_REMOVE -> {
+                int filmId = payload.getInt();
+                int userId = payload.getInt();
+                if (films.exists(filmId)) {
+                    if (operation == LogOperation.LIKE_ADD) {
+                        films.addLike(filmId, userId, payload.remaining() >= Long.BYTES
+                                ? Instant.ofEpochMilli(payload.getLong())
+                                : InMemoryFilmStorage.UNKNOWN_LIKE_TIME);
+                    } else {
+                        films.removeLike(filmId, userId);
+                    }
+                }
+            }
+            case FRIEND_ADD, FRIEND_REMOVE -> {
+                int userId = payload.getInt();
+                int friendId = payload.getInt();
+                if (operation == LogOperation.FRIEND_ADD) {
+                    users.putFriend(userId, friendId, FriendStatus.PENDING);
+                } else {
+                    users.dropFriend(userId, friendId);
+                }
+            }
+        }
+    }
+
+    private FileChannel openLog(long logGeneration) throws IOException {
+        return FileChannel.open(directory.resolve(fileName("wal", logGeneration, "log")),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listGenerations(String prefix, String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches(prefix + "-\\d+\\." + extension))
+                    .sorted(Comparator.comparingLong(this::generationOf))
+                    .toList();
+        }
+    }
+
+    private long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+    private static String fileName(String prefix, long fileGeneration, String extension) {
+        return String.format("%s-%020d.%s", prefix, fileGeneration, extension);
+    }
+
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Result of an in-memory change and the action that reverts it.
+     */
+    public record Change<R>(R result, Runnable undo) {
+        public static <R> Change<R> of(R result, Runnable undo) {
+            return new Change<>(result, undo);
+        }
+    }
+
+    private record PendingWrite(ByteBuffer record, Runnable undo, CompletableFuture<Void> durable) {
+    }
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.storage.log;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
+import ru.yandex.practicum.filmorate.model.FriendStatus;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.log.LogStructuredStore.Change;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+@Primary
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "log")
+@RequiredArgsConstructor
+public class LogUserStorage implements UserStorage {
+    private final LogStructuredStore store;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<User> findAll() {
+        return store.users().findAll();
+    }
+
+    @Override
+    public User findById(Integer userId) {
+        User user = store.users().findById(userId);
+        if (user == null) {
+            LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(userId));
+        }
+        return user;
+    }
+
+    @Override
+    public boolean exists(Integer userId) {
+        return store.users().exists(userId);
+    }
+
+    @Override
+    public List<User> findByIds(List<Integer> userIds) {
+        return store.users().findByIds(userIds);
+    }
+
+    @Override
+    public User create(User user) {
+        return store.write(LogOperation.USER_PUT, () -> {
+            User created = store.users().create(user);
+            return Change.of(created, () -> store.users().evict(created.getId()));
+        }, out -> LogCodec.writeUser(out, user));
+    }
+
+    @Override
+    public User update(User userUpdate) {
+        return store.write(LogOperation.USER_PUT, () -> {
+            User previous = store.users().findById(userUpdate.getId());
+            return Change.of(store.users().update(userUpdate),
+                    () -> store.users().restore(previous.getId(), previous));
+        }, out -> LogCodec.writeUser(out, userUpdate));
+    }
+
+    @Override
+    public Integer delete(Integer userId) {
+        Optional<Map<Integer, Instant>> likes = store.write(LogOperation.USER_DELETE, () -> store.removeUser(userId),
+                out -> out.writeInt(userId));
+        if (likes.isEmpty()) {
+            LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(userId));
+        }
+        List<Like> removed = likes.get().entrySet().stream()
+                .map(like -> Like.builder().filmId(like.getKey()).userId(userId).createdAt(like.getValue()).build())
+                .toList();
+        eventPublisher.publishEvent(new UserDeletedEvent(userId, removed));
+        return userId;
+    }
+
+    @Override
+    public List<User> getFriends(Integer id) {
+        return store.users().getFriends(id);
+    }
+
+    @Override
+    public List<User> getCommonFriends(Integer userIdA, Integer userIdB) {
+        return store.users().getCommonFriends(userIdA, userIdB);
+    }
+
+    @Override
+    public void addFriend(Integer userIdA, Integer userIdB) {
+        store.write(LogOperation.FRIEND_ADD, () -> {
+            Optional<FriendStatus> previous = store.users().friendStatus(userIdA, userIdB);
+            store.users().addFriend(userIdA, userIdB);
+            return Change.of(null, () -> previous.ifPresentOrElse(
+                    status -> store.users().putFriend(userIdA, userIdB, status),
+                    () -> store.users().dropFriend(userIdA, userIdB)));
+        }, out -> {
+            out.writeInt(userIdA);
+            out.writeInt(userIdB);
+        });
+        eventPublisher.publishEvent(new FriendshipChangedEvent(userIdA, userIdB, true));
+    }
+
+    @Override
+    public void removeFriend(Integer userIdA, Integer userIdB) {
+        store.write(LogOperation.FRIEND_REMOVE, () -> {
+            Optional<FriendStatus> previous = store.users().friendStatus(userIdA, userIdB);
+            store.users().removeFriend(userIdA, userIdB);
+            return Change.of(null, () -> previous.ifPresent(
+                    status -> store.users().putFriend(userIdA, userIdB, status)));
+        }, out -> {
+            out.writeInt(userIdA);
+            out.writeInt(userIdB);
+        });
+        eventPublisher.publishEvent(new FriendshipChangedEvent(userIdA, userIdB, false));
+    }
+
+    @Override
+    public boolean friendshipExists(Integer userIdA, Integer userIdB) {
+        return store.users().friendshipExists(userIdA, userIdB);
+    }
+}
@@ -2,35 +2,68 @@ package ru.yandex.practicum.filmorate.storage.mpa;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
 
+/**
+ * MPA ratings come from data.sql and have no write path, so they are read from the database once and then
+ * served from memory.
+ */
 @Component
 @RequiredArgsConstructor
 public class MpaDbStorage implements MpaStorage {
-    private final JdbcTemplate jdbcTemplate;
+    private static final SqlStatement FIND_ALL = SqlStatement.define("mpa.findAll", "SELECT * FROM mpa ORDER BY id;");
+
+    private final SqlRunner sql;
     private final RowMapper<Mpa> mapper = new MpaRowMapper();
+    private volatile Map<Integer, Mpa> ratings;
 
     @Override
     public List<Mpa> findAll() {
-        String query = """
-                SELECT * FROM mpa;
-                """;
-        return jdbcTemplate.query(query, mapper);
+        return ratings().values().stream()
+                .map(MpaDbStorage::copyOf)
+                .toList();
     }
 
     @Override
     public Mpa findById(Integer mpaId) {
-        String query = """
-                SELECT * FROM mpa
-                WHERE id = ?;
-                """;
-        return jdbcTemplate.queryForObject(query, mapper, mpaId);
+        Mpa mpa = ratings().get(mpaId);
+        if (mpa == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return copyOf(mpa);
+    }
+
+    public boolean exists(Integer mpaId) {
+        return mpaId != null && ratings().containsKey(mpaId);
+    }
+
+    private Map<Integer, Mpa> ratings() {
+        Map<Integer, Mpa> loaded = ratings;
+        if (loaded == null) {
+            Map<Integer, Mpa> byId = new LinkedHashMap<>();
+            sql.query(FIND_ALL, mapper).forEach(mpa -> byId.put(mpa.getId(), mpa));
+            loaded = Collections.unmodifiableMap(byId);
+            ratings = loaded;
+        }
+        return loaded;
+    }
+
+    private static Mpa copyOf(Mpa mpa) {
+        return Mpa.builder()
+                .id(mpa.getId())
+                .name(mpa.getName())
+                .build();
     }
 
     private static class MpaRowMapper implements RowMapper<Mpa> {
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.sql;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.*;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs {@link SqlStatement}s through {@link JdbcTemplate}, timing every call under {@code filmorate.sql}
+ * with the statement id as a tag.
+ */
+@Component
+public class SqlRunner {
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlRunner(JdbcTemplate jdbcTemplate, ObjectProvider<MeterRegistry> meterRegistry,
+                     PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.transactionManager = transactionManager;
+    }
+
+    public <T> List<T> query(SqlStatement statement, RowMapper<T> mapper, Object... args) {
+        return timer(statement).record(() -> jdbcTemplate.query(statement.getSql(), mapper, args));
+    }
+
+    public void query(SqlStatement statement, RowCallbackHandler handler, Object... args) {
+        timer(statement).record(() -> jdbcTemplate.query(statement.getSql(), handler, args));
+    }
+
+    public <T> List<T> queryForList(SqlStatement statement, Class<T> type, Object... args) {
+        return timer(statement).record(() -> jdbcTemplate.queryForList(statement.getSql(), type, args));
+    }
+
+    public <T> T queryForObject(SqlStatement statement, Class<T> type, Object... args) {
+        return timer(statement).record(() -> jdbcTemplate.queryForObject(statement.getSql(), type, args));
+    }
+
+    public <T> T queryForObject(SqlStatement statement, RowMapper<T> mapper, Object... args) {
+        return timer(statement).record(() -> jdbcTemplate.queryForObject(statement.getSql(), mapper, args));
+    }
+
+    public int update(SqlStatement statement, Object... args) {
+        return timer(statement).record(() -> jdbcTemplate.update(statement.getSql(), args));
+    }
+
+    public Number insert(SqlStatement statement, PreparedStatementSetter setter) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        timer(statement).record(() -> jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(statement.getSql(), new String[]{"id"});
+            setter.setValues(ps);
+            return ps;
+        }, keyHolder));
+        return keyHolder.getKey();
+    }
+
+    public <T> void batchUpdate(SqlStatement statement, Collection<T> items,
+                                ParameterizedPreparedStatementSetter<T> setter) {
+        if (items.isEmpty()) {
+            return;
+        }
+        timer(statement).record(() -> jdbcTemplate.batchUpdate(statement.getSql(), items, items.size(), setter));
+    }
+
+    /**
+     * Runs {@code EXPLAIN ANALYZE} for the statement in a transaction that is always rolled back,
+     * so data-changing statements can be analyzed too.
+     */
+    public String explain(SqlStatement statement, List<Object> args) {
+        SqlStatement sample = statement.renderSample();
+        String sql = sample.getSql().strip();
+        if (sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1);
+        }
+        String explainSql = "EXPLAIN ANALYZE " + sql;
+        List<Object> explainArgs = args == null || args.isEmpty() ? sample.getSampleArgs() : args;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            return String.join("\n", jdbcTemplate.queryForList(explainSql, String.class,
+                    explainArgs.toArray()));
+        });
+    }
+
+    public List<Map<String, Object>> stats() {
+        return SqlStatement.all().stream()
+                .map(statement -> {
+                    Timer timer = timer(statement);
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("id", statement.getId());
+                    stats.put("calls", timer.count());
+                    stats.put("totalMs", timer.totalTime(TimeUnit.MILLISECONDS));
+                    stats.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+                    return stats;
+                })
+                .toList();
+    }
+
+    private Timer timer(SqlStatement statement) {
+        return timers.computeIfAbsent(statement.getId(), id -> Timer.builder("filmorate.sql")
+                .tag("statement", id)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
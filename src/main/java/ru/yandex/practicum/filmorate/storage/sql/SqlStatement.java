@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.sql;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A named SQL statement. The id is stable and keys the per-statement metrics and the admin plan endpoint.
+ * Statements whose text depends on the call (IN lists, projected columns) keep {@code %s} slots filled by
+ * {@link #render}; the sample fragments and arguments are what the plan endpoint runs by default.
+ */
+public final class SqlStatement {
+    private static final Map<String, SqlStatement> REGISTRY = new ConcurrentSkipListMap<>();
+
+    private final String id;
+    private final String sql;
+    private final List<String> sampleFragments;
+    private final List<Object> sampleArgs;
+
+    private SqlStatement(String id, String sql, List<String> sampleFragments, List<Object> sampleArgs) {
+        this.id = id;
+        this.sql = sql;
+        this.sampleFragments = sampleFragments;
+        this.sampleArgs = sampleArgs;
+    }
+
+    public static SqlStatement define(String id, String sql, Object... sampleArgs) {
+        return defineTemplate(id, sql, List.of(), sampleArgs);
+    }
+
+    public static SqlStatement defineTemplate(String id, String sql, List<String> sampleFragments,
+                                              Object... sampleArgs) {
+        SqlStatement statement = new SqlStatement(id, sql, List.copyOf(sampleFragments), List.of(sampleArgs));
+        if (REGISTRY.putIfAbsent(id, statement) != null) {
+            throw new IllegalStateException("SQL-запрос с id " + id + " уже зарегистрирован");
+        }
+        return statement;
+    }
+
+    public static Optional<SqlStatement> find(String id) {
+        return Optional.ofNullable(REGISTRY.get(id));
+    }
+
+    public static Collection<SqlStatement> all() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+
+    public SqlStatement render(String... fragments) {
+        return new SqlStatement(id, sql.formatted((Object[]) fragments), List.of(), sampleArgs);
+    }
+
+    public SqlStatement renderSample() {
+        return sampleFragments.isEmpty() ? this : render(sampleFragments.toArray(String[]::new));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getSampleArgs() {
+        return sampleArgs;
+    }
+}
@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -15,61 +16,103 @@ import ru.yandex.practicum.filmorate.util.Validators;
 @RequiredArgsConstructor
 public class InMemoryUserStorage extends AbstractStorage<User> implements UserStorage {
     private final Validators validators;
+    /**
+     * Friend lists of stored users. Stored users keep an empty friend map; {@link #copyOf} fills it in from here.
+     */
+    private final Map<Integer, Map<Integer, FriendStatus>> friendships = new ConcurrentHashMap<>();
 
     public Map<Integer, User> getStorage() {
-        return Map.copyOf(mapEntityStorage);
+        Map<Integer, User> storage = new HashMap<>();
+        mapEntityStorage.keySet().forEach(userId -> Optional.ofNullable(snapshot(userId))
+                .ifPresent(user -> storage.put(userId, user)));
+        return storage;
     }
 
     @Override
     public List<User> findAll() {
-        return mapEntityStorage.values().stream().toList();
+        return snapshotAll();
     }
 
     @Override
     public User findById(Integer userId) {
-        return mapEntityStorage.get(userId);
+        return snapshot(userId);
     }
 
     @Override
     public User create(User user) {
         validators.validateLogin(user.getLogin(), getClass());
         user.setId(getNextId());
-        mapEntityStorage.put(user.getId(), user);
-        log.info("Добавлен новый пользователь: {}", user);
-        return user;
+        user.setVersion(0);
+        friendships.put(user.getId(), new ConcurrentHashMap<>());
+        mapEntityStorage.put(user.getId(), user.toBuilder().build());
+        User created = copyOf(user);
+        log.info("Добавлен новый пользователь: {}", created);
+        return created;
     }
 
     @Override
     public User update(User user) {
         validators.validateLogin(user.getLogin(), getClass());
-        log.info("Обновлён пользователь id {}. Новое значение: {}", user.getId(), user);
-        return user;
+        User updated = withEntityLock(user.getId(), () -> {
+            User original = mapEntityStorage.get(user.getId());
+            if (original == null) {
+                LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(user.getId()));
+            }
+            user.setVersion(nextVersion(original.getVersion(), user.getVersion(),
+                    ExceptionType.USER_VERSION_CONFLICT, user.getId()));
+            User replacement = user.toBuilder().build();
+            mapEntityStorage.put(user.getId(), replacement);
+            return copyOf(replacement);
+        });
+        log.info("Обновлён пользователь id {}. Новое значение: {}", updated.getId(), updated);
+        return updated;
     }
 
     @Override
     public Integer delete(Integer userId) {
-        mapEntityStorage.remove(userId);
+        evict(userId);
         log.info("Удалён пользователь id {}", userId);
         return userId;
     }
 
+    /**
+     * Puts a user read from a log or snapshot. Friends it carries are added to the ones already stored, which
+     * keeps them across a replayed update.
+     */
+    @Override
+    public void restore(Integer userId, User user) {
+        friendships.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).putAll(user.getFriends());
+        super.restore(userId, user.toBuilder().build());
+    }
+
+    @Override
+    public User evict(Integer userId) {
+        User evicted = super.evict(userId);
+        friendships.remove(userId);
+        return evicted;
+    }
+
     @Override
     public List<User> getFriends(Integer userId) {
-        validators.validateUserExits(userId, getClass());
-        return mapEntityStorage.get(userId).getFriends().keySet().stream()
-                .map(mapEntityStorage::get).toList();
+        if (!mapEntityStorage.containsKey(userId)) {
+            LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(userId));
+        }
+        return friendIdsOf(userId).stream()
+                .map(this::snapshot)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
     public List<User> getCommonFriends(Integer userIdA, Integer userIdB) {
-        Set<Integer> userAFriends = findById(userIdA).getFriends().keySet();
-        Set<Integer> userBFriends = findById(userIdB).getFriends().keySet();
+        Set<Integer> userAFriends = friendIdsOf(userIdA);
+        Set<Integer> userBFriends = friendIdsOf(userIdB);
 
         List<User> result = new ArrayList<>();
 
         for (Integer id : userAFriends) {
             if (userBFriends.contains(id)) {
-                result.add(findById(id));
+                Optional.ofNullable(snapshot(id)).ifPresent(result::add);
             }
         }
 
@@ -78,29 +121,67 @@ public class InMemoryUserStorage extends AbstractStorage<User> implements UserSt
 
     @Override
     public void addFriend(Integer userIdA, Integer userIdB) {
-        Optional<User> userA = Optional.ofNullable(findById(userIdA));
-        Optional<User> userB = Optional.ofNullable(findById(userIdB));
-
-        if (userA.isPresent() && userB.isPresent()) {
-            userA.get().getFriends().put(userIdB, FriendStatus.PENDING);
-        } else {
-            int missingId;
-
-            if (userA.isEmpty()) {
-                missingId = userIdA;
-            } else {
-                missingId = userIdB;
-            }
+        if (!mapEntityStorage.containsKey(userIdB) || !putFriend(userIdA, userIdB, FriendStatus.PENDING)) {
             LoggedException.throwNew(ExceptionType.INVALID_FRIENDSHIP_ADD, getClass(), List.of(userIdA, userIdB));
         }
     }
 
     @Override
     public void removeFriend(Integer userIdA, Integer userIdB) {
-        Optional<User> userA = Optional.ofNullable(findById(userIdA));
-        if (userA.isEmpty() || !userA.get().getFriends().containsKey(userIdB)) {
+        if (!dropFriend(userIdA, userIdB)) {
             LoggedException.throwNew(ExceptionType.INVALID_FRIENDSHIP_REMOVE, getClass(), List.of(userIdA, userIdB));
         }
-        userA.get().getFriends().remove(userIdB);
+    }
+
+    /**
+     * @return false if there is no such user
+     */
+    public boolean putFriend(Integer userId, Integer friendId, FriendStatus status) {
+        Map<Integer, FriendStatus> friends = friendships.get(userId);
+        if (friends == null) {
+            return false;
+        }
+        friends.put(friendId, status);
+        return true;
+    }
+
+    /**
+     * @return false if there is no such user or the friend was not on the list
+     */
+    public boolean dropFriend(Integer userId, Integer friendId) {
+        Map<Integer, FriendStatus> friends = friendships.get(userId);
+        return friends != null && friends.remove(friendId) != null;
+    }
+
+    public Optional<FriendStatus> friendStatus(Integer userId, Integer friendId) {
+        return Optional.ofNullable(friendships.getOrDefault(userId, Map.of()).get(friendId));
+    }
+
+    @Override
+    public boolean friendshipExists(Integer userIdA, Integer userIdB) {
+        return friendships.getOrDefault(userIdA, Map.of()).containsKey(userIdB);
+    }
+
+    /**
+     * Drops {@code friendId} from every friend list, e.g. after that user was deleted.
+     *
+     * @return users who had {@code friendId} on their list, with the status it had there
+     */
+    public Map<Integer, FriendStatus> forgetFriend(Integer friendId) {
+        Map<Integer, FriendStatus> removed = new HashMap<>();
+        friendships.forEach((userId, friends) -> Optional.ofNullable(friends.remove(friendId))
+                .ifPresent(status -> removed.put(userId, status)));
+        return removed;
+    }
+
+    @Override
+    protected User copyOf(User user) {
+        User copy = user.toBuilder().build();
+        copy.getFriends().putAll(friendships.getOrDefault(user.getId(), Map.of()));
+        return copy;
+    }
+
+    private Set<Integer> friendIdsOf(Integer userId) {
+        return Set.copyOf(friendships.getOrDefault(userId, Map.of()).keySet());
     }
 }
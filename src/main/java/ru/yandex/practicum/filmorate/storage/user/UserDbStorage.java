@@ -8,58 +8,146 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
 import ru.yandex.practicum.filmorate.exception.ExceptionType;
 import ru.yandex.practicum.filmorate.exception.LoggedException;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InClause;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.sql.SqlStatement;
+import ru.yandex.practicum.filmorate.util.Projection;
 
+@Primary
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.backend", havingValue = "db", matchIfMissing = true)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class UserDbStorage implements UserStorage {
+    private static final SqlStatement FIND_ALL = SqlStatement.defineTemplate("user.findAll",
+            "SELECT %s FROM \"user\";", List.of("*"));
+    private static final SqlStatement FIND_BY_ID = SqlStatement.defineTemplate("user.findById",
+            "SELECT %s FROM \"user\" WHERE id = ?;", List.of("*"), 1);
+    private static final SqlStatement EXISTS = SqlStatement.define("user.exists",
+            "SELECT EXISTS (SELECT 1 FROM \"user\" WHERE id = ?);", 1);
+    private static final SqlStatement FIND_BY_IDS = SqlStatement.defineTemplate("user.findByIds",
+            "SELECT %s FROM \"user\" WHERE id IN (%s);", List.of("*", "?"), 1);
+    private static final SqlStatement INSERT = SqlStatement.define("user.insert", """
+            INSERT INTO "user" (EMAIL, LOGIN, NAME, BIRTHDAY)
+            VALUES (?, ?, ?, ?);
+            """, "user@example.com", "user", "Пользователь", Date.valueOf("2000-01-01"));
+    private static final SqlStatement UPDATE = SqlStatement.define("user.update", """
+            UPDATE "user"
+            SET email = ?, login = ?, name = ?, birthday = ?, version = version + 1
+            WHERE "user".id = ?
+              AND version = COALESCE(?, version);
+            """, "user@example.com", "user", "Пользователь", Date.valueOf("2000-01-01"), 1, 0);
+    private static final SqlStatement FIND_VERSION = SqlStatement.define("user.findVersion",
+            "SELECT version FROM \"user\" WHERE id = ?;", 1);
+    private static final SqlStatement DELETE = SqlStatement.define("user.delete",
+            "DELETE FROM \"user\" WHERE id = ?;", 1);
+    private static final SqlStatement DELETE_LIKES = SqlStatement.define("user.deleteLikes", """
+            SELECT film_id, created_at FROM OLD TABLE (
+                DELETE FROM "like"
+                WHERE user_id = ?
+            );
+            """, 1);
+    private static final SqlStatement FIND_FRIENDS = SqlStatement.define("user.findFriends", """
+            SELECT u.id, u.email, u.login, u.name, u.birthday, u.version
+            FROM friends f
+            JOIN "user" u ON f.request_to_id = u.id
+            WHERE f.request_from_id = ?;
+            """, 1);
+    private static final SqlStatement FIND_COMMON_FRIENDS = SqlStatement.define("user.findCommonFriends", """
+            SELECT u.* FROM "user" u
+            JOIN friends a
+              ON a.request_to_id = u.id
+            JOIN friends b
+              ON a.request_to_id = b.request_to_id
+            WHERE a.request_from_id = ?
+              AND b.request_from_id = ?;
+            """, 1, 2);
+    private static final SqlStatement ADD_FRIEND = SqlStatement.define("user.addFriend", """
+            INSERT INTO FRIENDS (REQUEST_FROM_ID, REQUEST_TO_ID)
+            values(?, ?);
+            """, 3, 1);
+    private static final SqlStatement FRIENDSHIP_EXISTS = SqlStatement.define("user.friendshipExists", """
+            SELECT EXISTS (SELECT 1 FROM friends WHERE request_from_id = ? AND request_to_id = ?);
+            """, 1, 2);
+    private static final SqlStatement REMOVE_FRIEND = SqlStatement.define("user.removeFriend", """
+            DELETE FROM friends
+            WHERE request_from_id = ?
+            AND request_to_id = ?;
+            """, 1, 2);
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
-    private final JdbcTemplate jdbcTemplate;
-    private final RowMapper<User> mapper = new UserRowMapper();
+    private final SqlRunner sql;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RowMapper<User> mapper = new UserRowMapper(Projection.ALL);
 
     @Override
     public List<User> findAll() {
-        String query = "SELECT * FROM \"user\";";
-        return jdbcTemplate.query(query, mapper);
+        return findAll(Projection.ALL);
+    }
+
+    @Override
+    public List<User> findAll(Projection projection) {
+        return sql.query(FIND_ALL.render(columns(projection)), mapperFor(projection));
     }
 
     @Override
     public User findById(Integer userId) {
-        String query = "SELECT * FROM \"user\" WHERE id = ?;";
-        List<User> result = jdbcTemplate.query(query, mapper, userId);
+        return findById(userId, Projection.ALL);
+    }
+
+    @Override
+    public User findById(Integer userId, Projection projection) {
+        List<User> result = sql.query(FIND_BY_ID.render(columns(projection)), mapperFor(projection), userId);
         if (result.isEmpty()) {
             LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(userId));
         }
         return result.getFirst();
     }
 
+    @Override
+    public boolean exists(Integer userId) {
+        return Boolean.TRUE.equals(sql.queryForObject(EXISTS, Boolean.class, userId));
+    }
+
+    @Override
+    public List<User> findByIds(List<Integer> userIds) {
+        return findByIds(userIds, Projection.ALL);
+    }
+
+    @Override
+    public List<User> findByIds(List<Integer> userIds, Projection projection) {
+        RowMapper<User> rowMapper = mapperFor(projection);
+        List<User> users = new ArrayList<>();
+        for (List<Integer> chunk : InClause.chunks(userIds)) {
+            SqlStatement statement = FIND_BY_IDS.render(columns(projection), InClause.placeholders(chunk.size()));
+            users.addAll(sql.query(statement, rowMapper, chunk.toArray()));
+        }
+        return InClause.inRequestOrder(userIds, users, User::getId);
+    }
+
     @Override
     public User create(User user) {
-        String query = """
-                INSERT INTO "user" (EMAIL, LOGIN, NAME, BIRTHDAY)
-                VALUES (?, ?, ?, ?);
-                """;
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-
-        jdbcTemplate.update(
-                con -> {
-                    PreparedStatement ps = con.prepareStatement(query, new String[]{"id"});
-                    ps.setString(1, user.getEmail());
-                    ps.setString(2, user.getLogin());
-                    ps.setString(3, user.getName());
-                    ps.setDate(4, Date.valueOf(user.getBirthday()));
-                    return ps;
-                }, keyHolder);
-
-        if (Optional.ofNullable(keyHolder.getKey()).isPresent()) {
-            user.setId(keyHolder.getKey().intValue());
+        Number key = sql.insert(INSERT, ps -> {
+            ps.setString(1, user.getEmail());
+            ps.setString(2, user.getLogin());
+            ps.setString(3, user.getName());
+            ps.setDate(4, Date.valueOf(user.getBirthday()));
+        });
+
+        if (key != null) {
+            user.setId(key.intValue());
+            user.setVersion(0);
             log.info("Добавлен новый пользователь: {}", user);
             return user;
         }
@@ -69,48 +157,50 @@ public class UserDbStorage implements UserStorage {
 
     @Override
     public User update(User user) {
-        String query = """
-                    UPDATE "user"
-                    SET email = ?, login = ?, name = ?, birthday = ?
-                    WHERE "user".id = ?;
-                """;
-
-        int updatedRows = jdbcTemplate.update(
-                query,
+        int updatedRows = sql.update(
+                UPDATE,
                 user.getEmail(),
                 user.getLogin(),
                 user.getName(),
                 user.getBirthday(),
-                user.getId()
+                user.getId(),
+                user.getVersion()
         );
         if (updatedRows == 0) {
-            LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(user.getId()));
+            List<Integer> stored = sql.queryForList(FIND_VERSION, Integer.class, user.getId());
+            if (stored.isEmpty()) {
+                LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(user.getId()));
+            }
+            LoggedException.throwNew(ExceptionType.USER_VERSION_CONFLICT, getClass(),
+                    List.of(user.getId(), user.getVersion()));
         }
+        user.setVersion(user.getVersion() != null ? user.getVersion() + 1
+                : sql.queryForObject(FIND_VERSION, Integer.class, user.getId()));
         log.info("Обновлён пользователь id {}. Новое значение: {}", user.getId(), user);
         return user;
     }
 
     @Override
+    @Transactional
     public Integer delete(Integer userId) {
-        String query = "DELETE FROM \"user\" WHERE id = ?";
-        int deletedRows = jdbcTemplate.update(query, userId);
+        List<Like> likes = sql.query(DELETE_LIKES, (rs, rowNum) -> Like.builder()
+                .filmId(rs.getInt("film_id"))
+                .userId(userId)
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .build(), userId);
+        int deletedRows = sql.update(DELETE, userId);
         if (deletedRows == 0) {
             LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, getClass(), List.of(userId));
         }
         log.info("Удалён пользователь id {}", userId);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId, likes));
         return userId;
     }
 
     @Override
     public List<User> getFriends(Integer userId) {
         findById(userId);
-        String query = """
-                SELECT u.id, u.email, u.login, u.name, u.birthday
-                FROM friends f
-                JOIN "user" u ON f.request_to_id = u.id
-                WHERE f.request_from_id = ?
-                """;
-        List<User> response = jdbcTemplate.query(query, mapper, userId);
+        List<User> response = sql.query(FIND_FRIENDS, mapper, userId);
         if (response.isEmpty()) {
             response = new ArrayList<>();
         }
@@ -119,47 +209,66 @@ public class UserDbStorage implements UserStorage {
 
     @Override
     public List<User> getCommonFriends(Integer userIdA, Integer userIdB) {
-        String query = """
-                SELECT u.* FROM "user" u
-                JOIN friends a
-                  ON a.request_to_id = u.id
-                JOIN friends b
-                  ON a.request_to_id = b.request_to_id
-                WHERE a.request_from_id = ?
-                  AND b.request_from_id = ?;
-                """;
-        return jdbcTemplate.query(query, mapper, userIdA, userIdB);
+        return sql.query(FIND_COMMON_FRIENDS, mapper, userIdA, userIdB);
     }
 
     @Override
     public void addFriend(Integer userIdA, Integer userIdB) {
-        String query = """
-                INSERT INTO FRIENDS (REQUEST_FROM_ID, REQUEST_TO_ID)
-                values(?, ?);
-                """;
-        jdbcTemplate.update(query, userIdA, userIdB);
+        sql.update(ADD_FRIEND, userIdA, userIdB);
+        eventPublisher.publishEvent(new FriendshipChangedEvent(userIdA, userIdB, true));
     }
 
     @Override
     public void removeFriend(Integer userIdA, Integer userIdB) {
-        String query = """
-                DELETE FROM friends
-                WHERE request_from_id = ?
-                AND request_to_id = ?;
-                """;
-        jdbcTemplate.update(query, userIdA, userIdB);
+        sql.update(REMOVE_FRIEND, userIdA, userIdB);
+        eventPublisher.publishEvent(new FriendshipChangedEvent(userIdA, userIdB, false));
+    }
+
+    @Override
+    public boolean friendshipExists(Integer userIdA, Integer userIdB) {
+        return Boolean.TRUE.equals(sql.queryForObject(FRIENDSHIP_EXISTS, Boolean.class, userIdA, userIdB));
     }
 
+    private String columns(Projection projection) {
+        if (projection.isAll()) {
+            return "*";
+        }
+        StringBuilder columns = new StringBuilder("id");
+        for (String field : List.of("email", "login", "name", "birthday", "version")) {
+            if (projection.includes(field)) {
+                columns.append(", ").append(field);
+            }
+        }
+        return columns.toString();
+    }
+
+    private RowMapper<User> mapperFor(Projection projection) {
+        return projection.isAll() ? mapper : new UserRowMapper(projection);
+    }
+
+    @RequiredArgsConstructor
     private static class UserRowMapper implements RowMapper<User> {
+        private final Projection projection;
+
         @Override
         public User mapRow(ResultSet resultSet, int rowNum) throws SQLException {
-            return User.builder()
-                    .id(resultSet.getInt("ID"))
-                    .email(resultSet.getString("EMAIL"))
-                    .login(resultSet.getString("LOGIN"))
-                    .name(resultSet.getString("NAME"))
-                    .birthday(resultSet.getDate("BIRTHDAY").toLocalDate())
-                    .build();
+            User.UserBuilder user = User.builder().id(resultSet.getInt("ID"));
+            if (projection.includes("email")) {
+                user.email(resultSet.getString("EMAIL"));
+            }
+            if (projection.includes("login")) {
+                user.login(resultSet.getString("LOGIN"));
+            }
+            if (projection.includes("name")) {
+                user.name(resultSet.getString("NAME"));
+            }
+            if (projection.includes("birthday")) {
+                user.birthday(resultSet.getDate("BIRTHDAY").toLocalDate());
+            }
+            if (projection.includes("version")) {
+                user.version(resultSet.getInt("VERSION"));
+            }
+            return user.build();
         }
     }
 }
\ No newline at end of file
@@ -3,12 +3,17 @@ package ru.yandex.practicum.filmorate.storage.user;
 import java.util.List;
 
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.Projection;
 
 public interface UserStorage {
     List<User> findAll();
 
     User findById(Integer userId);
 
+    boolean exists(Integer userId);
+
+    List<User> findByIds(List<Integer> userIds);
+
     User create(User user);
 
     User update(User userUpdate);
@@ -22,4 +27,18 @@ public interface UserStorage {
     void addFriend(Integer userIdA, Integer userIdB);
 
     void removeFriend(Integer userIdA, Integer userIdB);
-}
\ No newline at end of file
+
+    boolean friendshipExists(Integer userIdA, Integer userIdB);
+
+    default List<User> findAll(Projection projection) {
+        return findAll();
+    }
+
+    default User findById(Integer userId, Projection projection) {
+        return findById(userId);
+    }
+
+    default List<User> findByIds(List<Integer> userIds, Projection projection) {
+        return findByIds(userIds);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.LoggedException;
+
+/**
+ * Sparse fieldset requested with {@code fields=}. Storages consult {@link #includes} to skip loading attributes
+ * nobody asked for, and {@link #apply} limits serialization to the same set. {@code id} is always included.
+ */
+public final class Projection {
+    public static final String FILTER_ID = "projection";
+    public static final String FULL_VIEW = "full";
+    public static final String SUMMARY_VIEW = "summary";
+    public static final Projection ALL = new Projection(null);
+    public static final Set<String> FILM_FIELDS = Set.of("id", "name", "description", "releaseDate", "duration",
+            "mpa", "genres", "likes", "likeCount", "version");
+    /**
+     * Film view with {@code likeCount} in place of the full set of user ids; the ids are served page by page
+     * from {@code GET /films/{id}/likes}.
+     */
+    public static final Projection FILM_SUMMARY = new Projection(FILM_FIELDS.stream()
+            .filter(field -> !field.equals("likes"))
+            .collect(Collectors.toCollection(TreeSet::new)));
+    public static final Set<String> USER_FIELDS = Set.of("id", "email", "login", "name", "birthday", "friends",
+            "version");
+
+    private final Set<String> fields;
+
+    private Projection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static Projection of(String fields, Set<String> allowed, Class<?> clazz) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (!allowed.containsAll(requested)) {
+            LoggedException.throwNew(ExceptionType.INVALID_PROJECTION, clazz, List.of());
+        }
+        requested.add("id");
+        return requested.containsAll(allowed) ? ALL : new Projection(Collections.unmodifiableSet(requested));
+    }
+
+    public static Projection forFilms(String fields, String view, Class<?> clazz) {
+        if (view != null && !FULL_VIEW.equals(view) && !SUMMARY_VIEW.equals(view)) {
+            LoggedException.throwNew(ExceptionType.INVALID_PROJECTION, clazz, List.of());
+        }
+        if ((fields == null || fields.isBlank()) && SUMMARY_VIEW.equals(view)) {
+            return FILM_SUMMARY;
+        }
+        return of(fields, FILM_FIELDS, clazz);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public String tagSuffix() {
+        return fields == null ? "" : "-" + String.join(".", fields);
+    }
+
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces concurrent identical reads: while a load for {@code (name, key)} is running, other callers wait for
+ * its result instead of repeating the queries. Results and exceptions are shared with every waiter, so loaders
+ * must return values nobody mutates. A waiter gives up after {@code max-wait-ms} and loads on its own.
+ */
+@Component
+public class SingleFlight {
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long maxWaitMs;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${filmorate.single-flight.max-wait-ms:2000}") long maxWaitMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V load(String name, Object key, Supplier<V> loader) {
+        Stats counters = stats.computeIfAbsent(name, this::register);
+        FlightKey flightKey = new FlightKey(name, key);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, own);
+        if (running == null) {
+            counters.executed.increment();
+            return (V) run(flightKey, own, loader);
+        }
+        try {
+            V result = (V) running.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            counters.shared.increment();
+            return result;
+        } catch (ExecutionException e) {
+            counters.shared.increment();
+            throw rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            counters.timedOut.increment();
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание загрузки " + name + " прервано", e);
+        }
+    }
+
+    private Object run(FlightKey flightKey, CompletableFuture<Object> own, Supplier<?> loader) {
+        try {
+            Object result = loader.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, own);
+        }
+    }
+
+    private RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private Stats register(String name) {
+        Stats registered = new Stats(
+                meterRegistry.counter("filmorate.single.flight.calls", "name", name, "outcome", "executed"),
+                meterRegistry.counter("filmorate.single.flight.calls", "name", name, "outcome", "shared"),
+                meterRegistry.counter("filmorate.single.flight.calls", "name", name, "outcome", "timed_out"));
+        Gauge.builder("filmorate.single.flight.dedup.ratio", registered, Stats::dedupRatio)
+                .tag("name", name)
+                .register(meterRegistry);
+        return registered;
+    }
+
+    private record FlightKey(String name, Object key) {
+    }
+
+    private record Stats(Counter executed, Counter shared, Counter timedOut) {
+        double dedupRatio() {
+            double total = executed.count() + shared.count() + timedOut.count();
+            return total == 0 ? 0 : shared.count() / total;
+        }
+    }
+}
@@ -5,16 +5,21 @@ import java.util.List;
 import java.util.Optional;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.ExceptionType;
 import ru.yandex.practicum.filmorate.exception.LoggedException;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 @Component
 @RequiredArgsConstructor
 public class Validators {
     public static final int MAX_FILM_DESCRIPTION_LENGTH = 200;
-    private final JdbcTemplate jdbcTemplate;
+    private final MpaDbStorage mpaStorage;
+    private final GenreDbStorage genreStorage;
 
     public boolean isValidString(String str) {
         return str != null && !str.isBlank();
@@ -54,53 +59,24 @@ public class Validators {
         }
     }
 
-    private boolean isExistingLike(Integer filmId, Integer userId) {
-        String query = """
-                    SELECT
-                    CASE
-                        WHEN (SELECT count(*) FROM "like" WHERE user_id = ? AND film_id = ?) > 0 THEN TRUE
-                        ELSE FALSE
-                    END;
-                """;
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, userId, filmId));
-    }
-
-    public void validateLikeExists(Integer filmId, Integer userId, Class<?> clazz) {
-        if (!isExistingLike(filmId, userId)) {
+    public void validateLikeExists(LikeStorage likes, Integer filmId, Integer userId, Class<?> clazz) {
+        if (!likes.exists(filmId, userId)) {
             LoggedException.throwNew(ExceptionType.USER_LIKE_NOT_EXISTS, clazz, List.of(userId, filmId));
         }
     }
 
-    public void validateLikeNotExists(Integer filmId, Integer userId, Class<?> clazz) {
-        if (isExistingLike(filmId, userId)) {
+    public void validateLikeNotExists(LikeStorage likes, Integer filmId, Integer userId, Class<?> clazz) {
+        if (likes.exists(filmId, userId)) {
             LoggedException.throwNew(ExceptionType.USER_LIKE_ALREADY_EXISTS, clazz, List.of(userId, filmId));
         }
     }
 
     private boolean isValidMpa(Integer mpaId) {
-        String query = """
-                    SELECT
-                    CASE
-                    	WHEN ? IN (SELECT id FROM mpa) THEN TRUE
-                    	ELSE FALSE
-                    END;
-                """;
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, mpaId));
-    }
-
-    private boolean isValidFilm(Integer filmId) {
-        String query = """
-                    SELECT
-                    CASE
-                    	WHEN ? IN (SELECT id FROM film) THEN TRUE
-                    	ELSE FALSE
-                    END;
-                """;
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, filmId));
-    }
-
-    public void validateFilmExists(Integer filmId, Class<?> clazz) {
-        if (!isValidFilm(filmId)) {
+        return mpaStorage.exists(mpaId);
+    }
+
+    public void validateFilmExists(FilmStorage films, Integer filmId, Class<?> clazz) {
+        if (!films.exists(filmId)) {
             LoggedException.throwNew(ExceptionType.FILM_NOT_FOUND, clazz, List.of(filmId));
         }
     }
@@ -112,14 +88,7 @@ public class Validators {
     }
 
     private boolean isValidGenre(Integer genreId) {
-        String query = """
-                    SELECT
-                    CASE
-                    	WHEN ? IN (SELECT id FROM genre) THEN TRUE
-                    	ELSE FALSE
-                    END;
-                """;
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, genreId));
+        return genreStorage.exists(genreId);
     }
 
     public void validateGenreExists(Integer genreId, Class<?> clazz) {
@@ -128,41 +97,20 @@ public class Validators {
         }
     }
 
-    private boolean isValidUser(Integer userId) {
-        String query = """
-                    SELECT
-                    CASE
-                    	WHEN ? IN (SELECT id FROM "user") THEN TRUE
-                    	ELSE FALSE
-                    END;
-                """;
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, userId));
-    }
-
-    public void validateUserExits(Integer userId, Class<?> clazz) {
-        if (!isValidUser(userId)) {
+    public void validateUserExits(UserStorage users, Integer userId, Class<?> clazz) {
+        if (!users.exists(userId)) {
             LoggedException.throwNew(ExceptionType.USER_NOT_FOUND, clazz, List.of(userId));
         }
     }
 
-    private boolean isValidFriend(Integer userIdA, Integer userIdB) {
-        String query = """
-                SELECT CASE
-                	WHEN (SELECT COUNT(*) FROM friends WHERE request_from_id = ? AND request_to_id = ?) > 0 THEN TRUE
-                	ELSE FALSE
-                END;
-                """;
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(query, Boolean.class, userIdA, userIdB));
-    }
-
-    public void validateFriendshipExists(Integer userIdA, Integer userIdB, Class<?> clazz) {
-        if (!isValidFriend(userIdA, userIdB)) {
+    public void validateFriendshipExists(UserStorage users, Integer userIdA, Integer userIdB, Class<?> clazz) {
+        if (!users.friendshipExists(userIdA, userIdB)) {
             LoggedException.throwNew(ExceptionType.INVALID_FRIENDSHIP_REMOVE, clazz, List.of(userIdA, userIdB));
         }
     }
 
-    public void validateFriendshipNotExists(Integer userIdA, Integer userIdB, Class<?> clazz) {
-        if (isValidFriend(userIdA, userIdB)) {
+    public void validateFriendshipNotExists(UserStorage users, Integer userIdA, Integer userIdB, Class<?> clazz) {
+        if (users.friendshipExists(userIdA, userIdB)) {
             LoggedException.throwNew(ExceptionType.INVALID_FRIENDSHIP_ADD, clazz, List.of(userIdA, userIdB));
         }
     }
@@ -1,3 +1,6 @@
+DELETE FROM feed_event;
+ALTER TABLE feed_event ALTER COLUMN id RESTART WITH 1;
+
 DELETE FROM mpa;
 ALTER TABLE mpa ALTER COLUMN id RESTART WITH 1;
 
@@ -1,3 +1,5 @@
+DROP TABLE IF EXISTS feed_event CASCADE;
+DROP TABLE IF EXISTS film_card CASCADE;
 DROP TABLE IF EXISTS friends CASCADE;
 DROP TABLE IF EXISTS "like" CASCADE;
 DROP TABLE IF EXISTS film_genre CASCADE;
@@ -22,7 +24,8 @@ CREATE TABLE IF NOT EXISTS film (
     description VARCHAR(255),
     release_date DATE,
     duration INTEGER,
-    mpa_id INTEGER REFERENCES mpa(id)
+    mpa_id INTEGER REFERENCES mpa(id),
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS film_genre (
@@ -37,20 +40,52 @@ CREATE TABLE IF NOT EXISTS "user" (
     email VARCHAR(255) NOT NULL UNIQUE,
     login VARCHAR(255) NOT NULL UNIQUE,
     name VARCHAR(255) NOT NULL,
-    birthday DATE
+    birthday DATE,
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS "like" (
     id SERIAL PRIMARY KEY,
     user_id INTEGER REFERENCES "user"(id) ON DELETE CASCADE,
     film_id INTEGER REFERENCES film(id) ON DELETE CASCADE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     UNIQUE (user_id, film_id)
 );
 
+CREATE INDEX IF NOT EXISTS like_created_at_idx ON "like" (created_at);
+CREATE INDEX IF NOT EXISTS like_film_user_idx ON "like" (film_id, user_id);
+
 CREATE TABLE IF NOT EXISTS friends (
     id SERIAL PRIMARY KEY,
     request_from_id INTEGER REFERENCES "user"(id) ON DELETE CASCADE,
     request_to_id INTEGER REFERENCES "user"(id) ON DELETE CASCADE,
     is_accepted BOOLEAN DEFAULT FALSE,
     UNIQUE (request_from_id, request_to_id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS film_card (
+    film_id INTEGER PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    release_date DATE,
+    duration INTEGER,
+    mpa_id INTEGER,
+    mpa_name VARCHAR(255),
+    genre_ids INTEGER ARRAY,
+    genre_names VARCHAR(255) ARRAY,
+    like_count INTEGER NOT NULL DEFAULT 0,
+    version INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS film_card_like_count_idx ON film_card (like_count DESC, film_id);
+
+CREATE TABLE IF NOT EXISTS feed_event (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INTEGER,
+    event_type VARCHAR(16) NOT NULL,
+    operation VARCHAR(16) NOT NULL,
+    entity_id INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS feed_event_user_idx ON feed_event (user_id, id);
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void shouldRejectWhenLimitAndQueueAreFull() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(new AdmissionProperties.Group(2, 1, 10, 0, 10, 2.0));
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void shouldAdmitQueuedRequestOnRelease() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(new AdmissionProperties.Group(1, 1, 10, 1, 5_000, 2.0));
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire();
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        while (limiter.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldShrinkOnLatencyGrowthAndRecoverWhenSaturated() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(new AdmissionProperties.Group(20, 2, 100, 0, 10, 2.0));
+        for (int i = 0; i < 50; i++) {
+            cycle(limiter, FAST);
+        }
+        int healthyLimit = limiter.getLimit();
+        assertThat(healthyLimit).isGreaterThan(20);
+
+        for (int i = 0; i < 50; i++) {
+            cycle(limiter, SLOW);
+        }
+        int overloadedLimit = limiter.getLimit();
+        assertThat(overloadedLimit).isLessThan(healthyLimit / 2);
+
+        for (int i = 0; i < 50; i++) {
+            cycle(limiter, FAST);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(overloadedLimit * 2);
+    }
+
+    @Test
+    public void shouldClassifyEndpointGroups() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(new AdmissionProperties(),
+                new SimpleMeterRegistry(), new ObjectMapper());
+
+        assertThat(filter.classify("PUT", "/films/1/like/2")).isEqualTo(EndpointGroup.WRITES);
+        assertThat(filter.classify("POST", "/films")).isEqualTo(EndpointGroup.WRITES);
+        assertThat(filter.classify("GET", "/films")).isEqualTo(EndpointGroup.HEAVY_READS);
+        assertThat(filter.classify("GET", "/users/1/feed")).isEqualTo(EndpointGroup.HEAVY_READS);
+        assertThat(filter.classify("GET", "/films/1")).isEqualTo(EndpointGroup.LIGHT_READS);
+        assertThat(filter.classify("GET", "/genres")).isEqualTo(EndpointGroup.LIGHT_READS);
+    }
+
+    /**
+     * Fills the limiter to its current limit and completes every request with the given latency.
+     */
+    private void cycle(AdaptiveLimiter limiter, long rttNanos) throws InterruptedException {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.backup;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BackupServiceTest {
+    private static final String[] TABLES = {"film", "\"user\"", "\"like\"", "film_genre", "friends", "mpa", "genre"};
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void shouldRestoreBackupIntoFreshDatabase(@TempDir Path directory) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BackupService backupService = new BackupService(dataSource, meterRegistry, directory);
+
+        BackupReport report = backupService.backup();
+
+        Path file = Path.of(report.file());
+        assertThat(file).exists().hasParent(directory);
+        assertThat(file.getFileName().toString()).endsWith(".sql.gz");
+        assertThat(report.statements()).isPositive();
+        assertThat(report.compressedBytes()).isEqualTo(file.toFile().length()).isLessThan(report.scriptBytes());
+        assertThat(meterRegistry.get("filmorate.backup.duration").timer().count()).isEqualTo(1);
+
+        DriverManagerDataSource target = new DriverManagerDataSource(
+                "jdbc:h2:mem:restore-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        backupService.restore(file, target);
+
+        JdbcTemplate restored = new JdbcTemplate(target);
+        for (String table : TABLES) {
+            String count = "SELECT COUNT(*) FROM " + table;
+            assertThat(restored.queryForObject(count, Integer.class))
+                    .as(table)
+                    .isEqualTo(jdbcTemplate.queryForObject(count, Integer.class));
+        }
+        assertThat(restored.queryForObject("SELECT COUNT(*) FROM film", Integer.class)).isPositive();
+        restored.execute("SHUTDOWN");
+    }
+
+    @Test
+    public void shouldRemovePartialFileWhenDumpFails(@TempDir Path directory) throws Exception {
+        ResultSet script = mock(ResultSet.class);
+        when(script.next()).thenThrow(new SQLException("Соединение разорвано"));
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery("SCRIPT DROP")).thenReturn(script);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenReturn(connection);
+        BackupService backupService = new BackupService(failing, new SimpleMeterRegistry(), directory);
+
+        assertThatThrownBy(backupService::backup)
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseInstanceOf(SQLException.class);
+
+        assertThat(directory).isEmptyDirectory();
+    }
+}
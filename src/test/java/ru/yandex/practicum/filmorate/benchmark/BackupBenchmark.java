@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.backup.BackupReport;
+import ru.yandex.practicum.filmorate.backup.BackupService;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Online backup of a file database while one thread keeps creating users and another keeps reading films.
+ * The latencies of that traffic during the backup are compared with the same traffic running alone for
+ * {@link #BASELINE}; restore is timed into a fresh in-memory database.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.datasource.url=jdbc:h2:file:./target/benchmark/backup",
+                "logging.level.ru.yandex.practicum.filmorate=WARN",
+                "logging.level.ru.yandex.practicum.filmorate.benchmark=INFO"})
+public class BackupBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(BackupBenchmark.class);
+    private static final Duration BASELINE = Duration.ofSeconds(5);
+    private static final DatasetSpec DATASET = DatasetSpec.builder().films(10_000).users(20_000).likes(500_000)
+            .friendships(200_000).build();
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    private final AtomicInteger users = new AtomicInteger();
+
+    @BeforeAll
+    void loadDataset() {
+        BenchmarkDataset.load(context, DATASET);
+        traffic(BASELINE);
+    }
+
+    @Test
+    public void testBackupUnderLiveTraffic(@TempDir Path directory) {
+        BackupService backupService = new BackupService(dataSource, new SimpleMeterRegistry(), directory);
+
+        report("без резервного копирования", traffic(BASELINE));
+        BackupReport[] backup = new BackupReport[1];
+        report("во время резервного копирования", traffic(() -> backup[0] = backupService.backup()));
+        log.info("Резервная копия: {} операторов, {} МиБ скрипта, {} МиБ сжато, {} мс, {} МиБ/с",
+                backup[0].statements(), backup[0].scriptBytes() >> 20, backup[0].compressedBytes() >> 20,
+                backup[0].durationMs(), String.format("%.1f", backup[0].throughputMbPerSecond()));
+
+        DriverManagerDataSource target = new DriverManagerDataSource(
+                "jdbc:h2:mem:restore-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Timing.once("восстановление в пустую базу", () -> backupService.restore(Path.of(backup[0].file()), target));
+        String likes = "SELECT COUNT(*) FROM \"like\"";
+        assertThat(new JdbcTemplate(target).queryForObject(likes, Long.class))
+                .isEqualTo(new JdbcTemplate(dataSource).queryForObject(likes, Long.class));
+    }
+
+    private Traffic traffic(Duration duration) {
+        return traffic(() -> {
+            try {
+                Thread.sleep(duration.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Runs {@code foreground} on the calling thread while a writer and a reader thread time each of their calls.
+     */
+    private Traffic traffic(Runnable foreground) {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Random random = new Random(42);
+        CompletableFuture<long[]> writes = CompletableFuture.supplyAsync(
+                () -> timeWhile(running, () -> userStorage.create(user(users.incrementAndGet()))));
+        CompletableFuture<long[]> reads = CompletableFuture.supplyAsync(
+                () -> timeWhile(running, () -> filmStorage.findById(1 + random.nextInt(DATASET.getFilms()))));
+        try {
+            foreground.run();
+        } finally {
+            running.set(false);
+        }
+        return new Traffic(writes.join(), reads.join());
+    }
+
+    private static long[] timeWhile(AtomicBoolean running, Runnable operation) {
+        long[] nanos = new long[1024];
+        int count = 0;
+        while (running.get()) {
+            long start = System.nanoTime();
+            operation.run();
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = System.nanoTime() - start;
+        }
+        nanos = Arrays.copyOf(nanos, count);
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String phase, Traffic traffic) {
+        log.info("Запись {}: {} операций, p50 {} мкс, p99 {} мкс, max {} мкс", phase, traffic.writes().length,
+                Timing.micros(Timing.percentile(traffic.writes(), 0.5)),
+                Timing.micros(Timing.percentile(traffic.writes(), 0.99)),
+                Timing.micros(traffic.writes()[traffic.writes().length - 1]));
+        log.info("Чтение {}: {} операций, p50 {} мкс, p99 {} мкс, max {} мкс", phase, traffic.reads().length,
+                Timing.micros(Timing.percentile(traffic.reads(), 0.5)),
+                Timing.micros(Timing.percentile(traffic.reads(), 0.99)),
+                Timing.micros(traffic.reads()[traffic.reads().length - 1]));
+    }
+
+    private static User user(int index) {
+        return User.builder()
+                .email("backup" + index + "@example.com")
+                .login("backup" + index)
+                .name("Пользователь " + index)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private record Traffic(long[] writes, long[] reads) {
+    }
+}
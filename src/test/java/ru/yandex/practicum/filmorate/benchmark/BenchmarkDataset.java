@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.dataset.DatasetGenerator;
+import ru.yandex.practicum.filmorate.dataset.DatasetLoader;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+
+/**
+ * Loads a synthetic dataset into a running context and rebuilds everything that is built on startup
+ * ({@code film_card} and the in-memory indexes) by publishing {@link ApplicationReadyEvent} again.
+ */
+final class BenchmarkDataset {
+    /**
+     * Keeps benchmark rows out of the file database the other tests share.
+     */
+    static final String IN_MEMORY_DB = "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+
+    private BenchmarkDataset() {
+    }
+
+    static void load(ConfigurableApplicationContext context, DatasetSpec spec) {
+        try {
+            Path directory = Files.createTempDirectory("filmorate-benchmark");
+            try {
+                new DatasetGenerator(spec).generate(directory);
+                new DatasetLoader(context.getBean(JdbcTemplate.class)).load(directory);
+            } finally {
+                FileSystemUtils.deleteRecursively(directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        context.publishEvent(new ApplicationReadyEvent(new SpringApplication(), new String[0], context,
+                Duration.ZERO));
+    }
+}
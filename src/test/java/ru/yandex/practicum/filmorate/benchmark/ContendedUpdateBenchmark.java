@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.dto.film.FilmUpdateDto;
+import ru.yandex.practicum.filmorate.model.dto.user.UserUpdateDto;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+/**
+ * Throughput of {@link FilmService#update} and {@link UserService#update} when {@value #THREADS} threads edit
+ * one record, against each thread editing its own. A versioned update reads the current version, sends it and,
+ * on a conflict, reads again and retries the way a client answered with 409 would; an unversioned one relies on
+ * the service's own retries and fails only once they run out. Each count is of completed updates.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {BenchmarkDataset.IN_MEMORY_DB, "logging.level.ru.yandex.practicum.filmorate=WARN",
+                "logging.level.ru.yandex.practicum.filmorate.benchmark=INFO"})
+public class ContendedUpdateBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(ContendedUpdateBenchmark.class);
+    private static final Duration DURATION = Duration.ofSeconds(3);
+    private static final int THREADS = 8;
+    private static final int HOT_ID = 1;
+    private static final int WARM_UP_UPDATES = 30_000;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @BeforeAll
+    void loadDataset() {
+        BenchmarkDataset.load(context, DatasetSpec.builder().films(100).users(100).likes(1_000).build());
+        // The first scenario in a fresh JVM runs at half speed even after Timing's warm-up, so the whole update
+        // path is warmed up here, away from the record the scenarios contend on.
+        for (int i = 0; i < WARM_UP_UPDATES; i++) {
+            updateFilm(HOT_ID + 1, null);
+            updateUser(HOT_ID + 1, null);
+        }
+    }
+
+    @Test
+    public void testContendedFilmUpdates() {
+        measure("фильм", this::updateFilm, id -> filmStorage.findById(id).getVersion());
+    }
+
+    @Test
+    public void testContendedUserUpdates() {
+        measure("пользователь", this::updateUser, id -> userStorage.findById(id).getVersion());
+    }
+
+    private void updateFilm(int id, Integer version) {
+        filmService.update(FilmUpdateDto.builder()
+                .id(id)
+                .name(Optional.of("Фильм " + version))
+                .description(Optional.of("Описание"))
+                .duration(Optional.empty())
+                .genres(Optional.empty())
+                .mpa(Optional.empty())
+                .version(version)
+                .build());
+    }
+
+    private void updateUser(int id, Integer version) {
+        userService.update(UserUpdateDto.builder()
+                .id(id)
+                .login("user" + id)
+                .email(Optional.empty())
+                .name(Optional.of("Пользователь " + version))
+                .version(version)
+                .build());
+    }
+
+    private void measure(String entity, Updater updater, IntUnaryOperator versionOf) {
+        AtomicInteger nextId = new AtomicInteger();
+        ThreadLocal<Integer> ownId = ThreadLocal.withInitial(() -> HOT_ID + 1 + nextId.getAndIncrement());
+        versioned(entity + ", с версией, своя запись у потока", updater, versionOf, ownId::get);
+        versioned(entity + ", с версией, одна запись", updater, versionOf, () -> HOT_ID);
+
+        LongAdder failed = new LongAdder();
+        Timing.throughput(entity + ", без версии, одна запись", THREADS, DURATION, () -> {
+            try {
+                updater.update(HOT_ID, null);
+            } catch (ConflictException e) {
+                failed.increment();
+            }
+        });
+        log.info("{}, без версии: {} обновлений исчерпали повторы", entity, failed.sum());
+    }
+
+    private void versioned(String name, Updater updater, IntUnaryOperator versionOf, IdSource ids) {
+        LongAdder attempts = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        Timing.throughput(name, THREADS, DURATION, () -> {
+            int id = ids.next();
+            while (true) {
+                attempts.increment();
+                try {
+                    updater.update(id, versionOf.applyAsInt(id));
+                    return;
+                } catch (ConflictException e) {
+                    conflicts.increment();
+                }
+            }
+        });
+        log.info("{}: {} конфликтов на {} попыток", name, conflicts.sum(), attempts.sum());
+    }
+
+    @FunctionalInterface
+    private interface Updater {
+        void update(int id, Integer version);
+    }
+
+    @FunctionalInterface
+    private interface IdSource {
+        int next();
+    }
+}
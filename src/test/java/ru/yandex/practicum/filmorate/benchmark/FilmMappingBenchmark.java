@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link FilmDbStorage} reads, which map rows without side queries and attach genres and likes afterwards (one
+ * scan of each relation for {@code findAll}, one query per relation and chunk of ids otherwise), against the same
+ * reads done the way the row mapper used to: an MPA and a genre query for every row while the cursor is open, then
+ * a like query per film.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = BenchmarkDataset.IN_MEMORY_DB)
+public class FilmMappingBenchmark {
+    private static final int FILMS = 5_000;
+    private static final List<Integer> HUNDRED_IDS = IntStream.rangeClosed(1, 100).boxed().toList();
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void loadDataset() {
+        BenchmarkDataset.load(context, DatasetSpec.builder().films(FILMS).users(5_000).likes(100_000).build());
+    }
+
+    @Test
+    public void testMapping() {
+        Timing.latencies("findAll, пакетное присоединение, " + FILMS + " фильмов", 20,
+                () -> assertThat(filmStorage.findAll()).hasSize(FILMS));
+        Timing.latencies("findAll, запросы на каждую строку, " + FILMS + " фильмов", 20,
+                () -> assertThat(perRow("")).hasSize(FILMS));
+        Timing.latencies("findByIds, пакетное присоединение, 100 фильмов", 200,
+                () -> assertThat(filmStorage.findByIds(HUNDRED_IDS)).hasSize(100));
+        Timing.latencies("findByIds, запросы на каждую строку, 100 фильмов", 200,
+                () -> assertThat(perRow("WHERE id <= 100")).hasSize(100));
+    }
+
+    private List<Film> perRow(String where) {
+        List<Film> films = jdbcTemplate.query("SELECT * FROM film " + where, new PerRowMapper());
+        for (Film film : films) {
+            film.getLikes().addAll(jdbcTemplate.queryForList(
+                    "SELECT user_id FROM \"like\" WHERE film_id = ?", Integer.class, film.getId()));
+        }
+        return films;
+    }
+
+    private class PerRowMapper implements RowMapper<Film> {
+        @Override
+        public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
+            int filmId = rs.getInt("id");
+            Mpa mpa = jdbcTemplate.queryForObject("SELECT * FROM mpa WHERE id = ?",
+                    (mpaRs, n) -> Mpa.builder().id(mpaRs.getInt("id")).name(mpaRs.getString("name")).build(),
+                    rs.getInt("mpa_id"));
+            List<Genre> genres = jdbcTemplate.query("""
+                    SELECT g.id, g.name FROM film_genre AS fg
+                    JOIN genre AS g ON g.id = fg.genre_id
+                    WHERE fg.film_id = ?
+                    ORDER BY g.id;
+                    """, (genreRs, n) -> Genre.builder().id(genreRs.getInt("id")).name(genreRs.getString("name"))
+                    .build(), filmId);
+            return Film.builder()
+                    .id(filmId)
+                    .name(rs.getString("name"))
+                    .description(rs.getString("description"))
+                    .releaseDate(rs.getDate("release_date").toLocalDate())
+                    .duration(rs.getInt("duration"))
+                    .mpa(mpa)
+                    .genres(new ArrayList<>(genres))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hydrating {@value #IDS} random ids with one multi-get against {@value #IDS} single gets, through the storages
+ * and end to end over HTTP. Each sample draws a fresh set of ids.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {BenchmarkDataset.IN_MEMORY_DB, "filmorate.exchange-log.enabled=false",
+                "filmorate.admission.enabled=false"})
+public class HydrationBenchmark {
+    private static final int IDS = 100;
+    private static final int SAMPLES = 200;
+    private static final DatasetSpec DATASET = DatasetSpec.builder().films(2_000).users(5_000).likes(100_000).build();
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Random random = new Random(42);
+
+    @BeforeAll
+    void loadDataset() {
+        BenchmarkDataset.load(context, DATASET);
+    }
+
+    @Test
+    public void testStorageHydration() {
+        Timing.latencies("FilmStorage.findByIds, " + IDS + " id", SAMPLES,
+                () -> assertThat(filmStorage.findByIds(ids(DATASET.getFilms()))).hasSize(IDS));
+        Timing.latencies("FilmStorage.findById x " + IDS, SAMPLES,
+                () -> ids(DATASET.getFilms()).forEach(filmStorage::findById));
+        Timing.latencies("UserStorage.findByIds, " + IDS + " id", SAMPLES,
+                () -> assertThat(userStorage.findByIds(ids(DATASET.getUsers()))).hasSize(IDS));
+        Timing.latencies("UserStorage.findById x " + IDS, SAMPLES,
+                () -> ids(DATASET.getUsers()).forEach(userStorage::findById));
+    }
+
+    @Test
+    public void testHttpHydration() {
+        for (String resource : new String[]{"films", "users"}) {
+            int size = resource.equals("films") ? DATASET.getFilms() : DATASET.getUsers();
+            Timing.latencies("GET /" + resource + "?ids=, " + IDS + " id", SAMPLES, () -> get("/" + resource
+                    + "?ids=" + ids(size).stream().map(String::valueOf).collect(Collectors.joining(","))));
+            Timing.latencies("GET /" + resource + "/{id} x " + IDS, SAMPLES,
+                    () -> ids(size).forEach(id -> get("/" + resource + "/" + id)));
+        }
+    }
+
+    private List<Integer> ids(int size) {
+        return random.ints(1, size + 1).distinct().limit(IDS).boxed().toList();
+    }
+
+    private void get(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(path + " -> " + response.statusCode());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
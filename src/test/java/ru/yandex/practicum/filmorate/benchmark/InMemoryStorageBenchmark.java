@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert, like and read throughput of {@link InMemoryFilmStorage} from one and from several threads. Likes come
+ * from a fixed pool of users, so no film collects more than {@link #USERS} likes.
+ */
+@Tag("benchmark")
+public class InMemoryStorageBenchmark {
+    private static final Duration DURATION = Duration.ofSeconds(3);
+    private static final int FILMS = 1_000;
+    private static final int USERS = 10_000;
+
+    private static Film newFilm(int index) {
+        return Film.builder()
+                .name("Film " + index)
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new ArrayList<>())
+                .build();
+    }
+
+    @Test
+    public void testCreateThroughput() {
+        for (int threads : new int[]{1, 4, 8}) {
+            InMemoryFilmStorage storage = new InMemoryFilmStorage();
+            double perSecond = Timing.throughput("create", threads, DURATION, () -> storage.create(newFilm(0)));
+            assertThat(perSecond).isPositive();
+        }
+    }
+
+    @Test
+    public void testLikeAndReadThroughput() {
+        for (int threads : new int[]{1, 4, 8}) {
+            InMemoryFilmStorage storage = new InMemoryFilmStorage();
+            for (int i = 0; i < FILMS; i++) {
+                storage.create(newFilm(i));
+            }
+            AtomicInteger users = new AtomicInteger();
+            Timing.throughput("addLike, Zipf-подобный выбор фильма", threads, DURATION,
+                    () -> storage.addLike(hotFilm(), users.incrementAndGet() % USERS));
+            Timing.throughput("findById самого популярного фильма", threads, DURATION,
+                    () -> storage.findById(1));
+            Timing.throughput("findById при параллельных лайках", threads, DURATION, () -> {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    storage.addLike(hotFilm(), users.incrementAndGet() % USERS);
+                } else {
+                    storage.findById(hotFilm());
+                }
+            });
+            assertThat(storage.getLikes(1)).isNotEmpty();
+        }
+    }
+
+    /**
+     * Film ids 1..FILMS with probability roughly proportional to 1 / id.
+     */
+    private static int hotFilm() {
+        return (int) Math.min(FILMS, Math.floor(Math.exp(ThreadLocalRandom.current().nextDouble() * Math.log(FILMS))));
+    }
+}
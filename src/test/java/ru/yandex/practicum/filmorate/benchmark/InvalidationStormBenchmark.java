@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBus;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationProperties;
+import ru.yandex.practicum.filmorate.invalidation.LoopbackTransport;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Message volume and staleness on a second node while {@value #WRITERS} threads like random films by random users,
+ * {@value #LIKES_PER_SECOND} likes per second in total for five seconds, with the default flush interval and key
+ * limit. The other node keeps a {@link LikeMatrix} over the shared
+ * storage and applies each batch the way it does in production: re-reading the named films, or rebuilding on a
+ * catch-all. Each storm runs twice: with the film key alone, as sent now, and with a per-user recommendation key
+ * next to it, as sent before, when a catch-all recommendation key also rebuilt the matrix. Staleness is the time
+ * from the oldest like in a batch until the batch has been applied.
+ */
+@Tag("benchmark")
+public class InvalidationStormBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationStormBenchmark.class);
+    private static final int WRITERS = 4;
+    private static final int LIKES_PER_SECOND = 16_000;
+    private static final int LIKES_PER_WRITER = LIKES_PER_SECOND * 5 / WRITERS;
+    private static final long NANOS_PER_LIKE = TimeUnit.SECONDS.toNanos(1) * WRITERS / LIKES_PER_SECOND;
+    private static final int USERS = 100_000;
+
+    @Test
+    public void testLikeStorm() throws Exception {
+        for (int films : new int[]{50, 5_000}) {
+            storm(films, true);
+            storm(films, false);
+        }
+    }
+
+    private void storm(int films, boolean userKeys) throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < films; i++) {
+            storage.create(film());
+        }
+        LikeMatrix matrix = new LikeMatrix(new InMemoryLikeStorage(storage), event -> { });
+        matrix.rebuild();
+        SimpleMeterRegistry senderMetrics = new SimpleMeterRegistry();
+        List<Long> staleness = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rebuilds = new AtomicInteger();
+        LongAdder applyNanos = new LongAdder();
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus sender = new InvalidationBus(transport, event -> { }, senderMetrics,
+                new InvalidationProperties());
+        InvalidationBus receiver = new InvalidationBus(transport, event -> {
+            InvalidationBatch batch = (InvalidationBatch) event;
+            long start = System.nanoTime();
+            if (batch.contains(InvalidationKey.Kind.ALL_FILMS)
+                    || userKeys && batch.contains(InvalidationKey.Kind.ALL_RECOMMENDATIONS)) {
+                rebuilds.incrementAndGet();
+                matrix.rebuild();
+            } else {
+                matrix.onRemoteInvalidation(batch);
+            }
+            applyNanos.add(System.nanoTime() - start);
+            staleness.add(System.currentTimeMillis() - batch.oldestMillis());
+        }, new SimpleMeterRegistry(), new InvalidationProperties());
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        for (int writer = 0; writer < WRITERS; writer++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long started = System.nanoTime();
+                for (int i = 0; i < LIKES_PER_WRITER; i++) {
+                    LockSupport.parkNanos(started + i * NANOS_PER_LIKE - System.nanoTime());
+                    int filmId = 1 + random.nextInt(films);
+                    int userId = 1 + random.nextInt(USERS);
+                    storage.addLike(filmId, userId);
+                    if (userKeys) {
+                        sender.publish(InvalidationKey.film(filmId), InvalidationKey.recommendations(userId));
+                    } else {
+                        sender.onLikeChanged(new LikeChangedEvent(filmId, userId, true, Instant.now()));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        sender.close();
+        receiver.close();
+
+        long[] sorted = staleness.stream().mapToLong(Long::longValue).sorted().toArray();
+        assertThat(sorted).isNotEmpty();
+        log.info("{} фильмов, {}: {} лайков -> {} пакетов, {} ключей, {} перестроений; устаревание p50 {} мс, "
+                        + "p99 {} мс, max {} мс; применение {} мс",
+                films, userKeys ? "ключи фильма и пользователя" : "только ключ фильма", WRITERS * LIKES_PER_WRITER,
+                sent(senderMetrics, "filmorate.invalidation.batches"),
+                sent(senderMetrics, "filmorate.invalidation.keys"), rebuilds.get(),
+                Timing.percentile(sorted, 0.5), Timing.percentile(sorted, 0.99), sorted[sorted.length - 1],
+                TimeUnit.NANOSECONDS.toMillis(applyNanos.sum()));
+        assertThat(Arrays.stream(matrix.usersOf(1)).boxed().toList())
+                .containsExactlyInAnyOrderElementsOf(storage.findById(1).getLikes());
+    }
+
+    private static long sent(SimpleMeterRegistry metrics, String name) {
+        return (long) metrics.get(name).tag("direction", "sent").counter().count();
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .name("Фильм")
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new ArrayList<>())
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogFilmStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogLikeStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogStructuredStore;
+import ru.yandex.practicum.filmorate.storage.log.LogUserStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput of the log-structured storages against the H2 ones, and the time each needs to bring
+ * the whole working set back: replaying the log or loading a snapshot for the former, reading every film with
+ * its likes and every user for the latter. Both sides get a no-op event publisher, so index listeners stay out
+ * of the numbers. H2 runs from a file, as in production; it does not force each commit to disk, the log does.
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.datasource.url=jdbc:h2:file:./target/benchmark/log-vs-db",
+                "logging.level.ru.yandex.practicum.filmorate.storage=WARN"})
+public class LogStorageBenchmark {
+    private static final Duration DURATION = Duration.ofSeconds(3);
+    private static final int THREADS = 8;
+    private static final int FILMS = 1_000;
+    private static final int USERS = 5_000;
+    private static final ApplicationEventPublisher NO_EVENTS = event -> { };
+
+    @Autowired
+    private SqlRunner sql;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private Validators validators;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWritesAndRecovery() throws Exception {
+        run("H2", new FilmDbStorage(sql, genreService, NO_EVENTS), new UserDbStorage(sql, NO_EVENTS),
+                new LikeDbStorage(sql, NO_EVENTS));
+
+        try (LogStructuredStore store = openLog()) {
+            run("журнал", new LogFilmStorage(store, NO_EVENTS), new LogUserStorage(store, NO_EVENTS),
+                    new LogLikeStorage(store, NO_EVENTS));
+        }
+        long logBytes;
+        try (var files = Files.list(directory)) {
+            logBytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        Timing.once("журнал: восстановление из лога, " + logBytes / 1024 + " КиБ", () -> reopen(false));
+        reopen(true);
+        Timing.once("журнал: восстановление из снимка", () -> reopen(false));
+    }
+
+    private void run(String name, FilmStorage films, UserStorage users, LikeStorage likes) {
+        AtomicInteger created = new AtomicInteger();
+        int firstUser = users.create(user(created.incrementAndGet())).getId();
+        while (created.get() < USERS) {
+            users.create(user(created.incrementAndGet()));
+        }
+        int firstFilm = films.create(film()).getId();
+        for (int i = 1; i < FILMS; i++) {
+            films.create(film());
+        }
+        Timing.throughput(name + ": создание пользователя", THREADS, DURATION,
+                () -> users.create(user(created.incrementAndGet())));
+        AtomicInteger pairs = new AtomicInteger();
+        Timing.throughput(name + ": лайк", THREADS, DURATION, () -> {
+            int pair = pairs.getAndIncrement();
+            likes.addLike(firstFilm + pair % FILMS, firstUser + pair / FILMS % USERS);
+        });
+        Timing.once(name + ": чтение всех фильмов и пользователей", () -> {
+            assertThat(films.findAll()).hasSizeGreaterThanOrEqualTo(FILMS);
+            assertThat(users.findAll()).isNotEmpty();
+        });
+    }
+
+    private LogStructuredStore openLog() throws IOException {
+        return new LogStructuredStore(directory, Long.MAX_VALUE, true, validators);
+    }
+
+    /**
+     * Opens the store again, which replays the newest snapshot and the log after it, and closes it.
+     */
+    private void reopen(boolean snapshot) {
+        try (LogStructuredStore store = openLog()) {
+            if (snapshot) {
+                store.snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .name("Фильм")
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new ArrayList<>())
+                .build();
+    }
+
+    private static User user(int index) {
+        return User.builder()
+                .email("user" + index + "@example.com")
+                .login("user" + index)
+                .name("Пользователь " + index)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
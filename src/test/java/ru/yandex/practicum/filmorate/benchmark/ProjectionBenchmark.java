@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and latency of the same {@value #IDS} films and users, ids {@code 1..IDS}, read through the
+ * multi-get endpoints with each projection. With 200 likes per film on average the full film view is dominated
+ * by like ids.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {BenchmarkDataset.IN_MEMORY_DB, "filmorate.exchange-log.enabled=false",
+                "filmorate.admission.enabled=false"})
+public class ProjectionBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionBenchmark.class);
+    private static final int IDS = 100;
+    private static final int SAMPLES = 300;
+    private static final String IDS_PARAMETER = "?ids=" + IntStream.rangeClosed(1, IDS)
+            .mapToObj(String::valueOf)
+            .collect(Collectors.joining(","));
+    private static final Map<String, String> FILM_PROJECTIONS = Map.of(
+            "полный", "",
+            "view=summary", "&view=summary",
+            "id,name,mpa", "&fields=id,name,mpa",
+            "id,name,mpa,genres", "&fields=id,name,mpa,genres");
+    private static final Map<String, String> USER_PROJECTIONS = Map.of(
+            "полный", "",
+            "id,login,name", "&fields=id,login,name");
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void loadDataset() {
+        BenchmarkDataset.load(context, DatasetSpec.builder().films(1_000).users(5_000).likes(200_000)
+                .friendships(50_000).build());
+    }
+
+    @Test
+    public void testPayloadAndLatencyPerProjection() {
+        measure("/films", FILM_PROJECTIONS);
+        measure("/users", USER_PROJECTIONS);
+    }
+
+    private void measure(String resource, Map<String, String> projections) {
+        projections.forEach((name, query) -> {
+            String path = resource + IDS_PARAMETER + query;
+            int bytes = get(path);
+            assertThat(bytes).isPositive();
+            log.info("{} {}: {} байт на {} записей", resource, name, bytes, IDS);
+            Timing.latencies(resource + " " + name, SAMPLES, () -> get(path));
+        });
+    }
+
+    private int get(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept-Encoding", "identity")
+                .build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(path + " -> " + response.statusCode());
+            }
+            return response.body().length;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.config.TestConfig;
+import ru.yandex.practicum.filmorate.dataset.DatasetSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests per second for {@code GET /films/popular} served from {@code ResponseCache} bytes (the default
+ * {@code count=10}) against the same list serialized on every request ({@code count=11} bypasses the cache).
+ * Both go through the same filters and the same in-memory popularity index.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = TestConfig.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {BenchmarkDataset.IN_MEMORY_DB, "filmorate.exchange-log.enabled=false",
+                "filmorate.admission.enabled=false"})
+public class ResponseCacheBenchmark {
+    private static final Duration DURATION = Duration.ofSeconds(5);
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void loadDataset() {
+        BenchmarkDataset.load(context, DatasetSpec.builder().build());
+    }
+
+    @Test
+    public void testPopularFilmsThroughput() {
+        for (String encoding : new String[]{"identity", "gzip"}) {
+            double cached = Timing.throughput("/films/popular, кеш байтов, " + encoding, THREADS, DURATION,
+                    () -> get("/films/popular", encoding));
+            double serialized = Timing.throughput("/films/popular?count=11, сериализация, " + encoding, THREADS,
+                    DURATION, () -> get("/films/popular?count=11", encoding));
+
+            assertThat(cached).isPositive();
+            assertThat(serialized).isPositive();
+        }
+    }
+
+    private void get(String path, String encoding) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept-Encoding", encoding)
+                .build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(path + " -> " + response.statusCode());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timing loops for the tests tagged {@code benchmark} ({@code mvn test -Pbenchmark}). Every measurement runs
+ * a warm-up of the same length first; the numbers are indicative only, there is no forking or JIT control.
+ */
+final class Timing {
+    private static final Logger log = LoggerFactory.getLogger(Timing.class);
+
+    private Timing() {
+    }
+
+    /**
+     * Runs {@code operation} from {@code threads} threads for {@code duration} and logs operations per second.
+     */
+    static double throughput(String name, int threads, Duration duration, Runnable operation) {
+        run(threads, duration, operation);
+        double perSecond = run(threads, duration, operation) * 1e9 / duration.toNanos();
+        log.info("{}: {} оп/с ({} потоков)", name, String.format("%.0f", perSecond), threads);
+        return perSecond;
+    }
+
+    /**
+     * Times {@code samples} sequential calls of {@code operation} and logs the median, p99 and maximum.
+     *
+     * @return latencies in nanoseconds, sorted
+     */
+    static long[] latencies(String name, int samples, Runnable operation) {
+        for (int i = 0; i < samples; i++) {
+            operation.run();
+        }
+        long[] nanos = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        log.info("{}: p50 {} мкс, p99 {} мкс, max {} мкс", name, micros(percentile(nanos, 0.5)),
+                micros(percentile(nanos, 0.99)), micros(nanos[nanos.length - 1]));
+        return nanos;
+    }
+
+    /**
+     * Times a single call of {@code operation} and logs it in milliseconds.
+     */
+    static long once(String name, Runnable operation) {
+        long start = System.nanoTime();
+        operation.run();
+        long nanos = System.nanoTime() - start;
+        log.info("{}: {} мс", name, String.format("%.1f", nanos / 1e6));
+        return nanos;
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))];
+    }
+
+    static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1e3);
+    }
+
+    private static long run(int threads, Duration duration, Runnable operation) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        try {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    while (running.get()) {
+                        operation.run();
+                        operations.increment();
+                    }
+                }, executor));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return operations.sum();
+    }
+}
@@ -1,21 +1,34 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import ru.yandex.practicum.filmorate.config.ControllerTest;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+
 @ControllerTest
 public class FilmControllerTest {
     @Autowired
     private WebTestClient webTestClient;
 
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void shouldFailOnInvalidInput_createFilmTest_emptyFilm() {
         Film film = Film.builder().build();
@@ -106,6 +119,444 @@ public class FilmControllerTest {
                 .expectStatus()
                 .is2xxSuccessful();
     }
-}
 
+    @Test
+    void shouldAnswerRepeatPollsWithoutDbQueries_conditionalGetTest() {
+        for (String uri : new String[]{"/films/1", "/films/popular?count=5", "/genres", "/mpa", "/mpa/1"}) {
+            String etag = webTestClient.get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .returnResult(String.class)
+                    .getResponseHeaders()
+                    .getETag();
+            assertThat(etag).isNotBlank();
+
+            clearInvocations(jdbcTemplate);
+            webTestClient.get()
+                    .uri(uri)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .exchange()
+                    .expectStatus()
+                    .isNotModified();
+            verifyNoInteractions(jdbcTemplate);
+        }
+    }
+
+    @Test
+    void shouldNotTagOrConfirmUnknownFilm_conditionalGetTest() {
+        String etag = webTestClient.get()
+                .uri("/films/1")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri("/films/9999")
+                .header(HttpHeaders.IF_NONE_MATCH, etag.replace("f1-", "f9999-"))
+                .exchange()
+                .expectStatus()
+                .isNotFound()
+                .expectHeader()
+                .doesNotExist(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void shouldNotConfirmUnknownReferenceIds_conditionalGetTest() {
+        for (String prefix : new String[]{"genres", "mpa"}) {
+            String etag = webTestClient.get()
+                    .uri("/{prefix}/1", prefix)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .returnResult(String.class)
+                    .getResponseHeaders()
+                    .getETag();
+
+            webTestClient.get()
+                    .uri("/{prefix}/999", prefix)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag.replace(prefix + "1-", prefix + "999-"))
+                    .exchange()
+                    .expectStatus()
+                    .isNotFound();
+        }
+    }
+
+    @Test
+    void shouldChangeEtagAfterLike_conditionalGetTest() {
+        String etag = webTestClient.get()
+                .uri("/films/2")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.put()
+                .uri("/films/2/like/1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+
+        webTestClient.get()
+                .uri("/films/2")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .value(HttpHeaders.ETAG, newEtag -> assertThat(newEtag).isNotEqualTo(etag));
+    }
+
+    @Test
+    void shouldServeSameBytesFromResponseCache_popularTest() {
+        byte[] first = webTestClient.get()
+                .uri("/films/popular")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(3)
+                .returnResult()
+                .getResponseBody();
+
+        clearInvocations(jdbcTemplate);
+        byte[] second = webTestClient.get()
+                .uri("/films/popular")
+                .exchange()
+                .expectBody()
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(second).isEqualTo(first);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void shouldServeGzipWhenAccepted_responseCacheTest() {
+        for (String acceptEncoding : new String[]{"gzip", "deflate, gzip;q=0.5", "*"}) {
+            webTestClient.get()
+                    .uri("/genres")
+                    .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectHeader()
+                    .value(HttpHeaders.ETAG, etag -> assertThat(etag).endsWith("-gz\""));
+        }
+    }
+
+    @Test
+    void shouldServePlainJsonWhenGzipRefused_responseCacheTest() {
+        for (String acceptEncoding : new String[]{"gzip;q=0", "br, *;q=0", "*, gzip;q=0", "identity"}) {
+            webTestClient.get()
+                    .uri("/genres")
+                    .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectHeader()
+                    .value(HttpHeaders.ETAG, etag -> assertThat(etag).doesNotEndWith("-gz\""))
+                    .expectBody()
+                    .jsonPath("$.length()").isEqualTo(6);
+        }
+    }
+
+    @Test
+    void shouldRankNameMatchesFirst_searchTest() {
+        Film film = Film.builder()
+                .name("Приключения Буратино")
+                .description("Деревянный мальчик попадает в приключение и встречает огров.")
+                .releaseDate(LocalDate.of(1975, 1, 1))
+                .duration(132)
+                .mpa(Mpa.builder().id(1).build())
+                .build();
+        webTestClient.post()
+                .uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+
+        webTestClient.get()
+                .uri("/films/search?q=Огр")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].name").isEqualTo("Шрек")
+                .jsonPath("$[1].name").isEqualTo("Приключения Буратино");
+
+        webTestClient.get()
+                .uri("/films/search?q=приключение буратино")
+                .exchange()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("Приключения Буратино")
+                .jsonPath("$[1].name").isEqualTo("Шрек");
+    }
+
+    @Test
+    void shouldCombineGenreMpaAndYearFilters_filterTest() {
+        webTestClient.get()
+                .uri("/films?genreId=2&yearFrom=1994&yearTo=1994")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[1].id").isEqualTo(2);
+
+        webTestClient.get()
+                .uri("/films?genreId=1&genreId=6&mpaId=4")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(1);
+
+        webTestClient.get()
+                .uri("/films?mpaId=2&yearTo=2005")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Шрек");
+    }
+
+    @Test
+    void shouldFollowLikesInScopedPopularLists_popularTest() {
+        webTestClient.get()
+                .uri("/films/popular?year=2001")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Шрек");
+
+        webTestClient.get()
+                .uri("/films/popular?genreId=2&year=1994&count=1")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(1);
+
+        for (int userId : new int[]{1, 2}) {
+            webTestClient.delete()
+                    .uri("/films/1/like/" + userId)
+                    .exchange()
+                    .expectStatus()
+                    .is2xxSuccessful();
+        }
 
+        webTestClient.get()
+                .uri("/films/popular?genreId=2")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(2)
+                .jsonPath("$[1].id").isEqualTo(1);
+    }
+
+    @Test
+    void shouldRankRecentLikes_trendingTest() {
+        webTestClient.get()
+                .uri("/films/trending?window=24h")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(3);
+
+        for (String window : new String[]{"0h", "30d", "вчера"}) {
+            webTestClient.get()
+                    .uri("/films/trending?window=" + window)
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest();
+        }
+
+        webTestClient.post()
+                .uri("/admin/trending/replay")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.replayedLikes").isNumber();
+    }
+
+    @Test
+    void shouldRejectNonPositiveCount_similarTest() {
+        for (String count : new String[] {"-1", "0"}) {
+            webTestClient.get()
+                    .uri("/films/1/similar?count={count}", count)
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.statusCode").isEqualTo(400);
+        }
+    }
+
+    @Test
+    void shouldReturnFilmsInRequestOrderAndReportMissing_batchTest() {
+        webTestClient.get()
+                .uri("/films?ids=3,999,1,3")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.items[0].id").isEqualTo(3)
+                .jsonPath("$.items[0].mpa.name").isEqualTo("PG")
+                .jsonPath("$.items[1].id").isEqualTo(1)
+                .jsonPath("$.missingIds.length()").isEqualTo(1)
+                .jsonPath("$.missingIds[0]").isEqualTo(999);
+    }
+
+    @Test
+    void shouldSerializeOnlyRequestedFields_projectionTest() {
+        webTestClient.get()
+                .uri("/films/3?fields=name,mpa")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(3)
+                .jsonPath("$.name").isEqualTo("Шрек")
+                .jsonPath("$.mpa.name").isEqualTo("PG")
+                .jsonPath("$.likes").doesNotExist()
+                .jsonPath("$.genres").doesNotExist()
+                .jsonPath("$.description").doesNotExist();
+
+        webTestClient.get()
+                .uri("/films?fields=name")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].name").exists()
+                .jsonPath("$[0].likes").doesNotExist();
+
+        webTestClient.get()
+                .uri("/films/3")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.likes").exists()
+                .jsonPath("$.genres").exists();
+
+        webTestClient.get()
+                .uri("/films?fields=name,rating")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void shouldReturnLikeCountAndPageLikes_summaryTest() {
+        webTestClient.get()
+                .uri("/films/3?view=summary")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.likeCount").isEqualTo(3)
+                .jsonPath("$.genres").exists()
+                .jsonPath("$.likes").doesNotExist();
+
+        webTestClient.get()
+                .uri("/films/popular?view=summary")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].likeCount").isNumber()
+                .jsonPath("$[0].likes").doesNotExist();
+
+        webTestClient.get()
+                .uri("/films/3/likes?limit=2")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.items[0]").isEqualTo(1)
+                .jsonPath("$.nextCursor").isEqualTo(2);
+
+        webTestClient.get()
+                .uri("/films/3/likes?limit=2&after=2")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0]").isEqualTo(3)
+                .jsonPath("$.nextCursor").doesNotExist();
+
+        webTestClient.get()
+                .uri("/films/999/likes")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void shouldExplainNamedStatementWithoutApplyingIt_sqlAdminTest() {
+        long callsBefore = sqlCalls("like.findPageByFilmId");
+        webTestClient.get()
+                .uri("/films/1/likes")
+                .exchange()
+                .expectStatus()
+                .isOk();
+        assertThat(sqlCalls("like.findPageByFilmId")).isEqualTo(callsBefore + 1);
+
+        webTestClient.post()
+                .uri("/admin/sql/film.findById/explain")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("film.findById")
+                .jsonPath("$.plan").value(plan -> assertThat((String) plan).containsIgnoringCase("film"));
+
+        webTestClient.post()
+                .uri("/admin/sql/film.delete/explain")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Object[]{1})
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.get()
+                .uri("/films/1")
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.post()
+                .uri("/admin/sql/film.nothing/explain")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    private long sqlCalls(String statementId) {
+        List<Map<String, Object>> stats = webTestClient.get()
+                .uri("/admin/sql")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                })
+                .returnResult()
+                .getResponseBody();
+        assertThat(stats).isNotNull();
+        return stats.stream()
+                .filter(statement -> statementId.equals(statement.get("id")))
+                .map(statement -> ((Number) statement.get("calls")).longValue())
+                .findFirst()
+                .orElseThrow();
+    }
+}
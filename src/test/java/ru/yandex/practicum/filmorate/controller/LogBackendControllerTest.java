@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.config.ControllerTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ControllerTest
+public class LogBackendControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void logBackend(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("filmorate-log").toString();
+        registry.add("filmorate.storage.backend", () -> "log");
+        registry.add("filmorate.storage.log.dir", () -> directory);
+        registry.add("filmorate.storage.log.fsync", () -> "false");
+    }
+
+    @Test
+    void shouldCreateUpdateAndLikeFilm_logBackendTest() {
+        Film created = webTestClient.post()
+                .uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film("Журнал", null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Film.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(created).isNotNull();
+        User user = webTestClient.post()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(User.builder()
+                        .email("log@example.com")
+                        .login("log")
+                        .name("Log")
+                        .birthday(LocalDate.of(1990, 1, 1))
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(User.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(user).isNotNull();
+
+        webTestClient.put()
+                .uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film("Журнал, режиссёрская версия", created.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Журнал, режиссёрская версия");
+
+        webTestClient.put()
+                .uri("/films/{filmId}/like/{userId}", created.getId(), user.getId())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/films/{id}/likes", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0]").isEqualTo(user.getId());
+
+        webTestClient.delete()
+                .uri("/films/{id}/like/{userId}", created.getId(), user.getId())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/films/{id}/likes", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items").isEmpty();
+    }
+
+    @Test
+    void shouldAnswerNotFoundForUnknownFilm_logBackendTest() {
+        webTestClient.put()
+                .uri("/films/{filmId}/like/{userId}", 9999, 1)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static Film film(String name, Integer id) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .build();
+    }
+}
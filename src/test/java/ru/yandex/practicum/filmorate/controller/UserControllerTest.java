@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -8,8 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import ru.yandex.practicum.filmorate.config.ControllerTest;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.User;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @ControllerTest
 public class UserControllerTest {
     @Autowired
@@ -123,6 +127,170 @@ public class UserControllerTest {
                 .expectStatus()
                 .is2xxSuccessful();
     }
-}
 
+    @Test
+    void shouldRecommendFilmsOfSimilarUsers_recommendationsTest() {
+        webTestClient.get()
+                .uri("/users/1/recommendations")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(2);
+
+        webTestClient.put()
+                .uri("/films/2/like/1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+
+        webTestClient.get()
+                .uri("/users/1/recommendations")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(0);
+
+        webTestClient.get()
+                .uri("/users/3/recommendations")
+                .exchange()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1);
+
+        webTestClient.get()
+                .uri("/users/999/recommendations")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
 
+    @Test
+    void shouldRejectNonPositiveCount_recommendationsTest() {
+        for (String count : new String[] {"-1", "0"}) {
+            webTestClient.get()
+                    .uri("/users/1/recommendations?count={count}", count)
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.statusCode").isEqualTo(400);
+        }
+    }
+
+    @Test
+    void shouldPageFeedNewestFirst_feedTest() throws InterruptedException {
+        webTestClient.put()
+                .uri("/users/2/friends/3")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+
+        webTestClient.delete()
+                .uri("/users/2/friends/3")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+
+        CursorPage<?> firstPage = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            firstPage = webTestClient.get()
+                    .uri("/users/2/feed?limit=1")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(CursorPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            if (firstPage != null && firstPage.getNextCursor() != null) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        webTestClient.get()
+                .uri("/users/2/feed?limit=1")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.items[0].eventType").isEqualTo("FRIEND")
+                .jsonPath("$.items[0].operation").isEqualTo("REMOVE")
+                .jsonPath("$.items[0].entityId").isEqualTo(3);
+
+        webTestClient.get()
+                .uri("/users/2/feed?limit=1&before=" + firstPage.getNextCursor())
+                .exchange()
+                .expectBody()
+                .jsonPath("$.items[0].operation").isEqualTo("ADD")
+                .jsonPath("$.nextCursor").doesNotExist();
+
+        webTestClient.get()
+                .uri("/users/999/feed")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void shouldSerializeOnlyRequestedFields_projectionTest() {
+        webTestClient.get()
+                .uri("/users?ids=1,2&fields=login")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.items[0].login").isEqualTo("ivan_p")
+                .jsonPath("$.items[0].email").doesNotExist()
+                .jsonPath("$.items[0].friends").doesNotExist();
+    }
+
+    @Test
+    void shouldRejectStaleVersion_optimisticUpdateTest() {
+        User created = webTestClient.post()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(User.builder()
+                        .email("versioned@email.com")
+                        .login("versioned")
+                        .name("Versioned")
+                        .birthday(LocalDate.of(1990, 1, 1))
+                        .build())
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody(User.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(created).isNotNull();
+        assertThat(created.getVersion()).isZero();
+
+        webTestClient.put()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("id", created.getId(), "login", "versioned", "name", "First", "version", 0))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.version").isEqualTo(1);
+
+        webTestClient.put()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("id", created.getId(), "login", "versioned", "name", "Second", "version", 0))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+
+        webTestClient.put()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("id", created.getId(), "login", "versioned", "name", "Third"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Third")
+                .jsonPath("$.version").isEqualTo(2);
+    }
+}
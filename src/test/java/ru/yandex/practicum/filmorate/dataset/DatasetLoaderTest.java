@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The loader replaces the seed data and runs DDL that H2 commits immediately, so the database is discarded
+ * after this class.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DatasetLoaderTest {
+    private static final DatasetSpec SPEC = DatasetSpec.builder()
+            .seed(7)
+            .users(300)
+            .films(60)
+            .likes(3_000)
+            .friendships(900)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void shouldGenerateSameFilesForSameSeed(@TempDir Path first, @TempDir Path second) throws IOException {
+        new DatasetGenerator(SPEC).generate(first);
+        new DatasetGenerator(SPEC).generate(second);
+        new DatasetGenerator(SPEC.toBuilder().seed(8).build()).generate(second.resolve("other"));
+
+        for (String file : new String[]{DatasetGenerator.USERS_FILE, DatasetGenerator.FILMS_FILE,
+                DatasetGenerator.FILM_GENRES_FILE, DatasetGenerator.LIKES_FILE, DatasetGenerator.FRIENDS_FILE}) {
+            assertThat(Files.mismatch(first.resolve(file), second.resolve(file))).isEqualTo(-1L);
+        }
+        assertThat(Files.mismatch(first.resolve(DatasetGenerator.LIKES_FILE),
+                second.resolve("other").resolve(DatasetGenerator.LIKES_FILE))).isNotEqualTo(-1L);
+    }
+
+    @Test
+    public void shouldLoadGeneratedDatasetAndRestoreIndexes(@TempDir Path directory) throws IOException {
+        new DatasetGenerator(SPEC).generate(directory);
+
+        Map<String, Integer> rows = new DatasetLoader(jdbcTemplate).load(directory);
+
+        assertThat(rows.get("user")).isEqualTo(SPEC.getUsers());
+        assertThat(rows.get("film")).isEqualTo(SPEC.getFilms());
+        assertThat(rows.get("like")).isEqualTo(dataLines(directory.resolve(DatasetGenerator.LIKES_FILE)))
+                .isEqualTo(count("SELECT COUNT(*) FROM \"like\""));
+        assertThat(rows.get("friends")).isEqualTo(count("SELECT COUNT(*) FROM friends")).isPositive();
+        assertThat(rows.get("like").longValue()).isBetween(SPEC.getLikes() / 2, SPEC.getLikes() * 2);
+
+        int maxFilmLikes = count("SELECT MAX(c) FROM (SELECT COUNT(*) AS c FROM \"like\" GROUP BY film_id)");
+        assertThat(maxFilmLikes).isGreaterThan(3 * rows.get("like") / SPEC.getFilms());
+
+        assertThat(count("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES
+                WHERE INDEX_NAME IN ('LIKE_CREATED_AT_IDX', 'LIKE_FILM_USER_IDX')
+                """)).isEqualTo(2);
+
+        jdbcTemplate.update("INSERT INTO \"user\" (email, login, name, birthday) VALUES ('new@example.com', "
+                + "'new_user', 'Новый', '2000-01-01')");
+        assertThat(count("SELECT MAX(id) FROM \"user\"")).isEqualTo(SPEC.getUsers() + 1);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private int dataLines(Path file) throws IOException {
+        try (var lines = Files.lines(file)) {
+            return (int) lines.count() - 1;
+        }
+    }
+}
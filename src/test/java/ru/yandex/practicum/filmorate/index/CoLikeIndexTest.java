@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.yandex.practicum.filmorate.event.FilmDeletedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikesReloadedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBatch;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationKey;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CoLikeIndexTest {
+    private final List<Like> likes = new ArrayList<>();
+    private LikeMatrix likeMatrix;
+    private CoLikeIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        like(1, 1);
+        like(1, 3);
+        like(2, 1);
+        like(2, 3);
+        like(3, 2);
+        like(3, 3);
+        LikeStorage likeStorage = new LikeStorage() {
+            @Override
+            public void addLike(Integer filmId, Integer userId) {
+            }
+
+            @Override
+            public void removeLike(Integer filmId, Integer userId) {
+            }
+
+            @Override
+            public boolean exists(Integer filmId, Integer userId) {
+                return likes.contains(Like.builder().userId(userId).filmId(filmId).build());
+            }
+
+            @Override
+            public List<Integer> getLikesByFilmId(Integer filmId) {
+                return likes.stream().filter(like -> like.getFilmId().equals(filmId)).map(Like::getUserId).toList();
+            }
+
+            @Override
+            public List<Integer> getLikesByFilmId(Integer filmId, Integer afterUserId, int limit) {
+                return List.of();
+            }
+
+            @Override
+            public List<Like> findAll() {
+                return likes;
+            }
+
+            @Override
+            public List<Like> findCreatedSince(Instant since) {
+                return likes;
+            }
+        };
+        likeMatrix = new LikeMatrix(likeStorage, event -> index.onLikesReloaded((LikesReloadedEvent) event));
+        likeMatrix.rebuild();
+        index = new CoLikeIndex(likeMatrix, new SimpleMeterRegistry(), 2, 1000);
+        index.rebuild();
+    }
+
+    private void like(int userId, int filmId) {
+        likes.add(Like.builder().userId(userId).filmId(filmId).build());
+    }
+
+    private List<Like> likesOf(int userId) {
+        return likes.stream().filter(like -> like.getUserId() == userId).toList();
+    }
+
+    private void publish(int userId, int filmId, boolean added) {
+        LikeChangedEvent event = new LikeChangedEvent(filmId, userId, added, Instant.now());
+        likeMatrix.onLikeChanged(event);
+        index.onLikeChanged(event);
+    }
+
+    @Test
+    public void shouldRankByCoLikesAfterRebuild() {
+        assertThat(index.findSimilar(3, 10)).containsExactly(1, 2);
+        assertThat(index.findSimilar(1, 10)).containsExactly(3);
+        assertThat(index.findSimilar(4, 10)).isEmpty();
+    }
+
+    @Test
+    public void shouldFollowLikesIncrementally() {
+        publish(3, 1, true);
+        publish(1, 2, true);
+        assertThat(index.findSimilar(2, 10)).containsExactly(1, 3);
+        assertThat(index.findSimilar(1, 10)).containsExactly(3, 2);
+
+        publish(1, 2, false);
+        publish(3, 1, false);
+        assertThat(index.findSimilar(2, 10)).containsExactly(3);
+        assertThat(index.findSimilar(1, 10)).containsExactly(3);
+    }
+
+    @Test
+    public void shouldKeepHeaviestNeighboursWithinCapacity() {
+        publish(1, 4, true);
+        publish(2, 4, true);
+        publish(3, 5, true);
+        assertThat(index.findSimilar(3, 10)).hasSize(2).contains(4);
+
+        index.onFilmDeleted(new FilmDeletedEvent(4));
+        assertThat(index.findSimilar(3, 10)).hasSize(1).doesNotContain(4);
+    }
+
+    @Test
+    public void shouldTakeBackCoLikesOfDeletedUser() {
+        index.onUserDeleted(new UserDeletedEvent(1, likesOf(1)));
+        assertThat(index.findSimilar(3, 10)).containsExactly(1, 2);
+
+        index.onUserDeleted(new UserDeletedEvent(2, likesOf(2)));
+        assertThat(index.findSimilar(3, 10)).containsExactly(2);
+        assertThat(index.findSimilar(1, 10)).isEmpty();
+        assertThat(index.findSimilar(2, 10)).containsExactly(3);
+    }
+
+    @Test
+    public void shouldReturnNothingForNonPositiveCount() {
+        assertThat(index.findSimilar(3, 0)).isEmpty();
+        assertThat(index.findSimilar(3, -1)).isEmpty();
+    }
+
+    @Test
+    public void shouldSkipHeavyUsersOnceTheMatrixCountsTheirLike() {
+        CoLikeIndex bounded = new CoLikeIndex(likeMatrix, new SimpleMeterRegistry(), 2, 2);
+        bounded.rebuild();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(CoLikeIndex.class, () -> bounded);
+            context.registerBean(LikeMatrix.class, () -> likeMatrix);
+            context.refresh();
+
+            context.publishEvent(new LikeChangedEvent(2, 1, true, Instant.now()));
+        }
+
+        assertThat(likeMatrix.filmsOf(1)).containsExactly(1, 2, 3);
+        assertThat(bounded.findSimilar(2, 10)).containsExactly(3);
+        assertThat(bounded.findSimilar(1, 10)).containsExactly(3);
+    }
+
+    @Test
+    public void shouldReloadLikesChangedOnOtherNode() {
+        like(3, 1);
+        likes.remove(Like.builder().userId(1).filmId(3).build());
+        remote(InvalidationKey.film(1), InvalidationKey.film(3), InvalidationKey.recommendations(3));
+
+        assertThat(likeMatrix.usersOf(1)).containsExactly(1, 2, 3);
+        assertThat(likeMatrix.filmsOf(1)).containsExactly(1);
+        assertThat(index.findSimilar(1, 10)).containsExactly(3, 2);
+        assertThat(index.findSimilar(2, 10)).containsExactly(1, 3);
+    }
+
+    @Test
+    public void shouldRebuildAfterMissedRemoteBatches() {
+        like(3, 1);
+        InvalidationBatch everything = InvalidationBatch.everything("peer", 2, System.currentTimeMillis());
+        likeMatrix.onRemoteInvalidation(everything);
+        index.onRemoteInvalidation(everything);
+
+        assertThat(likeMatrix.filmsOf(3)).containsExactly(1, 2, 3);
+        assertThat(index.findSimilar(2, 10)).containsExactly(1, 3);
+    }
+
+    private void remote(InvalidationKey... keys) {
+        InvalidationBatch batch = new InvalidationBatch("peer", 1, System.currentTimeMillis(), List.of(keys));
+        likeMatrix.onRemoteInvalidation(batch);
+        index.onRemoteInvalidation(batch);
+    }
+}
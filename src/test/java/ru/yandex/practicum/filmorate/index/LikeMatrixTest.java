@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LikeMatrixTest {
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+    private LikeMatrix matrix;
+    private int first;
+    private int second;
+
+    @BeforeEach
+    public void setUp() {
+        first = filmStorage.create(film()).getId();
+        second = filmStorage.create(film()).getId();
+        filmStorage.addLike(first, 1);
+        filmStorage.addLike(first, 2);
+        filmStorage.addLike(second, 2);
+        matrix = new LikeMatrix(new InMemoryLikeStorage(filmStorage), event -> { });
+        matrix.rebuild();
+    }
+
+    @Test
+    public void shouldRemoveDeletedUserWithoutReload() {
+        matrix.onUserDeleted(new UserDeletedEvent(2, List.of(like(first, 2), like(second, 2))));
+
+        assertThat(matrix.filmsOf(2)).isEmpty();
+        assertThat(matrix.usersOf(first)).containsExactly(1);
+        assertThat(matrix.usersOf(second)).isEmpty();
+        assertThat(matrix.films()).containsExactly(first);
+        assertThat(matrix.filmsOf(1)).containsExactly(first);
+    }
+
+    private static Like like(int filmId, int userId) {
+        return Like.builder().filmId(filmId).userId(userId).createdAt(Instant.now()).build();
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .name("Фильм")
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new ArrayList<>())
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.yandex.practicum.filmorate.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PopularityIndexTest {
+    private static final int GENRE = 1;
+
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+    private PopularityIndex index;
+    private int first;
+    private int second;
+
+    @BeforeEach
+    public void setUp() {
+        first = filmStorage.create(film("Первый")).getId();
+        second = filmStorage.create(film("Второй")).getId();
+        filmStorage.addLike(first, 1);
+        filmStorage.addLike(first, 2);
+        filmStorage.addLike(second, 3);
+        filmStorage.addLike(second, 4);
+        filmStorage.addLike(second, 5);
+        index = new PopularityIndex(filmStorage);
+        index.rebuild();
+    }
+
+    @Test
+    public void shouldSubtractLikesOfDeletedUserWithoutReload() {
+        assertThat(index.findTop(10, GENRE, null)).containsExactly(second, first);
+
+        index.onUserDeleted(new UserDeletedEvent(3, List.of(like(second, 3))));
+        index.onUserDeleted(new UserDeletedEvent(4, List.of(like(second, 4))));
+
+        assertThat(index.findTop(10, GENRE, null)).containsExactly(first, second);
+        assertThat(index.findTop(10, null, 2000)).containsExactly(first, second);
+    }
+
+    @Test
+    public void shouldIgnoreUnknownFilmsOfDeletedUser() {
+        index.onUserDeleted(new UserDeletedEvent(1, List.of(like(first, 1), like(999, 1))));
+
+        assertThat(index.findTop(10, GENRE, null)).containsExactly(second, first);
+    }
+
+    @Test
+    public void shouldKeepLikesAddedWhileChangedFilmIsRead() {
+        AtomicBoolean armed = new AtomicBoolean();
+        InMemoryFilmStorage racing = new InMemoryFilmStorage() {
+            @Override
+            public Film findById(Integer filmId) {
+                Film film = super.findById(filmId);
+                if (armed.getAndSet(false)) {
+                    for (int userId : new int[]{6, 7}) {
+                        addLike(filmId, userId);
+                        index.onLikeChanged(new LikeChangedEvent(filmId, userId, true, Instant.now()));
+                    }
+                }
+                return film;
+            }
+        };
+        first = racing.create(film("Первый")).getId();
+        second = racing.create(film("Второй")).getId();
+        racing.addLike(second, 3);
+        index = new PopularityIndex(racing);
+        index.rebuild();
+
+        armed.set(true);
+        index.onFilmChanged(new FilmChangedEvent(first));
+
+        assertThat(index.findTop(10, GENRE, null)).containsExactly(first, second);
+    }
+
+    private static Like like(int filmId, int userId) {
+        return Like.builder().filmId(filmId).userId(userId).createdAt(Instant.now()).build();
+    }
+
+    private static Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(List.of(Genre.builder().id(GENRE).build()))
+                .build();
+    }
+}
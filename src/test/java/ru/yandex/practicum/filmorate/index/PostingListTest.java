@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostingListTest {
+
+    @Test
+    public void shouldMatchSortedMapUnderRandomChanges() {
+        Random random = new Random(42);
+        PostingList list = new PostingList();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            int docId = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(list.remove(docId)).isEqualTo(expected.remove(docId) != null);
+            } else {
+                int frequency = 1 + random.nextInt(300);
+                list.add(docId, frequency);
+                expected.put(docId, frequency);
+            }
+            if (i % 1_000 == 0) {
+                assertThat(contents(list)).containsExactlyEntriesOf(expected);
+            }
+        }
+        assertThat(list.size()).isEqualTo(expected.size());
+        assertThat(contents(list)).containsExactlyEntriesOf(expected);
+    }
+
+    @Test
+    public void shouldReindexRemovedDocumentWithNewFrequency() {
+        PostingList list = new PostingList();
+        for (int docId = 1; docId <= 3 * PostingList.BLOCK_SIZE; docId++) {
+            list.add(docId, 1);
+        }
+        assertThat(list.remove(5)).isTrue();
+        assertThat(list.remove(5)).isFalse();
+        list.add(5, 7);
+
+        assertThat(list.size()).isEqualTo(3 * PostingList.BLOCK_SIZE);
+        assertThat(contents(list)).containsEntry(5, 7).hasSize(3 * PostingList.BLOCK_SIZE);
+    }
+
+    @Test
+    public void shouldDropEmptiedBlocks() {
+        PostingList list = new PostingList();
+        for (int docId = 1; docId <= 2 * PostingList.BLOCK_SIZE; docId++) {
+            list.add(docId, 1);
+        }
+        for (int docId = 1; docId <= 2 * PostingList.BLOCK_SIZE; docId++) {
+            assertThat(list.remove(docId)).isTrue();
+        }
+        assertThat(list.size()).isZero();
+        assertThat(contents(list)).isEmpty();
+
+        list.add(10, 2);
+        assertThat(contents(list)).containsExactly(Map.entry(10, 2));
+    }
+
+    private static Map<Integer, Integer> contents(PostingList list) {
+        Map<Integer, Integer> postings = new LinkedHashMap<>();
+        list.forEach(postings::put);
+        return postings;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.yandex.practicum.filmorate.event.UserDeletedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrendingIndexTest {
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+    private TrendingIndex index;
+    private int first;
+    private int second;
+
+    @BeforeEach
+    public void setUp() {
+        first = filmStorage.create(film()).getId();
+        second = filmStorage.create(film()).getId();
+        filmStorage.addLike(first, 1);
+        filmStorage.addLike(first, 2);
+        filmStorage.addLike(second, 3);
+        filmStorage.addLike(second, 4);
+        filmStorage.addLike(second, 5);
+        index = new TrendingIndex(new InMemoryLikeStorage(filmStorage), 168, 6);
+        index.replay();
+    }
+
+    @Test
+    public void shouldSubtractLikesOfDeletedUserFromTheirBuckets() {
+        assertThat(index.findTrending(24, 10)).containsExactly(second, first);
+
+        index.onUserDeleted(new UserDeletedEvent(3, List.of(like(second, 3))));
+        index.onUserDeleted(new UserDeletedEvent(4, List.of(like(second, 4))));
+
+        assertThat(index.findTrending(24, 10)).containsExactly(first, second);
+    }
+
+    @Test
+    public void shouldIgnoreLikesOutsideTheWindow() {
+        Like old = Like.builder().filmId(second).userId(3).createdAt(InMemoryFilmStorage.UNKNOWN_LIKE_TIME).build();
+        Like unknownFilm = Like.builder().filmId(999).userId(3).createdAt(Instant.now()).build();
+        index.onUserDeleted(new UserDeletedEvent(3, List.of(old, unknownFilm)));
+
+        assertThat(index.findTrending(24, 10)).containsExactly(second, first);
+    }
+
+    private Like like(int filmId, int userId) {
+        return Like.builder()
+                .filmId(filmId)
+                .userId(userId)
+                .createdAt(filmStorage.getLikeTimes(filmId).get(userId))
+                .build();
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .name("Фильм")
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new ArrayList<>())
+                .build();
+    }
+}
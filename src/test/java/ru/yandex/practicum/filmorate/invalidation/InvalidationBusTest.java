@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.event.LikesReloadedEvent;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.storage.film.FilmReadStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InvalidationBusTest {
+    private static final int WRITERS = 4;
+    private static final int LIKES_PER_WRITER = 5_000;
+    private static final int FILMS = 50;
+    private static final int USERS = 1_000;
+    private static final int GENRE = 1;
+
+    private final LoopbackTransport transport = new LoopbackTransport();
+    private final List<InvalidationBatch> applied = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry senderMetrics = new SimpleMeterRegistry();
+    private final SimpleMeterRegistry receiverMetrics = new SimpleMeterRegistry();
+
+    @Test
+    public void shouldCoalesceLikeStormIntoFewBatches() throws Exception {
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setFlushIntervalMs(20);
+        InvalidationBus sender = new InvalidationBus(transport, event -> { }, senderMetrics, properties);
+        InvalidationBus receiver = new InvalidationBus(transport, event -> applied.add((InvalidationBatch) event),
+                receiverMetrics, properties);
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        for (int writer = 0; writer < WRITERS; writer++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < LIKES_PER_WRITER; i++) {
+                    int userId = 1 + random.nextInt(USERS);
+                    sender.onLikeChanged(new LikeChangedEvent(1 + i % FILMS, userId, true, Instant.now()));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        sender.close();
+        receiver.close();
+
+        Set<InvalidationKey> keys = new HashSet<>();
+        applied.forEach(batch -> keys.addAll(batch.keys()));
+        for (int filmId = 1; filmId <= FILMS; filmId++) {
+            assertThat(keys.contains(InvalidationKey.film(filmId))
+                    || keys.contains(InvalidationKey.all(InvalidationKey.Kind.FILM))).isTrue();
+        }
+        assertThat(keys).allMatch(key -> key.kind().wide() == InvalidationKey.Kind.ALL_FILMS)
+                .doesNotContain(InvalidationKey.all(InvalidationKey.Kind.FILM));
+
+        double events = senderMetrics.get("filmorate.invalidation.events").counter().count();
+        double sentBatches = senderMetrics.get("filmorate.invalidation.batches").tag("direction", "sent")
+                .counter().count();
+        double sentKeys = senderMetrics.get("filmorate.invalidation.keys").tag("direction", "sent")
+                .counter().count();
+        assertThat(events).isEqualTo((double) WRITERS * LIKES_PER_WRITER);
+        assertThat(sentBatches).isEqualTo(applied.size()).isLessThan(events / 100);
+        assertThat(sentKeys).isLessThan(events / 2)
+                .isEqualTo(events - senderMetrics.get("filmorate.invalidation.coalesced").counter().count());
+        assertThat(receiverMetrics.get("filmorate.invalidation.gaps").counter().count()).isZero();
+
+        Timer staleness = receiverMetrics.get("filmorate.invalidation.staleness").timer();
+        assertThat(staleness.count()).isEqualTo((long) sentBatches);
+        assertThat(staleness.max(TimeUnit.MILLISECONDS)).isLessThan(2_000);
+    }
+
+    @Test
+    public void shouldInvalidateEverythingAfterMissedBatch() throws Exception {
+        InvalidationBus receiver = new InvalidationBus(transport, event -> applied.add((InvalidationBatch) event),
+                receiverMetrics, new InvalidationProperties());
+        long now = System.currentTimeMillis();
+
+        transport.send(new InvalidationBatch("peer", 1, now, List.of(InvalidationKey.film(1))));
+        transport.send(new InvalidationBatch("peer", 3, now, List.of(InvalidationKey.film(2))));
+        receiver.close();
+
+        assertThat(applied).hasSize(2);
+        assertThat(applied.get(0).keys()).containsExactly(InvalidationKey.film(1));
+        assertThat(applied.get(1).keys()).containsExactlyInAnyOrder(
+                InvalidationKey.all(InvalidationKey.Kind.FILM),
+                InvalidationKey.all(InvalidationKey.Kind.RECOMMENDATIONS),
+                InvalidationKey.all(InvalidationKey.Kind.FRIENDS));
+        assertThat(receiverMetrics.get("filmorate.invalidation.gaps").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReorderPopularListOfOtherNodeAfterRemoteLike() throws Exception {
+        InMemoryFilmStorage sharedStorage = new InMemoryFilmStorage();
+        int first = sharedStorage.create(film("Первый")).getId();
+        int second = sharedStorage.create(film("Второй")).getId();
+        sharedStorage.addLike(first, 1);
+        PopularityIndex popularOnB = new PopularityIndex(sharedStorage);
+        popularOnB.rebuild();
+        InvalidationBus busA = new InvalidationBus(transport, event -> { }, senderMetrics,
+                new InvalidationProperties());
+        InvalidationBus busB = new InvalidationBus(transport,
+                event -> popularOnB.onRemoteInvalidation((InvalidationBatch) event), receiverMetrics,
+                new InvalidationProperties());
+        assertThat(popularOnB.findTop(10, GENRE, null)).containsExactly(first, second);
+
+        for (int userId = 2; userId <= 3; userId++) {
+            sharedStorage.addLike(second, userId);
+            busA.onLikeChanged(new LikeChangedEvent(second, userId, true, Instant.now()));
+        }
+        busA.close();
+        busB.close();
+
+        assertThat(popularOnB.findTop(10, GENRE, null)).containsExactly(second, first);
+        assertThat(popularOnB.findTop(10, null, 2000)).containsExactly(second, first);
+    }
+
+    @Test
+    public void shouldDropRecommendationsOfRemoteLikerFromFilmKeyAlone() throws Exception {
+        InMemoryFilmStorage sharedStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage users = new InMemoryUserStorage(new Validators(null, null));
+        int first = sharedStorage.create(film("Первый")).getId();
+        int second = sharedStorage.create(film("Второй")).getId();
+        int liker = users.create(user("liker")).getId();
+        int neighbour = users.create(user("neighbour")).getId();
+        sharedStorage.addLike(first, liker);
+        sharedStorage.addLike(first, neighbour);
+        sharedStorage.addLike(second, neighbour);
+        FilmReadStorage reads = mock(FilmReadStorage.class);
+        when(reads.findByIds(anyList())).thenAnswer(invocation -> invocation.<List<Integer>>getArgument(0).stream()
+                .map(filmId -> Film.builder().id(filmId).build())
+                .toList());
+        RecommendationService[] recommendationsOnB = new RecommendationService[1];
+        LikeMatrix matrixOnB = new LikeMatrix(new InMemoryLikeStorage(sharedStorage),
+                event -> recommendationsOnB[0].onLikesReloaded((LikesReloadedEvent) event));
+        matrixOnB.rebuild();
+        recommendationsOnB[0] = new RecommendationService(matrixOnB, reads, users, new Validators(null, null),
+                500, 2_000, 50, 100, 600_000);
+        InvalidationBus busA = new InvalidationBus(transport, event -> { }, senderMetrics,
+                new InvalidationProperties());
+        InvalidationBus busB = new InvalidationBus(transport, event -> {
+            applied.add((InvalidationBatch) event);
+            matrixOnB.onRemoteInvalidation((InvalidationBatch) event);
+            recommendationsOnB[0].onRemoteInvalidation((InvalidationBatch) event);
+        }, receiverMetrics, new InvalidationProperties());
+        assertThat(recommendationsOnB[0].getRecommendations(liker, 10)).extracting(Film::getId)
+                .containsExactly(second);
+
+        sharedStorage.addLike(second, liker);
+        busA.onLikeChanged(new LikeChangedEvent(second, liker, true, Instant.now()));
+        busA.close();
+        busB.close();
+
+        assertThat(applied).singleElement().extracting(InvalidationBatch::keys)
+                .isEqualTo(List.of(InvalidationKey.film(second)));
+        assertThat(recommendationsOnB[0].getRecommendations(liker, 10)).isEmpty();
+    }
+
+    @Test
+    public void shouldDeliverBatchOverLocalSocket() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress("127.0.0.1", 0);
+        BlockingQueue<InvalidationBatch> received = new LinkedBlockingQueue<>();
+        try (SocketTransport target = new SocketTransport(loopback, List.of());
+             SocketTransport source = new SocketTransport(loopback,
+                     List.of(new InetSocketAddress("127.0.0.1", target.getLocalPort())))) {
+            target.start(received::add);
+            InvalidationBatch batch = new InvalidationBatch("node-a", 7, System.currentTimeMillis(),
+                    List.of(InvalidationKey.film(42), InvalidationKey.friends(3),
+                            InvalidationKey.all(InvalidationKey.Kind.RECOMMENDATIONS)));
+
+            source.send(batch);
+
+            assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo(batch);
+        }
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@example.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private static Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(List.of(Genre.builder().id(GENRE).build()))
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ExchangeLoggingTest {
+    private static final int RECORDS = 500;
+
+    private final ExchangeLogProperties properties = new ExchangeLogProperties();
+
+    @Test
+    public void shouldKeepBodyWhenContentLengthIsMalformed() throws Exception {
+        HttpRequest request = request("12abc");
+        HttpRequest withBody = mock(HttpRequest.class);
+        when(request.withBody()).thenReturn(withBody);
+
+        assertThat(new BodySkippingStrategy(properties).process(request)).isSameAs(withBody);
+    }
+
+    @Test
+    public void shouldSkipBodyAboveLimit() throws Exception {
+        HttpRequest request = request(String.valueOf(properties.getSkipBodyAbove() + 1));
+        HttpRequest withoutBody = mock(HttpRequest.class);
+        when(request.withoutBody()).thenReturn(withoutBody);
+
+        assertThat(new BodySkippingStrategy(properties).process(request)).isSameAs(withoutBody);
+    }
+
+    @Test
+    public void shouldWriteQueuedRecordsOnClose() throws Exception {
+        properties.setQueueCapacity(RECORDS);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AsyncExchangeSink sink = new AsyncExchangeSink(properties, meterRegistry);
+        Correlation correlation = mock(Correlation.class);
+        when(correlation.getId()).thenReturn("c1");
+        when(correlation.getDuration()).thenReturn(Duration.ofMillis(3));
+        HttpRequest request = request("2");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestUri()).thenReturn("http://localhost/films");
+        when(request.getBody()).thenReturn("{}".getBytes(StandardCharsets.UTF_8));
+        when(request.getCharset()).thenReturn(StandardCharsets.UTF_8);
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatus()).thenReturn(201);
+        when(response.getBody()).thenReturn(new byte[0]);
+
+        for (int i = 0; i < RECORDS; i++) {
+            sink.writeBoth(correlation, request, response);
+        }
+        sink.close();
+
+        assertThat(meterRegistry.get("filmorate.exchange.log.records").tag("outcome", "written").counter().count())
+                .isEqualTo(RECORDS);
+        assertThat(meterRegistry.get("filmorate.exchange.log.records").tag("outcome", "dropped").counter().count())
+                .isZero();
+    }
+
+    private static HttpRequest request(String contentLength) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getHeaders()).thenReturn(HttpHeaders.of("Content-Length", contentLength));
+        return request;
+    }
+}
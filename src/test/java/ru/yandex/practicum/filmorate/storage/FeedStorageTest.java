@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.FeedEventType;
+import ru.yandex.practicum.filmorate.model.FeedOperation;
+import ru.yandex.practicum.filmorate.storage.feed.FeedDbStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FeedDbStorage.class, SqlRunner.class})
+public class FeedStorageTest {
+    private final FeedDbStorage storage;
+
+    private FeedEvent event(Integer userId, FeedEventType type, FeedOperation operation, Integer entityId) {
+        return FeedEvent.builder()
+                .userId(userId)
+                .eventType(type)
+                .operation(operation)
+                .entityId(entityId)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    @Test
+    public void testFindByUserIdIncludesEditsOfLikedFilms() {
+        storage.saveAll(List.of(
+                event(1, FeedEventType.FRIEND, FeedOperation.ADD, 2),
+                event(null, FeedEventType.FILM, FeedOperation.UPDATE, 2),
+                event(2, FeedEventType.LIKE, FeedOperation.ADD, 2),
+                event(null, FeedEventType.FILM, FeedOperation.UPDATE, 3),
+                event(1, FeedEventType.LIKE, FeedOperation.REMOVE, 1)));
+
+        assertThat(storage.findByUserId(1, Long.MAX_VALUE, 10))
+                .extracting(FeedEvent::getEventType, FeedEvent::getOperation, FeedEvent::getEntityId)
+                .containsExactly(
+                        tuple(FeedEventType.LIKE, FeedOperation.REMOVE, 1),
+                        tuple(FeedEventType.FILM, FeedOperation.UPDATE, 3),
+                        tuple(FeedEventType.FRIEND, FeedOperation.ADD, 2));
+        assertThat(storage.findByUserId(3, Long.MAX_VALUE, 10))
+                .extracting(FeedEvent::getUserId, FeedEvent::getEventType, FeedEvent::getEntityId)
+                .containsExactly(tuple(3, FeedEventType.FILM, 3), tuple(3, FeedEventType.FILM, 2));
+    }
+
+    @Test
+    public void testFindByUserIdPagesByKeyset() {
+        storage.saveAll(List.of(
+                event(3, FeedEventType.LIKE, FeedOperation.ADD, 1),
+                event(3, FeedEventType.LIKE, FeedOperation.REMOVE, 1),
+                event(3, FeedEventType.FRIEND, FeedOperation.ADD, 1)));
+
+        List<FeedEvent> first = storage.findByUserId(3, Long.MAX_VALUE, 2);
+        assertThat(first).extracting(FeedEvent::getOperation)
+                .containsExactly(FeedOperation.ADD, FeedOperation.REMOVE);
+
+        List<FeedEvent> second = storage.findByUserId(3, first.getLast().getId(), 2);
+        assertThat(second).hasSize(1);
+        assertThat(second.getFirst().getEventType()).isEqualTo(FeedEventType.LIKE);
+        assertThat(second.getFirst().getId()).isLessThan(first.getLast().getId());
+    }
+}
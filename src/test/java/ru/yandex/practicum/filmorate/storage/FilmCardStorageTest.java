@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.card.FilmCardStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
+import ru.yandex.practicum.filmorate.util.Projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmCardStorage.class, SqlRunner.class})
+public class FilmCardStorageTest {
+    private final FilmCardStorage storage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void rebuild() {
+        assertThat(storage.rebuild()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFindById() {
+        Film film = storage.findById(3);
+        assertThat(film.getName()).isEqualTo("Шрек");
+        assertThat(film.getMpa().getName()).isEqualTo("PG");
+        assertThat(film.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Мультфильм");
+        assertThat(film.getLikes()).containsOnly(1, 2, 3);
+    }
+
+    @Test
+    public void testFindByIdWithProjection() {
+        Projection projection = Projection.of("name,mpa", Projection.FILM_FIELDS, getClass());
+        Film film = storage.findById(3, projection);
+        assertThat(film.getId()).isEqualTo(3);
+        assertThat(film.getName()).isEqualTo("Шрек");
+        assertThat(film.getMpa().getName()).isEqualTo("PG");
+        assertThat(film.getDescription()).isNull();
+        assertThat(film.getGenres()).isNull();
+        assertThat(film.getLikes()).isEmpty();
+    }
+
+    @Test
+    public void testFindTopLiked() {
+        List<Film> top = storage.findTopLiked(2);
+        assertThat(top).extracting(Film::getId).containsExactly(3, 1);
+        assertThat(top.get(1).getLikes()).containsOnly(1, 2);
+    }
+
+    @Test
+    public void testRefreshAfterSourceChange() {
+        jdbcTemplate.update("UPDATE film SET name = 'Шрек 2' WHERE id = 3;");
+        jdbcTemplate.update("DELETE FROM film_genre WHERE film_id = 3;");
+        jdbcTemplate.update("INSERT INTO \"like\" (user_id, film_id) VALUES (3, 1);");
+        assertThat(storage.findById(3).getName()).isEqualTo("Шрек");
+
+        storage.refresh(3);
+        storage.refreshLikeCount(1);
+
+        assertThat(storage.findById(3).getName()).isEqualTo("Шрек 2");
+        assertThat(storage.findById(3).getGenres()).isEmpty();
+        assertThat(storage.findTopLiked(1)).extracting(Film::getId).containsExactly(1);
+    }
+
+    @Test
+    public void testFindFilmWithoutReleaseDate() {
+        jdbcTemplate.update("UPDATE film SET release_date = NULL WHERE id = 2;");
+        storage.refresh(2);
+
+        assertThat(storage.findById(2).getReleaseDate()).isNull();
+        assertThat(storage.findById(2).getName()).isEqualTo("Форрест Гамп");
+    }
+
+    @Test
+    public void testRemove() {
+        storage.remove(2);
+        assertThat(storage.findAll()).extracting(Film::getId).containsExactly(1, 3);
+        assertThatThrownBy(() -> storage.findById(2)).isInstanceOf(NotFoundException.class);
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.*;
@@ -19,6 +20,7 @@ import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
 import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
 import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
 import ru.yandex.practicum.filmorate.util.Validators;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,7 +36,8 @@ import static org.assertj.core.api.Assertions.assertThat;
         GenreDbStorage.class,
         FilmMapper.class,
         LikeDbStorage.class,
-        LikeService.class})
+        LikeService.class,
+        SqlRunner.class})
 public class FilmStorageTest {
     private final FilmDbStorage storage;
 
@@ -63,6 +66,22 @@ public class FilmStorageTest {
         );
     }
 
+    @Test
+    public void testFindByIds() {
+        List<Film> films = storage.findByIds(List.of(3, 42, 1, 3));
+
+        assertThat(films)
+                .extracting(Film::getId)
+                .containsExactly(3, 1);
+        assertFilm(films.getFirst(), 3, "Шрек", "История про зеленого огра и его приключения.",
+                LocalDate.of(2001, 5, 18), 90, Mpa.builder().id(2).name("PG").build(),
+                Set.of(1, 2, 3), List.of(
+                        Genre.builder().id(1).name("Комедия").build(),
+                        Genre.builder().id(3).name("Мультфильм").build())
+        );
+        assertThat(storage.findByIds(List.of())).isEmpty();
+    }
+
     @Test
     public void testFindAll() {
         List<Film> films = storage.findAll();
@@ -129,6 +148,21 @@ public class FilmStorageTest {
         assertThat(updatedFilm.getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(2, 6, 4);
     }
 
+    @Test
+    public void testFilmUpdateRejectsStaleVersion() {
+        Film original = storage.findById(1);
+        assertThat(original.getVersion()).isZero();
+
+        Film updated = storage.update(original.toBuilder().name("Первая правка").build());
+        assertThat(updated.getVersion()).isEqualTo(1);
+
+        Film stale = original.toBuilder().name("Вторая правка").build();
+        Assertions.assertThrows(ConflictException.class, () -> storage.update(stale));
+        assertThat(storage.findById(1))
+                .hasFieldOrPropertyWithValue("name", "Первая правка")
+                .hasFieldOrPropertyWithValue("version", 1);
+    }
+
     @Test
     public void testFilmDelete() {
         Assertions.assertDoesNotThrow(() -> storage.findById(1));
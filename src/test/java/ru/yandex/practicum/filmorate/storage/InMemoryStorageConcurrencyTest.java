@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryStorageConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private void runConcurrently(IntConsumerTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadIndex = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    task.accept(threadIndex * OPERATIONS_PER_THREAD + i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private Film newFilm(int index) {
+        return Film.builder()
+                .name("Film " + index)
+                .description("About")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new ArrayList<>())
+                .build();
+    }
+
+    private User newUser(int index) {
+        return User.builder()
+                .email("user" + index + "@example.com")
+                .login("user" + index)
+                .name("User " + index)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    @Test
+    public void testConcurrentCreateAssignsUniqueSequentialIds() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        runConcurrently(index -> storage.create(newFilm(index)));
+
+        int total = THREADS * OPERATIONS_PER_THREAD;
+        assertThat(storage.findAll()).hasSize(total);
+        assertThat(storage.getStorage().keySet())
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, total).boxed().toList());
+    }
+
+    @Test
+    public void testConcurrentLikesOnSameFilmAreNotLost() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film film = storage.create(newFilm(0));
+
+        runConcurrently(userId -> storage.addLike(film.getId(), userId));
+        assertThat(storage.getLikes(film.getId())).hasSize(THREADS * OPERATIONS_PER_THREAD);
+
+        runConcurrently(userId -> storage.removeLike(film.getId(), userId));
+        assertThat(storage.getLikes(film.getId())).isEmpty();
+    }
+
+    @Test
+    public void testReadsDuringConcurrentLikesSeeStableCopies() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film film = storage.create(newFilm(0));
+
+        runConcurrently(index -> {
+            if (index % 2 == 0) {
+                storage.addLike(film.getId(), index);
+                return;
+            }
+            Film top = storage.findTopLiked(1).get(0);
+            int size = top.getLikes().size();
+            assertThat(List.copyOf(top.getLikes())).hasSize(size);
+            assertThat(top.getLikes()).isNotSameAs(storage.findById(film.getId()).getLikes());
+        });
+
+        assertThat(storage.findById(film.getId()).getLikeCount()).isEqualTo(THREADS * OPERATIONS_PER_THREAD / 2);
+    }
+
+    @Test
+    public void testConcurrentFriendAddsAreNotLost() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage(new Validators(null, null));
+        User user = storage.create(newUser(-1));
+        int total = THREADS * OPERATIONS_PER_THREAD;
+        for (int i = 0; i < total; i++) {
+            storage.create(newUser(i));
+        }
+
+        runConcurrently(index -> storage.addFriend(user.getId(), index + 2));
+
+        assertThat(storage.getFriends(user.getId())).hasSize(total);
+    }
+
+    @Test
+    public void testUpdatesDuringConcurrentFriendAddsKeepFriends() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage(new Validators(null, null));
+        User user = storage.create(newUser(-1));
+        int total = THREADS * OPERATIONS_PER_THREAD;
+        for (int i = 0; i < total / 2; i++) {
+            storage.create(newUser(i));
+        }
+
+        runConcurrently(index -> {
+            if (index % 2 == 0) {
+                storage.addFriend(user.getId(), index / 2 + 2);
+                return;
+            }
+            User update = storage.findById(user.getId()).toBuilder().version(null).build();
+            storage.update(update);
+            assertThat(update.getFriends()).isEmpty();
+        });
+
+        assertThat(storage.findById(user.getId()).getFriends()).hasSize(total / 2);
+        assertThat(storage.findById(user.getId()).getVersion()).isEqualTo(total / 2);
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerTask {
+        void accept(int index) throws Exception;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -9,14 +10,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import(LikeDbStorage.class)
+@Import({LikeDbStorage.class, SqlRunner.class})
 public class LikeStorageTest {
     private final LikeDbStorage storage;
 
@@ -30,6 +34,12 @@ public class LikeStorageTest {
         assertLikes(1, 1, 2);
     }
 
+    @Test
+    public void testGetLikesByFilmIdPage() {
+        assertThat(storage.getLikesByFilmId(3, 0, 2)).containsExactly(1, 2);
+        assertThat(storage.getLikesByFilmId(3, 2, 2)).containsExactly(3);
+    }
+
     @Test
     public void testAddLike() {
         assertLikes(1, 1, 2);
@@ -43,4 +53,14 @@ public class LikeStorageTest {
         storage.removeLike(1, 2);
         assertLikes(1, 1);
     }
+
+    @Test
+    public void testFindCreatedSince() {
+        Instant beforeLike = Instant.now().minusSeconds(1);
+        storage.addLike(2, 1);
+        assertThat(storage.findCreatedSince(beforeLike))
+                .extracting(Like::getFilmId, Like::getUserId)
+                .contains(tuple(2, 1));
+        assertThat(storage.findCreatedSince(Instant.now().plusSeconds(60))).isEmpty();
+    }
 }
@@ -0,0 +1,234 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.log.LogFilmStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogLikeStorage;
+import ru.yandex.practicum.filmorate.storage.log.LogStructuredStore;
+import ru.yandex.practicum.filmorate.storage.log.LogUserStorage;
+import ru.yandex.practicum.filmorate.util.Validators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class LogStructuredStorageTest {
+    @TempDir
+    Path directory;
+
+    private LogStructuredStore open() throws IOException {
+        return new LogStructuredStore(directory, 100_000, true, new Validators(null, null));
+    }
+
+    private Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("Описание")
+                .releaseDate(LocalDate.of(2001, 4, 22))
+                .duration(90)
+                .mpa(Mpa.builder().id(2).name("PG").build())
+                .genres(List.of(Genre.builder().id(3).name("Мультфильм").build()))
+                .build();
+    }
+
+    private User user(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private void fillStore(LogStructuredStore store) {
+        LogFilmStorage films = new LogFilmStorage(store, event -> { });
+        LogUserStorage users = new LogUserStorage(store, event -> { });
+        LogLikeStorage likes = new LogLikeStorage(store, event -> { });
+        films.create(film("Шрек"));
+        films.create(film("Шрек 2"));
+        users.create(user("first"));
+        users.create(user("second"));
+        users.create(user("third"));
+        likes.addLike(1, 1);
+        likes.addLike(1, 2);
+        likes.addLike(2, 3);
+        likes.removeLike(1, 2);
+        users.addFriend(1, 2);
+        users.addFriend(1, 3);
+        users.delete(3);
+        Film renamed = film("Шрек Третий");
+        renamed.setId(2);
+        films.update(renamed);
+    }
+
+    private void assertRecovered(LogStructuredStore store) {
+        assertThat(store.films().findAll()).hasSize(2);
+        assertThat(store.films().findById(1).getLikes()).containsExactly(1);
+        assertThat(store.films().findById(2).getName()).isEqualTo("Шрек Третий");
+        assertThat(store.films().findById(2).getLikes()).isEmpty();
+        assertThat(store.films().findById(2).getGenres()).extracting(Genre::getName).containsExactly("Мультфильм");
+        assertThat(store.users().findAll()).hasSize(2);
+        assertThat(store.users().findById(1).getFriends()).containsOnlyKeys(2);
+    }
+
+    @Test
+    public void testRecoverStateFromLog() throws Exception {
+        try (LogStructuredStore store = open()) {
+            fillStore(store);
+        }
+
+        try (LogStructuredStore store = open()) {
+            assertRecovered(store);
+            assertThat(new LogFilmStorage(store, event -> { }).create(film("Новый")).getId()).isEqualTo(3);
+            assertThat(new LogUserStorage(store, event -> { }).create(user("fourth")).getId()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndNewerLog() throws Exception {
+        try (LogStructuredStore store = open()) {
+            fillStore(store);
+            store.snapshot();
+            new LogLikeStorage(store, event -> { }).addLike(2, 1);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .anyMatch(name -> name.startsWith("snapshot-"))
+                    .noneMatch(name -> name.equals(String.format("wal-%020d.log", 1)));
+        }
+        try (LogStructuredStore store = open()) {
+            assertThat(store.films().findById(2).getLikes()).containsExactly(1);
+            assertThat(store.users().findById(1).getFriends()).containsOnlyKeys(2);
+            assertThat(store.films().findById(1).getLikes()).containsExactly(1);
+        }
+    }
+
+    @Test
+    public void testKeepLikeTimesAcrossRestart() throws Exception {
+        Instant before = Instant.now().minusSeconds(1);
+        List<LikeChangedEvent> events = new ArrayList<>();
+        try (LogStructuredStore store = open()) {
+            fillStore(store);
+            LogLikeStorage likes = new LogLikeStorage(store, event -> events.add((LikeChangedEvent) event));
+            likes.addLike(2, 2);
+            store.snapshot();
+            likes.addLike(2, 1);
+        }
+
+        try (LogStructuredStore store = open()) {
+            LogLikeStorage likes = new LogLikeStorage(store, event -> events.add((LikeChangedEvent) event));
+            assertThat(likes.findCreatedSince(before))
+                    .extracting(Like::getFilmId, Like::getUserId, Like::getCreatedAt)
+                    .containsExactlyInAnyOrder(
+                            tuple(1, 1, store.films().getLikeTimes(1).get(1)),
+                            tuple(2, 2, events.get(0).likedAt()),
+                            tuple(2, 1, events.get(1).likedAt()));
+            assertThat(likes.findCreatedSince(events.get(1).likedAt().plusMillis(1))).isEmpty();
+
+            likes.removeLike(2, 2);
+            assertThat(events.get(2).added()).isFalse();
+            assertThat(events.get(2).likedAt()).isEqualTo(events.get(0).likedAt());
+        }
+    }
+
+    @Test
+    public void testKeepVersionsAcrossRestart() throws Exception {
+        try (LogStructuredStore store = open()) {
+            fillStore(store);
+            LogUserStorage users = new LogUserStorage(store, event -> { });
+            User renamed = user("renamed");
+            renamed.setId(1);
+            users.update(renamed);
+            store.snapshot();
+            Film sequel = film("Шрек навсегда");
+            sequel.setId(2);
+            new LogFilmStorage(store, event -> { }).update(sequel);
+        }
+
+        try (LogStructuredStore store = open()) {
+            assertThat(store.films().findById(1).getVersion()).isEqualTo(0);
+            assertThat(store.films().findById(2).getVersion()).isEqualTo(2);
+            assertThat(store.users().findById(1).getVersion()).isEqualTo(1);
+            Film stale = film("Шрек");
+            stale.setId(2);
+            stale.setVersion(1);
+            assertThatThrownBy(() -> new LogFilmStorage(store, event -> { }).update(stale))
+                    .isInstanceOf(ConflictException.class);
+        }
+    }
+
+    @Test
+    public void testIgnoreTornTailOfLog() throws Exception {
+        try (LogStructuredStore store = open()) {
+            fillStore(store);
+        }
+        Path wal = directory.resolve(String.format("wal-%020d.log", 1));
+        long validLength = Files.size(wal);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 42, 1, 2, 3, 4, 5}));
+        }
+
+        try (LogStructuredStore store = open()) {
+            assertRecovered(store);
+        }
+        assertThat(Files.size(wal)).isEqualTo(validLength);
+    }
+
+    @Test
+    public void testUndoChangesThatDidNotReachLog() throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        try (LogStructuredStore store = new LogStructuredStore(directory, 100_000, true, new Validators(null, null)) {
+            @Override
+            protected void force(FileChannel logChannel) throws IOException {
+                Exception e = failure.get();
+                if (e instanceof IOException ioException) {
+                    throw ioException;
+                } else if (e != null) {
+                    throw (RuntimeException) e;
+                }
+                super.force(logChannel);
+            }
+        }) {
+            fillStore(store);
+            LogFilmStorage films = new LogFilmStorage(store, event -> { });
+            LogUserStorage users = new LogUserStorage(store, event -> { });
+            LogLikeStorage likes = new LogLikeStorage(store, event -> { });
+            for (Exception e : List.of(new IOException("Диск недоступен"), new IllegalStateException("Сбой"))) {
+                failure.set(e);
+                assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                    assertThatThrownBy(() -> likes.addLike(2, 1)).isInstanceOf(RuntimeException.class);
+                    assertThatThrownBy(() -> users.delete(1)).isInstanceOf(RuntimeException.class);
+                    assertThatThrownBy(() -> films.delete(1)).isInstanceOf(RuntimeException.class);
+                    assertThatThrownBy(() -> films.create(film("Новый"))).isInstanceOf(RuntimeException.class);
+                    assertThatThrownBy(() -> users.removeFriend(1, 2)).isInstanceOf(RuntimeException.class);
+                });
+                assertRecovered(store);
+            }
+            failure.set(null);
+            likes.addLike(2, 2);
+        }
+
+        try (LogStructuredStore store = open()) {
+            assertThat(store.films().findById(2).getLikes()).containsExactly(2);
+            store.films().removeLike(2, 2);
+            assertRecovered(store);
+        }
+    }
+}
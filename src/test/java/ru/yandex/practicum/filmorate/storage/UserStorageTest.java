@@ -14,6 +14,7 @@ import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.sql.SqlRunner;
 import ru.yandex.practicum.filmorate.util.DtoHelper;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,7 +22,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({UserDbStorage.class, DtoHelper.class})
+@Import({UserDbStorage.class, DtoHelper.class, SqlRunner.class})
 public class UserStorageTest {
     private final UserDbStorage storage;
     private final DtoHelper dtoHelper;
@@ -36,6 +37,13 @@ public class UserStorageTest {
                 .hasFieldOrPropertyWithValue("birthday", LocalDate.of(1990, 5, 15));
     }
 
+    @Test
+    public void testFindByIds() {
+        assertThat(storage.findByIds(List.of(2, 99, 1)))
+                .extracting(User::getId)
+                .containsExactly(2, 1);
+    }
+
     @Test
     public void testFindAll() {
         List<User> users = storage.findAll();
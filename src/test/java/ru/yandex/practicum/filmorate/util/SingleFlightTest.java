@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.yandex.practicum.filmorate.exception.ExceptionType;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 5_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll(() -> singleFlight.load("film.findById", 1, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "Шрек";
+        }));
+        awaitCallers(CALLERS);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Шрек");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("filmorate.single.flight.dedup.ratio").gauge().value())
+                .isEqualTo((CALLERS - 1) / (double) CALLERS);
+    }
+
+    @Test
+    public void shouldPassLoadErrorToAllWaiters() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 5_000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll(() -> singleFlight.load("film.findById", 999, () -> {
+            await(release);
+            throw new NotFoundException(ExceptionType.FILM_NOT_FOUND, getClass(), 999);
+        }));
+        awaitCallers(CALLERS);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(NotFoundException.class);
+                continue;
+            }
+            throw new AssertionError("Ожидалась ошибка загрузки");
+        }
+    }
+
+    @Test
+    public void shouldLoadOnItsOwnAfterWaitTimeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = executor.submit(() -> singleFlight.load("film.findTopLiked", 10, () -> {
+            await(release);
+            return "slow";
+        }));
+        awaitCallers(1);
+
+        assertThat(singleFlight.<String>load("film.findTopLiked", 10, () -> "fast")).isEqualTo("fast");
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    @Test
+    public void shouldNotJoinLoadStartedBeforeObservedVersion() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 5_000);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> stored = new AtomicReference<>("Шрек");
+        Future<String> before = executor.submit(() -> singleFlight.load("film.findById", "1:0", () -> {
+            String film = stored.get();
+            read.countDown();
+            await(release);
+            return film;
+        }));
+        read.await();
+
+        stored.set("Шрек 2");
+        assertThat(singleFlight.<String>load("film.findById", "1:1", stored::get)).isEqualTo("Шрек 2");
+        release.countDown();
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("Шрек");
+    }
+
+    private List<Future<String>> submitAll(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    /**
+     * Waits until the callers are running and had time to either start the load or join it.
+     */
+    private void awaitCallers(int callers) throws InterruptedException {
+        while (((ThreadPoolExecutor) executor).getActiveCount() < callers) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}